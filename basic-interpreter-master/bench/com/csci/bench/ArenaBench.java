@@ -0,0 +1,195 @@
+package com.csci.bench;
+
+import com.csci.engine.AstArena;
+import com.csci.grammar.*;
+import com.csci.lexer.Lexer;
+import com.csci.optimizer.Optimizer;
+import com.csci.parser.Parser;
+
+import java.util.Arrays;
+
+/**
+ * Memory and traversal of an optimized program held as an object tree against an {@link AstArena}. Retained
+ * memory is measured around a collection, traversals sum the integer literals by walking the objects, walking
+ * the arena and scanning its arrays.
+ * <p>
+ * {@code ./build.sh bench ArenaBench [definitions]}, 5000 definitions by default
+ */
+public class ArenaBench {
+
+    private static final String FUNCTION = """
+            int function%1$d() {
+                int a = %1$d;
+                for (int i = 0; i < 3; i++) {
+                    if (a > i) {
+                        a = a + i * 2;
+                    } else {
+                        a = a - 1;
+                    }
+                }
+                string s = "v" + a + "w" + 7;
+                return a + 1 - 2 * 3;
+            }
+            """;
+
+    private static long sum;
+
+    public static void main(String[] args) throws Exception {
+
+        int definitions = Bench.arg(args, 0, 5000);
+
+        StringBuilder source = new StringBuilder();
+
+        for (int i = 0; i < definitions; i++) {
+            source.append(String.format(FUNCTION, i));
+        }
+
+        PDefs program = (PDefs) new Optimizer().optimize(new Parser(new Lexer().lex(source.toString())).parseProgram());
+        AstArena arena = AstArena.of(program);
+        int nodes = arena.size();
+
+        long objects = retained(() -> Bench.sink = AstArena.of(program).toTree());
+        long arrays = retained(() -> Bench.sink = AstArena.of(program));
+
+        System.out.println(definitions + " definitions, " + nodes + " nodes");
+        System.out.println(String.format("objects: %d KB, %.1f bytes/node", objects / 1024, (double) objects / nodes));
+        System.out.println(String.format("arena:   %d KB, %.1f bytes/node", arrays / 1024, (double) arrays / nodes));
+
+        long walkObjects = Bench.best(10, 30, () -> {
+            sum = 0;
+            walk(program);
+        });
+        long expected = sum;
+
+        long walkArena = Bench.best(10, 30, () -> {
+            sum = 0;
+            arena.walk((a, node) -> {
+                if (a.kind(node) == AstArena.E_INT) {
+                    sum += a.value(node);
+                }
+                return true;
+            });
+        });
+        check(expected);
+
+        long scanArena = Bench.best(10, 30, () -> {
+            sum = 0;
+            for (int node = 0; node < arena.size(); node++) {
+                if (arena.kind(node) == AstArena.E_INT) {
+                    sum += arena.value(node);
+                }
+            }
+        });
+        check(expected);
+
+        System.out.println("walk objects: " + Bench.ms(walkObjects));
+        System.out.println("walk arena:   " + Bench.ms(walkArena));
+        System.out.println("scan arena:   " + Bench.ms(scanArena));
+        System.out.println("to arena:     " + Bench.ms(Bench.best(3, 10, () -> Bench.sink = AstArena.of(program))));
+        System.out.println("to objects:   " + Bench.ms(Bench.best(3, 10, () -> Bench.sink = arena.toTree())));
+    }
+
+    /**
+     * @param build body leaving the measured value in {@link Bench#sink}
+     * @return median of the bytes retained by the value over several builds, the first one reads low
+     */
+    private static long retained(Bench.Body build) throws Exception {
+
+        Runtime runtime = Runtime.getRuntime();
+        long[] bytes = new long[5];
+
+        for (int i = 0; i < bytes.length; i++) {
+
+            Bench.sink = null;
+            collect();
+            long before = runtime.totalMemory() - runtime.freeMemory();
+
+            build.run();
+            Object kept = Bench.sink;
+
+            collect();
+            bytes[i] = runtime.totalMemory() - runtime.freeMemory() - before;
+
+            Bench.sink = kept;
+        }
+
+        Arrays.sort(bytes);
+
+        return bytes[bytes.length / 2];
+    }
+
+    private static void collect() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+    }
+
+    private static void check(long expected) {
+        if (sum != expected) {
+            throw new AssertionError("Traversals disagree: " + expected + " and " + sum);
+        }
+    }
+
+    /**
+     * Sum the integer literals of the node kinds the benchmark program has
+     */
+    private static void walk(Object node) throws Exception {
+
+        if (node instanceof PDefs) {
+            for (Def def : ((PDefs) node).listdef_) {
+                walk(def);
+            }
+        } else if (node instanceof DFun) {
+            for (Stm stm : ((DFun) node).body()) {
+                walk(stm);
+            }
+        } else if (node instanceof SInit) {
+            walk(((SInit) node).exp_);
+        } else if (node instanceof SAss) {
+            walk(((SAss) node).exp);
+        } else if (node instanceof SReturn) {
+            walk(((SReturn) node).exp_);
+        } else if (node instanceof SFor) {
+            SFor sFor = (SFor) node;
+            walk(sFor.stm_);
+            walk(sFor.exp_1);
+            walk(sFor.exp_2);
+            for (Stm stm : sFor.liststm_) {
+                walk(stm);
+            }
+        } else if (node instanceof SIfElse) {
+            SIfElse sIfElse = (SIfElse) node;
+            walk(sIfElse.exp_);
+            for (Stm stm : sIfElse.stm_1) {
+                walk(stm);
+            }
+            for (Stm stm : sIfElse.stm_2) {
+                walk(stm);
+            }
+        } else if (node instanceof EInt) {
+            sum += ((EInt) node).integer_;
+        } else if (node instanceof EPlus) {
+            walk(((EPlus) node).exp_1);
+            walk(((EPlus) node).exp_2);
+        } else if (node instanceof EMinus) {
+            walk(((EMinus) node).exp_1);
+            walk(((EMinus) node).exp_2);
+        } else if (node instanceof ETimes) {
+            walk(((ETimes) node).exp_1);
+            walk(((ETimes) node).exp_2);
+        } else if (node instanceof EGt) {
+            walk(((EGt) node).exp_1);
+            walk(((EGt) node).exp_2);
+        } else if (node instanceof ELt) {
+            walk(((ELt) node).exp_1);
+            walk(((ELt) node).exp_2);
+        } else if (node instanceof EPIncr) {
+            walk(((EPIncr) node).exp_);
+        } else if (node instanceof EConcat) {
+            for (Exp exp : ((EConcat) node).exps_) {
+                walk(exp);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.csci.bench;
+
+/**
+ * Timing helpers of the benchmarks. A body is run a few times to warm up and then timed repeatedly, the best
+ * time is reported as it is the least disturbed by collections and other processes.
+ */
+final class Bench {
+
+    /**
+     * Results are stored here so the compiler can not drop the work producing them
+     */
+    static volatile Object sink;
+
+    private Bench() { }
+
+    interface Body {
+        void run() throws Exception;
+    }
+
+    /**
+     * @param warmups untimed runs
+     * @param runs    timed runs
+     * @param body    benchmark body
+     * @return best time of a timed run in nanoseconds
+     * @throws Exception exception of the body
+     */
+    static long best(int warmups, int runs, Body body) throws Exception {
+
+        for (int i = 0; i < warmups; i++) {
+            body.run();
+        }
+
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            body.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+
+    /**
+     * @return nanoseconds as milliseconds with two decimals
+     */
+    static String ms(long nanos) {
+        return String.format("%.2fms", nanos / 1e6);
+    }
+
+    /**
+     * @param args command line arguments
+     * @param index argument index
+     * @param fallback value if the argument is missing
+     * @return integer argument
+     */
+    static int arg(String[] args, int index, int fallback) {
+        return args.length > index ? Integer.parseInt(args[index]) : fallback;
+    }
+}
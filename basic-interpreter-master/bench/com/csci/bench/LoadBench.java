@@ -0,0 +1,191 @@
+package com.csci.bench;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.TypeInt;
+import com.csci.server.EvaluationServer;
+import com.csci.server.Protocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test client of a running {@link EvaluationServer}. Opens the given number of connections at once, each
+ * sends its requests back to back, the first by source and the rest by program id. Reports latency percentiles
+ * of the answered requests, requests failed by the server or the connection are counted apart.
+ * <p>
+ * {@code ./build.sh bench LoadBench [--port <port> | --socket <path>] [--connections <n>] [--requests <n>]
+ * [--source <file>]}, 2000 connections of 10 requests to port 7777 by default. Client and server on one host
+ * hold two file descriptors per connection, more connections need a higher open file limit.
+ */
+public class LoadBench {
+
+    private static final String DEFAULT_SOURCE =
+            "int main() { int s = 0; for (int i = 0; i < n; i++) { s = s + i; } return s; }";
+
+    public static void main(String[] args) throws Exception {
+
+        SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 7777);
+        int connections = 2000;
+        int requests = 10;
+        String source = DEFAULT_SOURCE;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[i + 1]));
+                    break;
+                case "--socket":
+                    address = UnixDomainSocketAddress.of(Path.of(args[i + 1]));
+                    break;
+                case "--connections":
+                    connections = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--requests":
+                    requests = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--source":
+                    source = Files.readString(Path.of(args[i + 1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        System.out.println(run(address, connections, requests, source));
+    }
+
+    /**
+     * Run load test
+     *
+     * @param address     server address
+     * @param connections number of concurrent connections
+     * @param requests    requests per connection
+     * @param source      evaluated program, may read the int input {@code n}
+     * @return report of latency percentiles of answered requests and the number of failed requests
+     * @throws InterruptedException if interrupted while waiting for connections
+     */
+    public static String run(SocketAddress address, int connections, int requests, String source) throws InterruptedException {
+
+        long[][] latencies = new long[connections][];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(connections);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<String, CustomObject> inputs = Collections.singletonMap("n", new CustomObject(new TypeInt(), 100));
+        Protocol.Request first = new Protocol.Request(Protocol.SOURCE, source, 0, inputs);
+
+        long begin;
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            for (int c = 0; c < connections; c++) {
+
+                int client = c;
+
+                clients.execute(() -> {
+
+                    long[] times = new long[requests];
+                    int done = 0;
+                    int answered = 0;
+                    boolean counted = false;
+
+                    try (SocketChannel channel = open(address)) {
+
+                        connected.countDown();
+                        counted = true;
+                        start.await();
+
+                        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+                        String id = null;
+
+                        for (; done < requests; done++) {
+
+                            Protocol.Request request = id == null
+                                    ? first
+                                    : new Protocol.Request(Protocol.PROGRAM_ID, id, 0, inputs);
+
+                            long sent = System.nanoTime();
+                            Protocol.writeRequest(out, request);
+                            Protocol.Response response = Protocol.readResponse(in);
+                            long latency = System.nanoTime() - sent;
+
+                            // failed requests return early, their latency would flatter the percentiles
+                            if (response == null || response.status != Protocol.OK) {
+                                failures.incrementAndGet();
+                            } else {
+                                times[answered++] = latency;
+                                id = response.programId;
+                            }
+                        }
+
+                    } catch (Exception e) {
+                        failures.addAndGet(requests - done);
+                    } finally {
+                        if (!counted) {
+                            connected.countDown();
+                        }
+                        latencies[client] = Arrays.copyOf(times, answered);
+                    }
+                });
+            }
+
+            connected.await();
+            begin = System.nanoTime();
+            start.countDown();
+        }
+
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+
+        if (all.length == 0) {
+            return "No request answered, failed: " + failures.get();
+        }
+
+        return String.format(
+                "connections=%d answered=%d failed=%d throughput=%.0f/s p50=%.3fms p99=%.3fms max=%.3fms",
+                connections,
+                all.length,
+                failures.get(),
+                all.length / (elapsed / 1e9),
+                percentile(all, 0.50) / 1e6,
+                percentile(all, 0.99) / 1e6,
+                all[all.length - 1] / 1e6
+        );
+    }
+
+    private static SocketChannel open(SocketAddress address) throws IOException {
+
+        if (address instanceof UnixDomainSocketAddress) {
+            SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(address);
+            return channel;
+        }
+
+        return SocketChannel.open(address);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
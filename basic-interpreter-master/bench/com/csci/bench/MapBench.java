@@ -0,0 +1,85 @@
+package com.csci.bench;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.TypeInt;
+import com.csci.runtime.IntKeyMap;
+import com.csci.runtime.StringKeyMap;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Script maps against {@link HashMap} holding the same values: inserting distinct keys into an empty map and
+ * looking every key up again.
+ * <p>
+ * {@code ./build.sh bench MapBench [keys]}, 1000000 keys by default
+ */
+public class MapBench {
+
+    public static void main(String[] args) throws Exception {
+
+        int count = Bench.arg(args, 0, 1_000_000);
+
+        Random random = new Random(30);
+        int[] ints = random.ints(count).distinct().toArray();
+        String[] strings = new String[ints.length];
+        CustomObject[] values = new CustomObject[ints.length];
+
+        for (int i = 0; i < ints.length; i++) {
+            strings[i] = "key" + ints[i];
+            values[i] = new CustomObject(new TypeInt(), i);
+        }
+
+        long intKeyMap = Bench.best(5, 10, () -> {
+            IntKeyMap map = new IntKeyMap(new TypeInt());
+            for (int i = 0; i < ints.length; i++) {
+                map.putInt(ints[i], values[i]);
+            }
+            long sum = 0;
+            for (int key : ints) {
+                sum += (Integer) map.getInt(key).value;
+            }
+            Bench.sink = sum;
+        });
+
+        long intHashMap = Bench.best(5, 10, () -> {
+            HashMap<Integer, CustomObject> map = new HashMap<>();
+            for (int i = 0; i < ints.length; i++) {
+                map.put(ints[i], values[i]);
+            }
+            long sum = 0;
+            for (int key : ints) {
+                sum += (Integer) map.get(key).value;
+            }
+            Bench.sink = sum;
+        });
+
+        long stringKeyMap = Bench.best(5, 10, () -> {
+            StringKeyMap map = new StringKeyMap(new TypeInt());
+            for (int i = 0; i < strings.length; i++) {
+                map.putString(strings[i], values[i]);
+            }
+            long sum = 0;
+            for (String key : strings) {
+                sum += (Integer) map.getString(key).value;
+            }
+            Bench.sink = sum;
+        });
+
+        long stringHashMap = Bench.best(5, 10, () -> {
+            HashMap<String, CustomObject> map = new HashMap<>();
+            for (int i = 0; i < strings.length; i++) {
+                map.put(strings[i], values[i]);
+            }
+            long sum = 0;
+            for (String key : strings) {
+                sum += (Integer) map.get(key).value;
+            }
+            Bench.sink = sum;
+        });
+
+        System.out.println(ints.length + " keys, insert and look up every key");
+        System.out.println("int keys:    IntKeyMap " + Bench.ms(intKeyMap) + ", HashMap " + Bench.ms(intHashMap));
+        System.out.println("string keys: StringKeyMap " + Bench.ms(stringKeyMap) + ", HashMap " + Bench.ms(stringHashMap));
+    }
+}
@@ -0,0 +1,73 @@
+package com.csci.bench;
+
+import com.csci.lexer.ByteLexer;
+import com.csci.lexer.Lexer;
+
+import java.io.BufferedWriter;
+import java.lang.foreign.Arena;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lexing a source file by mapping it and scanning its UTF-8 bytes against reading it into a string and lexing
+ * that. The string lexer passes its tokens to a counter so neither side keeps more than its own token storage.
+ * <p>
+ * {@code ./build.sh bench MappedLexBench [megabytes]}, 64 MB by default. The 1 GB run takes
+ * {@code JAVA_OPTS=-Xmx8g ./build.sh bench MappedLexBench 1024}.
+ */
+public class MappedLexBench {
+
+    private static final String FUNCTION = """
+            int function%1$d() {
+                string label%1$d = "value of %1$d";
+                int counter%1$d = %1$d;
+                for (int i = 0; i < 100; i++) {
+                    // accumulate the counter
+                    counter%1$d = counter%1$d + i * 2;
+                }
+                return counter%1$d;
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+
+        long bytes = Bench.arg(args, 0, 64) * 1024L * 1024L;
+
+        Path file = Files.createTempFile("corpus", ".basic");
+        file.toFile().deleteOnExit();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; Files.size(file) < bytes; i++) {
+                writer.write(String.format(FUNCTION, i));
+                if (i % 10000 == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        long size = Files.size(file);
+        long[] count = new long[1];
+
+        long mapped = Bench.best(1, 3, () -> {
+            try (Arena arena = Arena.ofConfined()) {
+                count[0] = new ByteLexer().lex(file, arena).size();
+            }
+        });
+
+        long tokens = count[0];
+
+        long string = Bench.best(1, 3, () -> {
+            count[0] = 0;
+            new Lexer().lex(Files.readString(file), token -> count[0]++);
+        });
+
+        if (count[0] != tokens) {
+            throw new AssertionError("Lexers disagree: " + tokens + " and " + count[0] + " tokens");
+        }
+
+        System.out.println(size / (1024 * 1024) + " MB, " + tokens + " tokens");
+        System.out.println(String.format("mapped ByteLexer:           %s, %.0f MB/s", Bench.ms(mapped), size / 1.048576 / (mapped / 1e3)));
+        System.out.println(String.format("Files.readString + Lexer:   %s, %.0f MB/s", Bench.ms(string), size / 1.048576 / (string / 1e3)));
+    }
+}
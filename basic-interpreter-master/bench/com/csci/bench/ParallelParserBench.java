@@ -0,0 +1,60 @@
+package com.csci.bench;
+
+import com.csci.lexer.Lexer;
+import com.csci.lexer.Token;
+import com.csci.parser.ParallelParser;
+import com.csci.parser.Parser;
+
+import java.util.LinkedList;
+
+/**
+ * Parsing a program of many definitions with {@link ParallelParser} against {@link Parser#parseProgram()} on the
+ * same tokens. The common pool is given the requested number of workers, so the speedup by core count is read
+ * from one run per count, e.g. {@code for n in 1 2 4 8; do ./build.sh bench ParallelParserBench 20000 $n; done}.
+ * <p>
+ * {@code ./build.sh bench ParallelParserBench [definitions] [workers]}, 20000 definitions and the core count by
+ * default
+ */
+public class ParallelParserBench {
+
+    private static final String FUNCTION = """
+            int function%1$d() {
+                int counter%1$d = %1$d;
+                string label%1$d = "value of %1$d";
+                for (int i = 0; i < 100; i++) {
+                    if (counter%1$d > i * 2) {
+                        counter%1$d = counter%1$d - i;
+                    } else {
+                        counter%1$d = counter%1$d + i * 2;
+                    }
+                }
+                return counter%1$d;
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+
+        int definitions = Bench.arg(args, 0, 20_000);
+        int workers = Bench.arg(args, 1, Runtime.getRuntime().availableProcessors());
+
+        // read once when the common pool is first used
+        System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", Integer.toString(workers));
+
+        StringBuilder source = new StringBuilder();
+
+        for (int i = 0; i < definitions; i++) {
+            source.append(String.format(FUNCTION, i));
+        }
+
+        LinkedList<Token> tokens = new Lexer().lex(source.toString());
+
+        // the sequential parser consumes its tokens, both sides parse a fresh copy
+        long sequential = Bench.best(3, 5, () -> Bench.sink = new Parser(new LinkedList<>(tokens)).parseProgram());
+        long parallel = Bench.best(3, 5, () -> Bench.sink = new ParallelParser().parse(new LinkedList<>(tokens)));
+
+        System.out.println(definitions + " definitions, " + tokens.size() + " tokens, " + workers + " workers on "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println("Parser:         " + Bench.ms(sequential));
+        System.out.println(String.format("ParallelParser: %s, %.2fx", Bench.ms(parallel), (double) sequential / parallel));
+    }
+}
@@ -0,0 +1,51 @@
+package com.csci.bench;
+
+import com.csci.engine.CompiledProgram;
+import com.csci.runtime.CancellationToken;
+import com.csci.visitor.Evaluator;
+
+/**
+ * Overhead of the limits polled at loop back edges. The same loops run without limits, where a safepoint only
+ * counts down to a poll that finds nothing to check, and with a fuel budget, a time limit and a cancellation
+ * token, which burn fuel at every safepoint and read the clock and the token every few hundred.
+ * <p>
+ * {@code ./build.sh bench SafepointBench [iterations]}, one million loop iterations by default
+ */
+public class SafepointBench {
+
+    private static final String SOURCE = """
+            int main() {
+                int sum = 0;
+                for (int i = 0; i < %1$d; i++) {
+                    sum = sum + i;
+                }
+                int j = 0;
+                while (j < %1$d) {
+                    sum = sum - j;
+                    j++;
+                }
+                return sum;
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+
+        int iterations = Bench.arg(args, 0, 1_000_000);
+
+        CompiledProgram program = CompiledProgram.compile(String.format(SOURCE, iterations));
+
+        long unpolled = Bench.best(5, 10, () -> Bench.sink = program.run(new Evaluator()));
+
+        long polled = Bench.best(5, 10, () -> {
+            Evaluator evaluator = new Evaluator();
+            evaluator.setFuel(Long.MAX_VALUE);
+            evaluator.setTimeLimit(60_000);
+            evaluator.setCancellationToken(new CancellationToken());
+            Bench.sink = program.run(evaluator);
+        });
+
+        System.out.println(2 * iterations + " loop iterations");
+        System.out.println("unpolled: " + Bench.ms(unpolled));
+        System.out.println(String.format("polled:   %s, %+.1f%%", Bench.ms(polled), 100.0 * (polled - unpolled) / unpolled));
+    }
+}
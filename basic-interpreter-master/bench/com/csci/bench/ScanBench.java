@@ -0,0 +1,43 @@
+package com.csci.bench;
+
+import com.csci.lexer.ByteLexer;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Throughput of {@link ByteLexer} on sources dominated by long identifiers, large string literals, comments and
+ * indentation, the runs its scanner skips in bulk. The vector scanner is used when the {@code jdk.incubator.vector}
+ * module is present, {@code VECTOR=off} leaves it out of the benchmark JVM to measure the scalar scanner.
+ * <p>
+ * {@code ./build.sh bench ScanBench [lines] [clock in MHz]}, 100000 lines by default. Given the clock, bytes per
+ * cycle are reported besides bytes per nanosecond.
+ */
+public class ScanBench {
+
+    public static void main(String[] args) throws Exception {
+
+        int lines = Bench.arg(args, 0, 100_000);
+        int megahertz = Bench.arg(args, 1, 0);
+
+        StringBuilder source = new StringBuilder();
+
+        for (int i = 0; i < lines; i++) {
+            source.append("\t\t\tint some_rather_long_identifier_name_number_").append(i).append(" = 1234567890;\n")
+                    .append("\t\t\tstring s = \"").append("a large string literal body ".repeat(4)).append("\";\n")
+                    .append("\t\t\t// ").append("a comment running to the end of the line ".repeat(2)).append('\n');
+        }
+
+        byte[] bytes = source.toString().getBytes(StandardCharsets.UTF_8);
+        MemorySegment segment = MemorySegment.ofArray(bytes);
+
+        long best = Bench.best(5, 10, () -> Bench.sink = new ByteLexer().lex(segment));
+
+        double perNanosecond = bytes.length / (double) best;
+        boolean vector = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        System.out.println((vector ? "vector" : "scalar") + " scanner, " + bytes.length + " bytes");
+        System.out.println(String.format("%s, %.3f bytes/ns", Bench.ms(best), perNanosecond)
+                + (megahertz > 0 ? String.format(", %.3f bytes/cycle at %d MHz", perNanosecond * 1000 / megahertz, megahertz) : ""));
+    }
+}
@@ -0,0 +1,63 @@
+package com.csci.bench;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+/**
+ * Evaluations per second of a small script through {@code javax.script}, compiling the source on every call
+ * with {@link ScriptEngine#eval(String, Bindings)} against evaluating a script compiled once. Each evaluation
+ * gets its own bindings holding the input.
+ * <p>
+ * {@code ./build.sh bench ScriptBench [evaluations]}, 10000 by default
+ */
+public class ScriptBench {
+
+    private static final String SOURCE = """
+            int main() {
+                int sum = 0;
+                for (int i = 0; i < n; i++) {
+                    if (i > 2) {
+                        sum = sum + i;
+                    } else {
+                        sum = sum - 1;
+                    }
+                }
+                string text = "sum " + sum;
+                return sum;
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+
+        int evaluations = Bench.arg(args, 0, 10_000);
+
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("basic");
+        CompiledScript compiled = ((Compilable) engine).compile(SOURCE);
+
+        long source = Bench.best(3, 5, () -> {
+            for (int i = 0; i < evaluations; i++) {
+                Bench.sink = engine.eval(SOURCE, bindings(engine, i));
+            }
+        });
+
+        long once = Bench.best(3, 5, () -> {
+            for (int i = 0; i < evaluations; i++) {
+                Bench.sink = compiled.eval(bindings(engine, i));
+            }
+        });
+
+        System.out.println(evaluations + " evaluations");
+        System.out.println(String.format("eval(String):   %s, %.2fus per evaluation", Bench.ms(source), source / 1e3 / evaluations));
+        System.out.println(String.format("compiled, eval: %s, %.2fus per evaluation, %.1fx", Bench.ms(once),
+                once / 1e3 / evaluations, (double) source / once));
+    }
+
+    private static Bindings bindings(ScriptEngine engine, int i) {
+        Bindings bindings = engine.createBindings();
+        bindings.put("n", i % 16);
+        return bindings;
+    }
+}
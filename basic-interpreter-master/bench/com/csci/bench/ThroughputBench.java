@@ -0,0 +1,80 @@
+package com.csci.bench;
+
+import com.csci.engine.CompiledProgram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs of one shared compiled program per second on a growing number of threads, each run evaluating in its
+ * own evaluator. Throughput should grow with the threads up to the core count as runs share no locks.
+ * <p>
+ * {@code ./build.sh bench ThroughputBench [runs per thread] [max threads]}, 2000 runs and the core count by
+ * default
+ */
+public class ThroughputBench {
+
+    private static final String SOURCE = """
+            int main() {
+                int[] xs = int[64];
+                for (int i = 0; i < xs.length; i++) {
+                    xs[i] = i * i;
+                }
+                int sum = 0;
+                for (int i = 0; i < xs.length; i++) {
+                    sum = sum + xs[i];
+                }
+                string text = "";
+                int count = 0;
+                while (count < 16) {
+                    text = text + count;
+                    count++;
+                }
+                return sum;
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+
+        int runs = Bench.arg(args, 0, 2000);
+        int maxThreads = Bench.arg(args, 1, Runtime.getRuntime().availableProcessors());
+
+        CompiledProgram program = CompiledProgram.compile(SOURCE);
+
+        System.out.println(runs + " runs per thread of one compiled program");
+
+        long single = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            int count = threads;
+
+            long best = Bench.best(3, 5, () -> {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < count; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < runs; i++) {
+                            Bench.sink = program.run();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            });
+
+            executor.shutdown();
+
+            double perSecond = (double) runs * threads / (best / 1e9);
+            single = threads == 1 ? best : single;
+
+            System.out.println(String.format("%2d threads: %s, %.0f runs/s, %.2fx", threads, Bench.ms(best),
+                    perSecond, (double) single * threads / best));
+        }
+    }
+}
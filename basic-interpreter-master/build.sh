@@ -0,0 +1,65 @@
+#!/bin/sh
+# Build the interpreter into out/, and run the tests or a benchmark.
+#
+#   ./build.sh                      compile src/
+#   ./build.sh test                 compile src/ and test/, run every *Test class
+#   ./build.sh bench <Class> [args] compile src/ and bench/, run com.csci.bench.<Class>
+#
+# Requires JDK 21 or newer. On JDK 21 the foreign memory API is a preview feature, the vector API is an
+# incubating module on every version. Set JAVA_HOME to pick the JDK and JAVA_OPTS to pass options to the JVM
+# running the tests or benchmark, e.g. JAVA_OPTS=-Xmx4g, and VECTOR=off to run them without the vector API.
+
+set -e
+
+cd "$(dirname "$0")"
+
+BIN=${JAVA_HOME:+$JAVA_HOME/bin/}
+VERSION=$("${BIN}java" -version 2>&1 | sed -n 's/.*version "\([0-9]*\).*/\1/p' | head -n 1)
+
+if [ -z "$VERSION" ] || [ "$VERSION" -lt 21 ]; then
+    echo "JDK 21 or newer required, found ${VERSION:-none}" >&2
+    exit 1
+fi
+
+if [ "$VERSION" -eq 21 ]; then
+    JAVAC_FLAGS="--release 21 --enable-preview"
+    JAVA_FLAGS="--enable-preview"
+else
+    JAVAC_FLAGS="--release $VERSION"
+    JAVA_FLAGS=""
+fi
+
+JAVAC_FLAGS="$JAVAC_FLAGS --add-modules jdk.incubator.vector -Xlint:-preview"
+
+if [ "$VECTOR" != off ]; then
+    JAVA_FLAGS="$JAVA_FLAGS --add-modules jdk.incubator.vector"
+fi
+
+rm -rf out
+mkdir -p out/classes
+
+"${BIN}javac" $JAVAC_FLAGS -d out/classes $(find src -name '*.java')
+cp -r src/META-INF out/classes/
+
+case "$1" in
+
+    test)
+        mkdir -p out/test
+        "${BIN}javac" $JAVAC_FLAGS -cp out/classes -d out/test $(find test -name '*.java')
+
+        for test in $(cd test && find . -name '*Test.java' | sed 's|^\./||; s|\.java$||; s|/|.|g' | sort); do
+            echo "$test"
+            "${BIN}java" $JAVA_FLAGS $JAVA_OPTS -cp out/classes:out/test "$test"
+        done
+        ;;
+
+    bench)
+        mkdir -p out/bench
+        "${BIN}javac" $JAVAC_FLAGS -cp out/classes -d out/bench $(find bench -name '*.java')
+
+        shift
+        class=$1
+        shift
+        "${BIN}java" $JAVA_FLAGS $JAVA_OPTS -cp out/classes:out/bench "com.csci.bench.$class" "$@"
+        ;;
+esac
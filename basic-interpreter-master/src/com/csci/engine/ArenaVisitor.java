@@ -0,0 +1,25 @@
+package com.csci.engine;
+
+/**
+ * Visitor of the nodes of an {@link AstArena}, nodes are passed as indices to read through the arena
+ */
+public interface ArenaVisitor {
+
+    /**
+     * Called before the children of a node
+     *
+     * @param arena arena
+     * @param node  node
+     * @return true to visit the children of the node
+     */
+    boolean enter(AstArena arena, int node);
+
+    /**
+     * Called after the children of a node, also if they were skipped
+     *
+     * @param arena arena
+     * @param node  node
+     */
+    default void exit(AstArena arena, int node) {
+    }
+}
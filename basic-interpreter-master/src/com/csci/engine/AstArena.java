@@ -0,0 +1,712 @@
+package com.csci.engine;
+
+import com.csci.grammar.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Syntax tree kept in one arena of parallel int arrays instead of one object per node. A node is an index
+ * into the arrays holding its kind, the range of its children in a shared child array, and a value and an
+ * extra int for literals, names and flags. Nodes are added children first, so the root is the last node
+ * and a scan over the arrays sees every node without following a pointer.
+ * <p>
+ * Lists are nodes of kind {@link #LIST}, a missing child is -1. Per kind the children and ints are:
+ * <ul>
+ * <li>{@link #P_DEFS}: list of definitions</li>
+ * <li>{@link #D_FUN}: type, list of arguments, list of statements, value the index of the name</li>
+ * <li>{@link #A_DECL}: type, value the index of the name, {@link #S_DECLS}: type, value the symbol</li>
+ * <li>{@link #S_INIT}: type and expression, {@link #S_ASS}: expression, {@link #S_INDEX_ASS}: index and
+ * value expression, value the symbol</li>
+ * <li>{@link #S_FOR}: init, condition, step, list of statements, value the loop slot</li>
+ * <li>{@link #E_INT}: value the integer, {@link #E_DOUBLE}: value the index of {@link #number(int)},
+ * {@link #E_STRING}: value the index of {@link #string(int)}</li>
+ * <li>{@link #E_ID}: value the symbol, {@link #E_APP}: value the index of the name, {@link #E_LOOP_VAR}: value the
+ * index of the name, extra the slot</li>
+ * <li>{@link #E_CONCAT}: dynamic operands, value the index of the first literal, extra the capacity</li>
+ * <li>{@link #E_NEW_ARRAY}: type and length, {@link #E_INDEX}: operands, extra 1 if off-heap or checked</li>
+ * <li>every other kind: its sub nodes in declaration order</li>
+ * </ul>
+ */
+public final class AstArena {
+
+    public static final int LIST = 0;
+
+    public static final int P_DEFS = 1;
+    public static final int D_FUN = 2;
+    public static final int A_DECL = 3;
+
+    public static final int S_EXP = 10;
+    public static final int S_DECLS = 11;
+    public static final int S_INIT = 12;
+    public static final int S_ASS = 13;
+    public static final int S_RETURN = 14;
+    public static final int S_WHILE = 15;
+    public static final int S_FOR = 16;
+    public static final int S_IF_ELSE = 17;
+    public static final int S_INDEX_ASS = 18;
+
+    public static final int E_TRUE = 30;
+    public static final int E_FALSE = 31;
+    public static final int E_INT = 32;
+    public static final int E_DOUBLE = 33;
+    public static final int E_STRING = 34;
+    public static final int E_ID = 35;
+    public static final int E_LOOP_VAR = 36;
+    public static final int E_APP = 37;
+    public static final int E_INCR = 38;
+    public static final int E_DECR = 39;
+    public static final int E_P_INCR = 40;
+    public static final int E_P_DECR = 41;
+    public static final int E_TIMES = 42;
+    public static final int E_DIV = 43;
+    public static final int E_PLUS = 44;
+    public static final int E_MINUS = 45;
+    public static final int E_LT = 46;
+    public static final int E_GT = 47;
+    public static final int E_LT_EQ = 48;
+    public static final int E_GT_EQ = 49;
+    public static final int E_EQ = 50;
+    public static final int E_N_EQ = 51;
+    public static final int E_AND = 52;
+    public static final int E_OR = 53;
+    public static final int E_ASS = 54;
+    public static final int E_CONCAT = 55;
+    public static final int E_NEW_ARRAY = 56;
+    public static final int E_INDEX = 57;
+    public static final int E_LENGTH = 58;
+    public static final int E_NEW_MAP = 59;
+    public static final int E_CONTAINS = 60;
+
+    public static final int T_INT = 80;
+    public static final int T_DOUBLE = 81;
+    public static final int T_BOOL = 82;
+    public static final int T_STRING = 83;
+    public static final int T_VOID = 84;
+    public static final int T_ARRAY = 85;
+    public static final int T_MAP = 86;
+
+    private int[] kinds = new int[1024];
+    private int[] values = new int[1024];
+    private int[] extras = new int[1024];
+
+    /**
+     * Start of the children of every node in {@link #children}, the children of the last node end at
+     * {@link #childCount}
+     */
+    private int[] childStarts = new int[1024];
+    private int[] children = new int[1024];
+    private int size;
+    private int childCount;
+
+    private String[] strings = new String[64];
+    private int stringCount;
+    private double[] numbers = new double[16];
+    private int numberCount;
+
+    /**
+     * Symbols of the program, variable nodes hold symbols of this table
+     */
+    private Symbols symbols;
+
+    private AstArena() { }
+
+    /**
+     * Convert an object tree, lazy function bodies are parsed
+     *
+     * @param program program
+     * @return arena holding the program
+     * @throws Exception syntax exception of a lazy function body
+     */
+    public static AstArena of(PDefs program) throws Exception {
+
+        AstArena arena = new AstArena();
+        arena.symbols = program.symbols_;
+        arena.add(program);
+        arena.trim();
+
+        return arena;
+    }
+
+    /**
+     * @return number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return root node, the program
+     */
+    public int root() {
+        return size - 1;
+    }
+
+    /**
+     * @param node node
+     * @return kind of the node
+     */
+    public int kind(int node) {
+        return kinds[node];
+    }
+
+    /**
+     * @param node node
+     * @return literal, symbol, or index of a name or literal of the node
+     */
+    public int value(int node) {
+        return values[node];
+    }
+
+    /**
+     * @param node node
+     * @return slot, capacity or flag of the node
+     */
+    public int extra(int node) {
+        return extras[node];
+    }
+
+    /**
+     * @param node node
+     * @return number of children of the node, missing ones included
+     */
+    public int childCount(int node) {
+        return (node + 1 < size ? childStarts[node + 1] : childCount) - childStarts[node];
+    }
+
+    /**
+     * @param node  node
+     * @param index child index
+     * @return child node or -1 if it is missing
+     */
+    public int child(int node, int index) {
+        return children[childStarts[node] + index];
+    }
+
+    /**
+     * @param index string index, e.g. the value of a string literal
+     * @return string
+     */
+    public String string(int index) {
+        return strings[index];
+    }
+
+    /**
+     * @return symbols of the program, naming the values of variable nodes
+     */
+    public Symbols symbols() {
+        return symbols;
+    }
+
+    /**
+     * @param index number index, the value of a double literal
+     * @return number
+     */
+    public double number(int index) {
+        return numbers[index];
+    }
+
+    /**
+     * Visit the nodes depth first without recursion, children in order
+     *
+     * @param visitor visitor
+     */
+    public void walk(ArenaVisitor visitor) {
+
+        if (size == 0) {
+            return;
+        }
+
+        int[] nodes = new int[64];
+        int[] next = new int[64];
+        int depth = 0;
+
+        nodes[0] = root();
+        next[0] = visitor.enter(this, nodes[0]) ? 0 : childCount(nodes[0]);
+
+        while (depth >= 0) {
+
+            int node = nodes[depth];
+
+            if (next[depth] == childCount(node)) {
+                visitor.exit(this, node);
+                depth--;
+                continue;
+            }
+
+            int child = child(node, next[depth]++);
+
+            if (child < 0) {
+                continue;
+            }
+
+            if (++depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                next = Arrays.copyOf(next, depth * 2);
+            }
+
+            nodes[depth] = child;
+            next[depth] = visitor.enter(this, child) ? 0 : childCount(child);
+        }
+    }
+
+    /**
+     * Convert back to an object tree
+     *
+     * @return program
+     */
+    public PDefs toTree() {
+        return (PDefs) node(root());
+    }
+
+    private int add(Object node) throws Exception {
+
+        if (node == null) {
+
+            return -1;
+
+        } else if (node instanceof PDefs) {
+
+            return node(P_DEFS, 0, 0, add(((PDefs) node).listdef_));
+
+        } else if (node instanceof List) {
+
+            List<?> list = (List<?>) node;
+            int[] items = new int[list.size()];
+            int i = 0;
+
+            for (Object item : list) {
+                items[i++] = add(item);
+            }
+
+            return node(LIST, 0, 0, items);
+
+        } else if (node instanceof DFun) {
+
+            DFun dFun = (DFun) node;
+            return node(D_FUN, addString(dFun.id_), 0, add(dFun.type_), add(dFun.listarg_), add(dFun.body()));
+
+        } else if (node instanceof ADecl) {
+
+            return node(A_DECL, addString(((ADecl) node).id_), 0, add(((ADecl) node).type_));
+
+        } else if (node instanceof SExp) {
+
+            return node(S_EXP, 0, 0, add(((SExp) node).exp_));
+
+        } else if (node instanceof SDecls) {
+
+            return node(S_DECLS, ((SDecls) node).symbol_, 0, add(((SDecls) node).type_));
+
+        } else if (node instanceof SInit) {
+
+            SInit sInit = (SInit) node;
+            return node(S_INIT, sInit.symbol_, 0, add(sInit.type_), add(sInit.exp_));
+
+        } else if (node instanceof SAss) {
+
+            return node(S_ASS, ((SAss) node).symbol, 0, add(((SAss) node).exp));
+
+        } else if (node instanceof SReturn) {
+
+            return node(S_RETURN, 0, 0, add(((SReturn) node).exp_));
+
+        } else if (node instanceof SWhile) {
+
+            return node(S_WHILE, 0, 0, add(((SWhile) node).exp_), add(((SWhile) node).stm_));
+
+        } else if (node instanceof SFor) {
+
+            SFor sFor = (SFor) node;
+            return node(S_FOR, sFor.slot_, 0, add(sFor.stm_), add(sFor.exp_1), add(sFor.exp_2), add(sFor.liststm_));
+
+        } else if (node instanceof SIfElse) {
+
+            SIfElse sIfElse = (SIfElse) node;
+            return node(S_IF_ELSE, 0, 0, add(sIfElse.exp_), add(sIfElse.stm_1), add(sIfElse.stm_2));
+
+        } else if (node instanceof SIndexAss) {
+
+            SIndexAss sIndexAss = (SIndexAss) node;
+            return node(S_INDEX_ASS, sIndexAss.symbol_, 0, add(sIndexAss.exp_1), add(sIndexAss.exp_2));
+
+        } else if (node instanceof ETrue) {
+
+            return node(E_TRUE, 0, 0);
+
+        } else if (node instanceof EFalse) {
+
+            return node(E_FALSE, 0, 0);
+
+        } else if (node instanceof EInt) {
+
+            return node(E_INT, ((EInt) node).integer_, 0);
+
+        } else if (node instanceof EDouble) {
+
+            return node(E_DOUBLE, addNumber(((EDouble) node).double_), 0);
+
+        } else if (node instanceof EString) {
+
+            return node(E_STRING, addString(((EString) node).string_), 0);
+
+        } else if (node instanceof EId) {
+
+            return node(E_ID, ((EId) node).symbol_, 0);
+
+        } else if (node instanceof ELoopVar) {
+
+            return node(E_LOOP_VAR, addString(((ELoopVar) node).id_), ((ELoopVar) node).slot_);
+
+        } else if (node instanceof EApp) {
+
+            return node(E_APP, addString(((EApp) node).id_), 0, add(((EApp) node).listexp_));
+
+        } else if (node instanceof EIncr) {
+
+            return node(E_INCR, 0, 0, add(((EIncr) node).exp_));
+
+        } else if (node instanceof EDecr) {
+
+            return node(E_DECR, 0, 0, add(((EDecr) node).exp_));
+
+        } else if (node instanceof EPIncr) {
+
+            return node(E_P_INCR, 0, 0, add(((EPIncr) node).exp_));
+
+        } else if (node instanceof EPDecr) {
+
+            return node(E_P_DECR, 0, 0, add(((EPDecr) node).exp_));
+
+        } else if (node instanceof ETimes) {
+
+            return node(E_TIMES, 0, 0, add(((ETimes) node).exp_1), add(((ETimes) node).exp_2));
+
+        } else if (node instanceof EDiv) {
+
+            return node(E_DIV, 0, 0, add(((EDiv) node).exp_1), add(((EDiv) node).exp_2));
+
+        } else if (node instanceof EPlus) {
+
+            return node(E_PLUS, 0, 0, add(((EPlus) node).exp_1), add(((EPlus) node).exp_2));
+
+        } else if (node instanceof EMinus) {
+
+            return node(E_MINUS, 0, 0, add(((EMinus) node).exp_1), add(((EMinus) node).exp_2));
+
+        } else if (node instanceof ELt) {
+
+            return node(E_LT, 0, 0, add(((ELt) node).exp_1), add(((ELt) node).exp_2));
+
+        } else if (node instanceof EGt) {
+
+            return node(E_GT, 0, 0, add(((EGt) node).exp_1), add(((EGt) node).exp_2));
+
+        } else if (node instanceof ELtEq) {
+
+            return node(E_LT_EQ, 0, 0, add(((ELtEq) node).exp_1), add(((ELtEq) node).exp_2));
+
+        } else if (node instanceof EGtEq) {
+
+            return node(E_GT_EQ, 0, 0, add(((EGtEq) node).exp_1), add(((EGtEq) node).exp_2));
+
+        } else if (node instanceof EEq) {
+
+            return node(E_EQ, 0, 0, add(((EEq) node).exp_1), add(((EEq) node).exp_2));
+
+        } else if (node instanceof ENEq) {
+
+            return node(E_N_EQ, 0, 0, add(((ENEq) node).exp_1), add(((ENEq) node).exp_2));
+
+        } else if (node instanceof EAnd) {
+
+            return node(E_AND, 0, 0, add(((EAnd) node).exp_1), add(((EAnd) node).exp_2));
+
+        } else if (node instanceof EOr) {
+
+            return node(E_OR, 0, 0, add(((EOr) node).exp_1), add(((EOr) node).exp_2));
+
+        } else if (node instanceof EAss) {
+
+            return node(E_ASS, 0, 0, add(((EAss) node).exp_1), add(((EAss) node).exp_2));
+
+        } else if (node instanceof EConcat) {
+
+            EConcat eConcat = (EConcat) node;
+            int[] exps = new int[eConcat.exps_.length];
+            int literals = stringCount;
+
+            for (int i = 0; i < exps.length; i++) {
+                addString(eConcat.literals_[i]);
+            }
+
+            for (int i = 0; i < exps.length; i++) {
+                exps[i] = add(eConcat.exps_[i]);
+            }
+
+            return node(E_CONCAT, literals, eConcat.capacity_, exps);
+
+        } else if (node instanceof ENewArray) {
+
+            ENewArray eNewArray = (ENewArray) node;
+            return node(E_NEW_ARRAY, 0, eNewArray.offHeap_ ? 1 : 0, add(eNewArray.type_), add(eNewArray.exp_));
+
+        } else if (node instanceof EIndex) {
+
+            EIndex eIndex = (EIndex) node;
+            return node(E_INDEX, 0, eIndex.checked_ ? 1 : 0, add(eIndex.exp_1), add(eIndex.exp_2));
+
+        } else if (node instanceof ELength) {
+
+            return node(E_LENGTH, 0, 0, add(((ELength) node).exp_));
+
+        } else if (node instanceof ENewMap) {
+
+            return node(E_NEW_MAP, 0, 0, add(((ENewMap) node).type_));
+
+        } else if (node instanceof EContains) {
+
+            return node(E_CONTAINS, 0, 0, add(((EContains) node).exp_1), add(((EContains) node).exp_2));
+
+        } else if (node instanceof TypeInt) {
+
+            return node(T_INT, 0, 0);
+
+        } else if (node instanceof TypeDouble) {
+
+            return node(T_DOUBLE, 0, 0);
+
+        } else if (node instanceof TypeBool) {
+
+            return node(T_BOOL, 0, 0);
+
+        } else if (node instanceof TypeString) {
+
+            return node(T_STRING, 0, 0);
+
+        } else if (node instanceof TypeVoid) {
+
+            return node(T_VOID, 0, 0);
+
+        } else if (node instanceof TypeArray) {
+
+            return node(T_ARRAY, 0, 0, add(((TypeArray) node).type_));
+
+        } else if (node instanceof TypeMap) {
+
+            return node(T_MAP, 0, 0, add(((TypeMap) node).key_), add(((TypeMap) node).value_));
+
+        }
+
+        throw new IllegalArgumentException("Unsupported node " + node.getClass().getName());
+    }
+
+    /**
+     * Append a node after its children
+     */
+    private int node(int kind, int value, int extra, int... nodeChildren) {
+
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            values = Arrays.copyOf(values, capacity);
+            extras = Arrays.copyOf(extras, capacity);
+            childStarts = Arrays.copyOf(childStarts, capacity);
+        }
+
+        if (childCount + nodeChildren.length > children.length) {
+            children = Arrays.copyOf(children, Math.max(children.length * 2, childCount + nodeChildren.length));
+        }
+
+        kinds[size] = kind;
+        values[size] = value;
+        extras[size] = extra;
+        childStarts[size] = childCount;
+
+        System.arraycopy(nodeChildren, 0, children, childCount, nodeChildren.length);
+        childCount += nodeChildren.length;
+
+        return size++;
+    }
+
+    /**
+     * Shrink the arrays to their contents, an arena is not added to after conversion
+     */
+    private void trim() {
+        kinds = Arrays.copyOf(kinds, size);
+        values = Arrays.copyOf(values, size);
+        extras = Arrays.copyOf(extras, size);
+        childStarts = Arrays.copyOf(childStarts, size);
+        children = Arrays.copyOf(children, childCount);
+        strings = Arrays.copyOf(strings, stringCount);
+        numbers = Arrays.copyOf(numbers, numberCount);
+    }
+
+    private int addString(String string) {
+
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+
+        strings[stringCount] = string;
+
+        return stringCount++;
+    }
+
+    private int addNumber(double number) {
+
+        if (numberCount == numbers.length) {
+            numbers = Arrays.copyOf(numbers, numberCount * 2);
+        }
+
+        numbers[numberCount] = number;
+
+        return numberCount++;
+    }
+
+    private Object node(int node) {
+
+        if (node < 0) {
+            return null;
+        }
+
+        int value = values[node];
+
+        switch (kinds[node]) {
+            case P_DEFS:
+                return new PDefs(list(child(node, 0), new ListDef(), Def.class), symbols);
+            case D_FUN:
+                return new DFun(type(child(node, 0)), strings[value], list(child(node, 1), new ListArg(), Arg.class),
+                        list(child(node, 2), new ListStm(), Stm.class));
+            case A_DECL:
+                return new ADecl(type(child(node, 0)), strings[value]);
+            case S_EXP:
+                return new SExp(exp(child(node, 0)));
+            case S_DECLS:
+                return new SDecls(type(child(node, 0)), symbols.name(value), value);
+            case S_INIT:
+                return new SInit(type(child(node, 0)), symbols.name(value), value, exp(child(node, 1)));
+            case S_ASS:
+                return new SAss(symbols.name(value), value, exp(child(node, 0)));
+            case S_RETURN:
+                return new SReturn(exp(child(node, 0)));
+            case S_WHILE:
+                return new SWhile(exp(child(node, 0)), list(child(node, 1), new ListStm(), Stm.class));
+            case S_FOR:
+                return new SFor((Stm) node(child(node, 0)), exp(child(node, 1)), exp(child(node, 2)),
+                        list(child(node, 3), new ListStm(), Stm.class), value);
+            case S_IF_ELSE:
+                return new SIfElse(exp(child(node, 0)), list(child(node, 1), new ListStm(), Stm.class),
+                        list(child(node, 2), new ListStm(), Stm.class));
+            case S_INDEX_ASS:
+                return new SIndexAss(symbols.name(value), value, exp(child(node, 0)), exp(child(node, 1)));
+            case E_TRUE:
+                return new ETrue();
+            case E_FALSE:
+                return new EFalse();
+            case E_INT:
+                return new EInt(value);
+            case E_DOUBLE:
+                return new EDouble(numbers[value]);
+            case E_STRING:
+                return new EString(strings[value]);
+            case E_ID:
+                return new EId(symbols.name(value), value);
+            case E_LOOP_VAR:
+                return new ELoopVar(strings[value], extras[node]);
+            case E_APP:
+                return new EApp(strings[value], list(child(node, 0), new ListExp(), Exp.class));
+            case E_INCR:
+                return new EIncr(exp(child(node, 0)));
+            case E_DECR:
+                return new EDecr(exp(child(node, 0)));
+            case E_P_INCR:
+                return new EPIncr(exp(child(node, 0)));
+            case E_P_DECR:
+                return new EPDecr(exp(child(node, 0)));
+            case E_TIMES:
+                return new ETimes(exp(child(node, 0)), exp(child(node, 1)));
+            case E_DIV:
+                return new EDiv(exp(child(node, 0)), exp(child(node, 1)));
+            case E_PLUS:
+                return new EPlus(exp(child(node, 0)), exp(child(node, 1)));
+            case E_MINUS:
+                return new EMinus(exp(child(node, 0)), exp(child(node, 1)));
+            case E_LT:
+                return new ELt(exp(child(node, 0)), exp(child(node, 1)));
+            case E_GT:
+                return new EGt(exp(child(node, 0)), exp(child(node, 1)));
+            case E_LT_EQ:
+                return new ELtEq(exp(child(node, 0)), exp(child(node, 1)));
+            case E_GT_EQ:
+                return new EGtEq(exp(child(node, 0)), exp(child(node, 1)));
+            case E_EQ:
+                return new EEq(exp(child(node, 0)), exp(child(node, 1)));
+            case E_N_EQ:
+                return new ENEq(exp(child(node, 0)), exp(child(node, 1)));
+            case E_AND:
+                return new EAnd(exp(child(node, 0)), exp(child(node, 1)));
+            case E_OR:
+                return new EOr(exp(child(node, 0)), exp(child(node, 1)));
+            case E_ASS:
+                return new EAss(exp(child(node, 0)), exp(child(node, 1)));
+            case E_CONCAT: {
+                int length = childCount(node);
+                Exp[] exps = new Exp[length];
+                String[] literals = new String[length];
+                for (int i = 0; i < length; i++) {
+                    exps[i] = exp(child(node, i));
+                    literals[i] = strings[value + i];
+                }
+                return new EConcat(exps, literals, extras[node]);
+            }
+            case E_NEW_ARRAY:
+                return new ENewArray(type(child(node, 0)), exp(child(node, 1)), extras[node] != 0);
+            case E_INDEX:
+                return new EIndex(exp(child(node, 0)), exp(child(node, 1)), extras[node] != 0);
+            case E_LENGTH:
+                return new ELength(exp(child(node, 0)));
+            case E_NEW_MAP:
+                return new ENewMap((TypeMap) node(child(node, 0)));
+            case E_CONTAINS:
+                return new EContains(exp(child(node, 0)), exp(child(node, 1)));
+            case T_INT:
+                return new TypeInt();
+            case T_DOUBLE:
+                return new TypeDouble();
+            case T_BOOL:
+                return new TypeBool();
+            case T_STRING:
+                return new TypeString();
+            case T_VOID:
+                return new TypeVoid();
+            case T_ARRAY:
+                return new TypeArray(type(child(node, 0)));
+            case T_MAP:
+                return new TypeMap(type(child(node, 0)), type(child(node, 1)));
+            default:
+                throw new IllegalStateException("Unknown node kind " + kinds[node]);
+        }
+    }
+
+    private Exp exp(int node) {
+        return (Exp) node(node);
+    }
+
+    private Type type(int node) {
+        return (Type) node(node);
+    }
+
+    private <T, L extends List<T>> L list(int node, L list, Class<T> type) {
+
+        if (node < 0) {
+            return null;
+        }
+
+        for (int i = 0; i < childCount(node); i++) {
+            list.add(type.cast(node(child(node, i))));
+        }
+
+        return list;
+    }
+}
@@ -0,0 +1,638 @@
+package com.csci.engine;
+
+import com.csci.grammar.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compact binary form of optimized programs. Every node is written as a one byte tag followed by its
+ * fields in declaration order, lists and strings are prefixed by their length or -1 for null.
+ * Bump {@link #FORMAT_VERSION} whenever a tag or field layout changes.
+ */
+public final class AstCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+
+    private static final byte P_DEFS = 1;
+    private static final byte D_FUN = 2;
+    private static final byte A_DECL = 3;
+
+    private static final byte S_EXP = 10;
+    private static final byte S_DECLS = 11;
+    private static final byte S_INIT = 12;
+    private static final byte S_ASS = 13;
+    private static final byte S_RETURN = 14;
+    private static final byte S_WHILE = 15;
+    private static final byte S_FOR = 16;
+    private static final byte S_IF_ELSE = 17;
+    private static final byte S_INDEX_ASS = 18;
+
+    private static final byte E_TRUE = 30;
+    private static final byte E_FALSE = 31;
+    private static final byte E_INT = 32;
+    private static final byte E_DOUBLE = 33;
+    private static final byte E_STRING = 34;
+    private static final byte E_ID = 35;
+    private static final byte E_LOOP_VAR = 36;
+    private static final byte E_APP = 37;
+    private static final byte E_INCR = 38;
+    private static final byte E_DECR = 39;
+    private static final byte E_P_INCR = 40;
+    private static final byte E_P_DECR = 41;
+    private static final byte E_TIMES = 42;
+    private static final byte E_DIV = 43;
+    private static final byte E_PLUS = 44;
+    private static final byte E_MINUS = 45;
+    private static final byte E_LT = 46;
+    private static final byte E_GT = 47;
+    private static final byte E_LT_EQ = 48;
+    private static final byte E_GT_EQ = 49;
+    private static final byte E_EQ = 50;
+    private static final byte E_N_EQ = 51;
+    private static final byte E_AND = 52;
+    private static final byte E_OR = 53;
+    private static final byte E_ASS = 54;
+    private static final byte E_CONCAT = 55;
+    private static final byte E_NEW_ARRAY = 56;
+    private static final byte E_INDEX = 57;
+    private static final byte E_LENGTH = 58;
+    private static final byte E_NEW_MAP = 59;
+    private static final byte E_CONTAINS = 60;
+
+    private static final byte T_INT = 80;
+    private static final byte T_DOUBLE = 81;
+    private static final byte T_BOOL = 82;
+    private static final byte T_STRING = 83;
+    private static final byte T_VOID = 84;
+    private static final byte T_ARRAY = 85;
+    private static final byte T_MAP = 86;
+
+    private AstCodec() { }
+
+    /**
+     * @param program program
+     * @return encoded program
+     */
+    public static byte[] encode(PDefs program) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        try {
+            write(out, program);
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param in encoded program, read from its position
+     * @return decoded program
+     * @throws Exception if the encoding is malformed
+     */
+    public static PDefs decode(ByteBuffer in) throws Exception {
+
+        Object node = read(in, new Symbols());
+
+        if (!(node instanceof PDefs)) {
+            throw new Exception("Malformed program encoding");
+        }
+
+        return (PDefs) node;
+    }
+
+    private static void write(DataOutputStream out, Object node) throws IOException {
+
+        if (node == null) {
+
+            out.writeByte(NULL);
+
+        } else if (node instanceof PDefs) {
+
+            out.writeByte(P_DEFS);
+            writeList(out, ((PDefs) node).listdef_);
+
+        } else if (node instanceof DFun) {
+
+            DFun dFun = (DFun) node;
+            out.writeByte(D_FUN);
+            write(out, dFun.type_);
+            writeString(out, dFun.id_);
+            writeList(out, dFun.listarg_);
+            writeList(out, body(dFun));
+
+        } else if (node instanceof ADecl) {
+
+            out.writeByte(A_DECL);
+            write(out, ((ADecl) node).type_);
+            writeString(out, ((ADecl) node).id_);
+
+        } else if (node instanceof SExp) {
+
+            out.writeByte(S_EXP);
+            write(out, ((SExp) node).exp_);
+
+        } else if (node instanceof SDecls) {
+
+            out.writeByte(S_DECLS);
+            write(out, ((SDecls) node).type_);
+            writeString(out, ((SDecls) node).id_);
+
+        } else if (node instanceof SInit) {
+
+            SInit sInit = (SInit) node;
+            out.writeByte(S_INIT);
+            write(out, sInit.type_);
+            writeString(out, sInit.id_);
+            write(out, sInit.exp_);
+
+        } else if (node instanceof SAss) {
+
+            out.writeByte(S_ASS);
+            writeString(out, ((SAss) node).id);
+            write(out, ((SAss) node).exp);
+
+        } else if (node instanceof SReturn) {
+
+            out.writeByte(S_RETURN);
+            write(out, ((SReturn) node).exp_);
+
+        } else if (node instanceof SWhile) {
+
+            out.writeByte(S_WHILE);
+            write(out, ((SWhile) node).exp_);
+            writeList(out, ((SWhile) node).stm_);
+
+        } else if (node instanceof SFor) {
+
+            SFor sFor = (SFor) node;
+            out.writeByte(S_FOR);
+            write(out, sFor.stm_);
+            write(out, sFor.exp_1);
+            write(out, sFor.exp_2);
+            writeList(out, sFor.liststm_);
+            out.writeInt(sFor.slot_);
+
+        } else if (node instanceof SIfElse) {
+
+            SIfElse sIfElse = (SIfElse) node;
+            out.writeByte(S_IF_ELSE);
+            write(out, sIfElse.exp_);
+            writeList(out, sIfElse.stm_1);
+            writeList(out, sIfElse.stm_2);
+
+        } else if (node instanceof SIndexAss) {
+
+            SIndexAss sIndexAss = (SIndexAss) node;
+            out.writeByte(S_INDEX_ASS);
+            writeString(out, sIndexAss.id_);
+            write(out, sIndexAss.exp_1);
+            write(out, sIndexAss.exp_2);
+
+        } else if (node instanceof ETrue) {
+
+            out.writeByte(E_TRUE);
+
+        } else if (node instanceof EFalse) {
+
+            out.writeByte(E_FALSE);
+
+        } else if (node instanceof EInt) {
+
+            out.writeByte(E_INT);
+            out.writeInt(((EInt) node).integer_);
+
+        } else if (node instanceof EDouble) {
+
+            out.writeByte(E_DOUBLE);
+            out.writeDouble(((EDouble) node).double_);
+
+        } else if (node instanceof EString) {
+
+            out.writeByte(E_STRING);
+            writeString(out, ((EString) node).string_);
+
+        } else if (node instanceof EId) {
+
+            out.writeByte(E_ID);
+            writeString(out, ((EId) node).id_);
+
+        } else if (node instanceof ELoopVar) {
+
+            out.writeByte(E_LOOP_VAR);
+            writeString(out, ((ELoopVar) node).id_);
+            out.writeInt(((ELoopVar) node).slot_);
+
+        } else if (node instanceof EApp) {
+
+            out.writeByte(E_APP);
+            writeString(out, ((EApp) node).id_);
+            writeList(out, ((EApp) node).listexp_);
+
+        } else if (node instanceof EIncr) {
+
+            out.writeByte(E_INCR);
+            write(out, ((EIncr) node).exp_);
+
+        } else if (node instanceof EDecr) {
+
+            out.writeByte(E_DECR);
+            write(out, ((EDecr) node).exp_);
+
+        } else if (node instanceof EPIncr) {
+
+            out.writeByte(E_P_INCR);
+            write(out, ((EPIncr) node).exp_);
+
+        } else if (node instanceof EPDecr) {
+
+            out.writeByte(E_P_DECR);
+            write(out, ((EPDecr) node).exp_);
+
+        } else if (node instanceof ETimes) {
+
+            writeBinary(out, E_TIMES, ((ETimes) node).exp_1, ((ETimes) node).exp_2);
+
+        } else if (node instanceof EDiv) {
+
+            writeBinary(out, E_DIV, ((EDiv) node).exp_1, ((EDiv) node).exp_2);
+
+        } else if (node instanceof EPlus) {
+
+            writeBinary(out, E_PLUS, ((EPlus) node).exp_1, ((EPlus) node).exp_2);
+
+        } else if (node instanceof EMinus) {
+
+            writeBinary(out, E_MINUS, ((EMinus) node).exp_1, ((EMinus) node).exp_2);
+
+        } else if (node instanceof ELt) {
+
+            writeBinary(out, E_LT, ((ELt) node).exp_1, ((ELt) node).exp_2);
+
+        } else if (node instanceof EGt) {
+
+            writeBinary(out, E_GT, ((EGt) node).exp_1, ((EGt) node).exp_2);
+
+        } else if (node instanceof ELtEq) {
+
+            writeBinary(out, E_LT_EQ, ((ELtEq) node).exp_1, ((ELtEq) node).exp_2);
+
+        } else if (node instanceof EGtEq) {
+
+            writeBinary(out, E_GT_EQ, ((EGtEq) node).exp_1, ((EGtEq) node).exp_2);
+
+        } else if (node instanceof EEq) {
+
+            writeBinary(out, E_EQ, ((EEq) node).exp_1, ((EEq) node).exp_2);
+
+        } else if (node instanceof ENEq) {
+
+            writeBinary(out, E_N_EQ, ((ENEq) node).exp_1, ((ENEq) node).exp_2);
+
+        } else if (node instanceof EAnd) {
+
+            writeBinary(out, E_AND, ((EAnd) node).exp_1, ((EAnd) node).exp_2);
+
+        } else if (node instanceof EOr) {
+
+            writeBinary(out, E_OR, ((EOr) node).exp_1, ((EOr) node).exp_2);
+
+        } else if (node instanceof EAss) {
+
+            writeBinary(out, E_ASS, ((EAss) node).exp_1, ((EAss) node).exp_2);
+
+        } else if (node instanceof EConcat) {
+
+            EConcat eConcat = (EConcat) node;
+            out.writeByte(E_CONCAT);
+            out.writeInt(eConcat.exps_.length);
+            for (int i = 0; i < eConcat.exps_.length; i++) {
+                write(out, eConcat.exps_[i]);
+                writeString(out, eConcat.literals_[i]);
+            }
+            out.writeInt(eConcat.capacity_);
+
+        } else if (node instanceof ENewArray) {
+
+            ENewArray eNewArray = (ENewArray) node;
+            out.writeByte(E_NEW_ARRAY);
+            write(out, eNewArray.type_);
+            write(out, eNewArray.exp_);
+            out.writeBoolean(eNewArray.offHeap_);
+
+        } else if (node instanceof EIndex) {
+
+            EIndex eIndex = (EIndex) node;
+            writeBinary(out, E_INDEX, eIndex.exp_1, eIndex.exp_2);
+            out.writeBoolean(eIndex.checked_);
+
+        } else if (node instanceof ELength) {
+
+            out.writeByte(E_LENGTH);
+            write(out, ((ELength) node).exp_);
+
+        } else if (node instanceof ENewMap) {
+
+            out.writeByte(E_NEW_MAP);
+            write(out, ((ENewMap) node).type_);
+
+        } else if (node instanceof EContains) {
+
+            writeBinary(out, E_CONTAINS, ((EContains) node).exp_1, ((EContains) node).exp_2);
+
+        } else if (node instanceof TypeInt) {
+
+            out.writeByte(T_INT);
+
+        } else if (node instanceof TypeDouble) {
+
+            out.writeByte(T_DOUBLE);
+
+        } else if (node instanceof TypeBool) {
+
+            out.writeByte(T_BOOL);
+
+        } else if (node instanceof TypeString) {
+
+            out.writeByte(T_STRING);
+
+        } else if (node instanceof TypeVoid) {
+
+            out.writeByte(T_VOID);
+
+        } else if (node instanceof TypeArray) {
+
+            out.writeByte(T_ARRAY);
+            write(out, ((TypeArray) node).type_);
+
+        } else if (node instanceof TypeMap) {
+
+            out.writeByte(T_MAP);
+            write(out, ((TypeMap) node).key_);
+            write(out, ((TypeMap) node).value_);
+
+        } else {
+            throw new IllegalArgumentException("Unsupported node " + node.getClass().getName());
+        }
+    }
+
+    private static void writeBinary(DataOutputStream out, byte tag, Exp exp1, Exp exp2) throws IOException {
+        out.writeByte(tag);
+        write(out, exp1);
+        write(out, exp2);
+    }
+
+    /**
+     * @return statements of a function, a lazy body is parsed to be encoded
+     */
+    private static ListStm body(DFun dFun) throws IOException {
+        try {
+            return dFun.body();
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static void writeList(DataOutputStream out, List<?> nodes) throws IOException {
+
+        if (nodes == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(nodes.size());
+
+        for (Object node : nodes) {
+            write(out, node);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Object read(ByteBuffer in, Symbols symbols) throws Exception {
+
+        byte tag = in.get();
+
+        switch (tag) {
+            case NULL:
+                return null;
+            case P_DEFS:
+                return new PDefs(readList(in, symbols, new ListDef(), Def.class), symbols);
+            case D_FUN:
+                return new DFun(readType(in, symbols), readString(in), readList(in, symbols, new ListArg(), Arg.class), readList(in, symbols, new ListStm(), Stm.class));
+            case A_DECL:
+                return new ADecl(readType(in, symbols), readString(in));
+            case S_EXP:
+                return new SExp(readExp(in, symbols));
+            case S_DECLS: {
+                Type type = readType(in, symbols);
+                String id = readId(in);
+                return new SDecls(type, id, symbols.intern(id));
+            }
+            case S_INIT: {
+                Type type = readType(in, symbols);
+                String id = readId(in);
+                return new SInit(type, id, symbols.intern(id), readExp(in, symbols));
+            }
+            case S_ASS: {
+                String id = readId(in);
+                return new SAss(id, symbols.intern(id), readExp(in, symbols));
+            }
+            case S_RETURN:
+                return new SReturn(readExp(in, symbols));
+            case S_WHILE:
+                return new SWhile(readExp(in, symbols), readList(in, symbols, new ListStm(), Stm.class));
+            case S_FOR:
+                return new SFor(read(in, symbols, Stm.class), readExp(in, symbols), readExp(in, symbols), readList(in, symbols, new ListStm(), Stm.class), in.getInt());
+            case S_IF_ELSE:
+                return new SIfElse(readExp(in, symbols), readList(in, symbols, new ListStm(), Stm.class), readList(in, symbols, new ListStm(), Stm.class));
+            case S_INDEX_ASS: {
+                String id = readId(in);
+                return new SIndexAss(id, symbols.intern(id), readExp(in, symbols), readExp(in, symbols));
+            }
+            case E_TRUE:
+                return new ETrue();
+            case E_FALSE:
+                return new EFalse();
+            case E_INT:
+                return new EInt(in.getInt());
+            case E_DOUBLE:
+                return new EDouble(in.getDouble());
+            case E_STRING:
+                return new EString(readString(in));
+            case E_ID: {
+                String id = readId(in);
+                return new EId(id, symbols.intern(id));
+            }
+            case E_LOOP_VAR:
+                return new ELoopVar(readString(in), in.getInt());
+            case E_APP:
+                return new EApp(readString(in), readList(in, symbols, new ListExp(), Exp.class));
+            case E_INCR:
+                return new EIncr(readExp(in, symbols));
+            case E_DECR:
+                return new EDecr(readExp(in, symbols));
+            case E_P_INCR:
+                return new EPIncr(readExp(in, symbols));
+            case E_P_DECR:
+                return new EPDecr(readExp(in, symbols));
+            case E_TIMES:
+                return new ETimes(readExp(in, symbols), readExp(in, symbols));
+            case E_DIV:
+                return new EDiv(readExp(in, symbols), readExp(in, symbols));
+            case E_PLUS:
+                return new EPlus(readExp(in, symbols), readExp(in, symbols));
+            case E_MINUS:
+                return new EMinus(readExp(in, symbols), readExp(in, symbols));
+            case E_LT:
+                return new ELt(readExp(in, symbols), readExp(in, symbols));
+            case E_GT:
+                return new EGt(readExp(in, symbols), readExp(in, symbols));
+            case E_LT_EQ:
+                return new ELtEq(readExp(in, symbols), readExp(in, symbols));
+            case E_GT_EQ:
+                return new EGtEq(readExp(in, symbols), readExp(in, symbols));
+            case E_EQ:
+                return new EEq(readExp(in, symbols), readExp(in, symbols));
+            case E_N_EQ:
+                return new ENEq(readExp(in, symbols), readExp(in, symbols));
+            case E_AND:
+                return new EAnd(readExp(in, symbols), readExp(in, symbols));
+            case E_OR:
+                return new EOr(readExp(in, symbols), readExp(in, symbols));
+            case E_ASS:
+                return new EAss(readExp(in, symbols), readExp(in, symbols));
+            case E_CONCAT: {
+                int length = readLength(in);
+                Exp[] exps = new Exp[length];
+                String[] literals = new String[length];
+                for (int i = 0; i < length; i++) {
+                    exps[i] = readExp(in, symbols);
+                    literals[i] = readString(in);
+                }
+                return new EConcat(exps, literals, in.getInt());
+            }
+            case E_NEW_ARRAY:
+                return new ENewArray(readType(in, symbols), readExp(in, symbols), in.get() != 0);
+            case E_INDEX:
+                return new EIndex(readExp(in, symbols), readExp(in, symbols), in.get() != 0);
+            case E_LENGTH:
+                return new ELength(readExp(in, symbols));
+            case E_NEW_MAP:
+                return new ENewMap(read(in, symbols, TypeMap.class));
+            case E_CONTAINS:
+                return new EContains(readExp(in, symbols), readExp(in, symbols));
+            case T_INT:
+                return new TypeInt();
+            case T_DOUBLE:
+                return new TypeDouble();
+            case T_BOOL:
+                return new TypeBool();
+            case T_STRING:
+                return new TypeString();
+            case T_VOID:
+                return new TypeVoid();
+            case T_ARRAY:
+                return new TypeArray(readType(in, symbols));
+            case T_MAP:
+                return new TypeMap(readType(in, symbols), readType(in, symbols));
+            default:
+                throw new Exception("Malformed program encoding: unknown tag " + tag);
+        }
+    }
+
+    private static <T> T read(ByteBuffer in, Symbols symbols, Class<T> type) throws Exception {
+
+        Object node = read(in, symbols);
+
+        if (node != null && !type.isInstance(node)) {
+            throw new Exception("Malformed program encoding: " + type.getSimpleName() + " expected");
+        }
+
+        return type.cast(node);
+    }
+
+    private static Exp readExp(ByteBuffer in, Symbols symbols) throws Exception {
+        return read(in, symbols, Exp.class);
+    }
+
+    private static Type readType(ByteBuffer in, Symbols symbols) throws Exception {
+        return read(in, symbols, Type.class);
+    }
+
+    private static <T, L extends List<T>> L readList(ByteBuffer in, Symbols symbols, L list, Class<T> type) throws Exception {
+
+        if (in.getInt(in.position()) == -1) {
+            in.getInt();
+            return null;
+        }
+
+        int size = readLength(in);
+
+        for (int i = 0; i < size; i++) {
+            list.add(read(in, symbols, type));
+        }
+
+        return list;
+    }
+
+    private static String readId(ByteBuffer in) throws Exception {
+
+        String id = readString(in);
+
+        if (id == null) {
+            throw new Exception("Malformed program encoding: missing variable name");
+        }
+
+        return id;
+    }
+
+    private static String readString(ByteBuffer in) throws Exception {
+
+        int length = in.getInt();
+
+        if (length == -1) {
+            return null;
+        }
+
+        if (length < 0 || length > in.remaining()) {
+            throw new Exception("Malformed program encoding: bad string length " + length);
+        }
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readLength(ByteBuffer in) throws Exception {
+
+        int length = in.getInt();
+
+        if (length < 0 || length > in.remaining()) {
+            throw new Exception("Malformed program encoding: bad length " + length);
+        }
+
+        return length;
+    }
+}
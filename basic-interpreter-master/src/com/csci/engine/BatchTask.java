@@ -0,0 +1,107 @@
+package com.csci.engine;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.PDefs;
+import com.csci.runtime.ScriptArray;
+import com.csci.visitor.Evaluator;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates a program over a range of batch rows. Ranges are split in halves until they are at most
+ * {@link #GRAIN} rows, every leaf reuses one evaluator for all of its rows. Once a row failed, rows after it
+ * are skipped while rows before it are still evaluated, so the failure reported is the one of the first failed row.
+ */
+final class BatchTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Rows evaluated by a leaf task
+     */
+    static final int GRAIN = 256;
+
+    /**
+     * Failure of a row
+     */
+    static final class Failure {
+
+        final int row;
+        final Exception exception;
+
+        Failure(int row, Exception exception) {
+            this.row = row;
+            this.exception = exception;
+        }
+    }
+
+    // tasks only live within one batch run and are never serialized
+    private final transient PDefs program;
+    private final String[] names;
+    private final transient ScriptArray[] columns;
+    private final transient ScriptArray result;
+    private final transient AtomicReference<Failure> failure;
+    private final int from;
+    private final int to;
+
+    BatchTask(PDefs program, String[] names, ScriptArray[] columns, ScriptArray result,
+              AtomicReference<Failure> failure, int from, int to) {
+        this.program = program;
+        this.names = names;
+        this.columns = columns;
+        this.result = result;
+        this.failure = failure;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+
+        if (to - from > GRAIN) {
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new BatchTask(program, names, columns, result, failure, from, middle),
+                    new BatchTask(program, names, columns, result, failure, middle, to)
+            );
+            return;
+        }
+
+        int row = from;
+
+        try (Evaluator evaluator = new Evaluator()) {
+
+            for (; row < to && !failedBefore(row); row++) {
+
+                evaluator.reset();
+
+                for (int c = 0; c < names.length; c++) {
+                    evaluator.bind(names[c], columns[c].get(row));
+                }
+
+                CustomObject value = evaluator.visit(program);
+
+                if (value == null || !result.accepts(value.type)) {
+                    throw new Exception("Type error: returned "
+                            + (value == null ? "nothing" : value.type) + " instead of " + result.elementType());
+                }
+
+                result.set(row, value);
+            }
+
+        } catch (Exception e) {
+            Failure failed = new Failure(row, new Exception("Row " + row + ": " + e.getMessage(), e));
+            failure.accumulateAndGet(failed, (first, next) -> first == null || next.row < first.row ? next : first);
+        }
+    }
+
+    /**
+     * @param row batch row
+     * @return true if a row before the given one failed
+     */
+    private boolean failedBefore(int row) {
+        Failure first = failure.get();
+        return first != null && first.row < row;
+    }
+}
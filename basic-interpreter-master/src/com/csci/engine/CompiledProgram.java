@@ -0,0 +1,353 @@
+package com.csci.engine;
+
+import com.csci.grammar.ADecl;
+import com.csci.grammar.Arg;
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.DFun;
+import com.csci.grammar.Def;
+import com.csci.grammar.ListDef;
+import com.csci.grammar.PDefs;
+import com.csci.grammar.Type;
+import com.csci.lexer.Lexer;
+import com.csci.lexer.Token;
+import com.csci.optimizer.Optimizer;
+import com.csci.parser.IncrementalParser;
+import com.csci.parser.Parser;
+import com.csci.runtime.CancellationToken;
+import com.csci.runtime.EvaluationCancelledException;
+import com.csci.runtime.ScriptArray;
+import com.csci.visitor.Evaluator;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lexed, parsed and optimized program. Instances are immutable and can be run by any number of threads
+ * at once without locking, each run keeps its variables in its own {@link Evaluator}.
+ */
+public final class CompiledProgram {
+
+    private final PDefs program;
+    private final int weight;
+
+    /**
+     * Single function programs by function name, used to invoke one function of the program
+     */
+    private final Map<String, PDefs> functions = new HashMap<>();
+
+    CompiledProgram(PDefs program, int weight) {
+
+        this.program = program;
+        this.weight = weight;
+
+        for (Def def : program.listdef_) {
+            if (def instanceof DFun) {
+                ListDef single = new ListDef();
+                single.add(def);
+                functions.putIfAbsent(((DFun) def).id_, new PDefs(single, program.symbols_));
+            }
+        }
+    }
+
+    /**
+     * Compile source code
+     *
+     * @param source program source
+     * @return compiled program
+     * @throws Exception syntax exception
+     */
+    public static CompiledProgram compile(String source) throws Exception {
+
+        LinkedList<Token> tokens = new Lexer().lex(source);
+        int weight = tokens.size();
+
+        return new CompiledProgram((PDefs) new Optimizer().optimize(new Parser(tokens).parseProgram()), weight);
+    }
+
+    /**
+     * Compile source code, function bodies are parsed and optimized on their first call. Suits libraries of
+     * which only a few functions are called through {@link #invoke(String, List, Evaluator)}, syntax errors of a
+     * body are only reported by its first call. A run evaluates every definition, so it parses every body.
+     *
+     * @param source program source
+     * @return compiled program
+     * @throws Exception syntax exception outside of function bodies
+     */
+    public static CompiledProgram compileLazily(String source) throws Exception {
+
+        LinkedList<Token> tokens = new Lexer().lex(source);
+        int weight = tokens.size();
+
+        return new CompiledProgram((PDefs) new Optimizer().optimize(new Parser(tokens, source).parseProgram()), weight);
+    }
+
+    /**
+     * Compile the document of an incremental parser, definitions unchanged since its last compile are reused
+     *
+     * @param parser parser of an edited document
+     * @return compiled program
+     * @throws Exception syntax exception
+     */
+    public static CompiledProgram compile(IncrementalParser parser) throws Exception {
+
+        parser.parse();
+
+        return new CompiledProgram(parser.optimize(), parser.lexer().size());
+    }
+
+    /**
+     * @return optimized syntax tree, never modified
+     */
+    PDefs program() {
+        return program;
+    }
+
+    /**
+     * @return size of the program in tokens, used as an estimate of retained memory
+     */
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * Evaluate program in a fresh evaluator
+     *
+     * @return value of the program
+     * @throws Exception evaluation exception
+     */
+    public CustomObject run() throws Exception {
+        return run(new Evaluator());
+    }
+
+    /**
+     * Evaluate program with input variables in a fresh evaluator
+     *
+     * @param inputs      input variables
+     * @param timeLimitMs time limit in milliseconds, 0 for none
+     * @return value of the program
+     * @throws Exception evaluation exception
+     */
+    public CustomObject run(Map<String, CustomObject> inputs, long timeLimitMs) throws Exception {
+        return run(inputs, timeLimitMs, 0);
+    }
+
+    /**
+     * Evaluate program with input variables and limits in a fresh evaluator
+     *
+     * @param inputs      input variables
+     * @param timeLimitMs time limit in milliseconds, 0 for none
+     * @param fuel        loop iterations and function entries the run may perform, 0 for unmetered
+     * @return value of the program
+     * @throws Exception evaluation exception, {@link com.csci.runtime.FuelExhaustedException} once out of fuel
+     */
+    public CustomObject run(Map<String, CustomObject> inputs, long timeLimitMs, long fuel) throws Exception {
+        return run(inputs, timeLimitMs, fuel, null);
+    }
+
+    /**
+     * Evaluate program with input variables, limits and a cancellation token in a fresh evaluator
+     *
+     * @param inputs      input variables
+     * @param timeLimitMs time limit in milliseconds, 0 for none
+     * @param fuel        loop iterations and function entries the run may perform, 0 for unmetered
+     * @param token       token cancelling the run, null for none
+     * @return value of the program
+     * @throws Exception evaluation exception, {@link EvaluationCancelledException} once cancelled or timed out
+     */
+    public CustomObject run(Map<String, CustomObject> inputs, long timeLimitMs, long fuel, CancellationToken token) throws Exception {
+
+        Evaluator evaluator = evaluator(inputs, token);
+
+        if (timeLimitMs > 0) {
+            evaluator.setTimeLimit(timeLimitMs);
+        }
+
+        if (fuel > 0) {
+            evaluator.setFuel(fuel);
+        }
+
+        return run(evaluator);
+    }
+
+    /**
+     * Evaluate program with input variables in a fresh evaluator until a deadline
+     *
+     * @param inputs   input variables
+     * @param deadline {@link System#nanoTime()} after which the run is abandoned
+     * @param token    token cancelling the run, null for none
+     * @return value of the program
+     * @throws Exception evaluation exception, {@link EvaluationCancelledException} once cancelled or timed out
+     */
+    public CustomObject runUntil(Map<String, CustomObject> inputs, long deadline, CancellationToken token) throws Exception {
+
+        Evaluator evaluator = evaluator(inputs, token);
+        evaluator.setDeadline(deadline);
+
+        return run(evaluator);
+    }
+
+    /**
+     * Evaluate program asynchronously. Cancelling the returned future cancels the run, which then stops
+     * at its next safepoint and releases its variables. Virtual thread executors are supported, the run never
+     * blocks its thread.
+     *
+     * @param inputs   input variables
+     * @param timeout  time the run may take from now
+     * @param executor executor running the evaluation
+     * @return future value of the program
+     */
+    public CompletableFuture<CustomObject> submit(Map<String, CustomObject> inputs, Duration timeout, Executor executor) {
+
+        CancellationToken token = new CancellationToken();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        CompletableFuture<CustomObject> future = new CompletableFuture<>();
+
+        executor.execute(() -> {
+            try {
+                future.complete(runUntil(inputs, deadline, token));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } catch (StackOverflowError e) {
+                future.completeExceptionally(new Exception("Stack overflow", e));
+            }
+        });
+
+        future.whenComplete((res, e) -> {
+            if (future.isCancelled()) {
+                token.cancel();
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Evaluate program in given evaluator, an evaluator holds the state of exactly one run
+     *
+     * @param evaluator unused evaluator
+     * @return value of the program
+     * @throws Exception evaluation exception
+     */
+    public CustomObject run(Evaluator evaluator) throws Exception {
+        try (evaluator) {
+            return evaluator.visit(program);
+        } catch (EvaluationCancelledException e) {
+            evaluator.reset();
+            throw e;
+        }
+    }
+
+    /**
+     * @param function function name
+     * @return true if the program defines the function
+     */
+    public boolean defines(String function) {
+        return functions.containsKey(function);
+    }
+
+    /**
+     * Evaluate one function of the program in given evaluator, arguments are bound to its parameters by position
+     *
+     * @param function  function name
+     * @param args      argument values
+     * @param evaluator unused evaluator
+     * @return value of the function
+     * @throws Exception evaluation exception, or if the function is not defined or the arguments do not match
+     */
+    public CustomObject invoke(String function, List<CustomObject> args, Evaluator evaluator) throws Exception {
+
+        PDefs single = functions.get(function);
+
+        if (single == null) {
+            throw new Exception("Function " + function + " is not defined!");
+        }
+
+        DFun dFun = (DFun) single.listdef_.getFirst();
+        int arity = dFun.listarg_ == null ? 0 : dFun.listarg_.size();
+
+        if (args.size() != arity) {
+            throw new Exception("Function " + function + " takes " + arity + " arguments, got " + args.size());
+        }
+
+        if (arity > 0) {
+
+            Iterator<CustomObject> values = args.iterator();
+
+            for (Arg arg : dFun.listarg_) {
+
+                ADecl parameter = (ADecl) arg;
+                CustomObject value = values.next();
+
+                if (value.type.getClass() != parameter.type_.getClass()) {
+                    throw new Exception("Type error: Trying to pass " + value.type + " as " + parameter.type_);
+                }
+
+                evaluator.bind(parameter.id_, value);
+            }
+        }
+
+        try (evaluator) {
+            return evaluator.visit(single);
+        }
+    }
+
+    private static Evaluator evaluator(Map<String, CustomObject> inputs, CancellationToken token) {
+
+        Evaluator evaluator = new Evaluator();
+
+        for (Map.Entry<String, CustomObject> input : inputs.entrySet()) {
+            evaluator.bind(input.getKey(), input.getValue());
+        }
+
+        evaluator.setCancellationToken(token);
+
+        return evaluator;
+    }
+
+    /**
+     * Evaluate program once per row of a batch. Every input column is bound as a variable of its name, the
+     * value returned for row {@code i} is stored at index {@code i} of the output column. Rows are split
+     * across the common fork/join pool, each worker reuses one evaluator for a range of rows.
+     *
+     * @param columns    input columns of equal length, see the wrapping constructors of the array types
+     * @param resultType element type of the output column
+     * @return output column
+     * @throws Exception evaluation exception of the first failed row, or mismatched column lengths
+     */
+    public ScriptArray runBatch(Map<String, ScriptArray> columns, Type resultType) throws Exception {
+
+        String[] names = columns.keySet().toArray(new String[0]);
+        ScriptArray[] inputs = new ScriptArray[names.length];
+        int rows = -1;
+
+        for (int c = 0; c < names.length; c++) {
+
+            inputs[c] = columns.get(names[c]);
+
+            if (rows >= 0 && inputs[c].length() != rows) {
+                throw new Exception("Column " + names[c] + " has " + inputs[c].length() + " rows instead of " + rows);
+            }
+
+            rows = inputs[c].length();
+        }
+
+        ScriptArray result = ScriptArray.allocate(resultType, Math.max(rows, 0));
+        AtomicReference<BatchTask.Failure> failure = new AtomicReference<>();
+
+        ForkJoinPool.commonPool().invoke(new BatchTask(program, names, inputs, result, failure, 0, result.length()));
+
+        if (failure.get() != null) {
+            throw failure.get().exception;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,241 @@
+package com.csci.engine;
+
+import com.csci.grammar.PDefs;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Disk tier of compiled programs. Each program is stored in {@code <hash>.ast} as a header followed by its
+ * {@link AstCodec} encoding and read back through a memory mapping. Entries written by another format version,
+ * stored under the wrong name or failing the checksum are deleted and rebuilt from source.
+ * <p>
+ * Header: magic, format version, 64 byte hex key, weight, payload length, CRC32C of payload.
+ */
+public class DiskCache implements ProgramCompiler {
+
+    private static final int MAGIC = 0x43534349;
+
+    private static final int KEY_LENGTH = 64;
+
+    private static final int HEADER_LENGTH = 4 + 4 + KEY_LENGTH + 4 + 4 + 4;
+
+    private static final String SUFFIX = ".ast";
+
+    private final Path directory;
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    /**
+     * @param directory cache directory, created if missing
+     * @throws IOException if the directory can not be created
+     */
+    public DiskCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Load program from disk, compiling and storing it if missing or invalid
+     *
+     * @param key    hash of source, see {@link ProgramCache#hash(String)}
+     * @param source program source
+     * @return compiled program
+     * @throws Exception syntax exception
+     */
+    @Override
+    public CompiledProgram compile(String key, String source) throws Exception {
+
+        CompiledProgram program = load(key);
+
+        if (program != null) {
+            return program;
+        }
+
+        program = CompiledProgram.compile(source);
+        store(key, program);
+
+        return program;
+    }
+
+    /**
+     * Load every valid entry into a memory cache, used to warm up after a restart
+     *
+     * @param cache memory tier
+     * @return number of loaded programs
+     * @throws IOException if the directory can not be listed
+     */
+    public int warm(ProgramCache cache) throws IOException {
+
+        int count = 0;
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+
+            for (Path entry : entries) {
+
+                String name = entry.getFileName().toString();
+                String key = name.substring(0, name.length() - SUFFIX.length());
+
+                if (!isKey(key)) {
+                    continue;
+                }
+
+                CompiledProgram program = load(key);
+
+                if (program != null) {
+                    cache.put(key, program);
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @param key hash of source
+     * @return stored program or null if missing, stale or corrupt
+     */
+    public CompiledProgram load(String key) {
+
+        Path file = file(key);
+
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            ByteBuffer in = mapped.asByteBuffer();
+
+            if (in.remaining() < HEADER_LENGTH
+                    || in.getInt() != MAGIC
+                    || in.getInt() != AstCodec.FORMAT_VERSION) {
+                throw new Exception("Stale or foreign entry");
+            }
+
+            byte[] stored = new byte[KEY_LENGTH];
+            in.get(stored);
+
+            if (!key.equals(new String(stored, StandardCharsets.US_ASCII))) {
+                throw new Exception("Entry stored under wrong key");
+            }
+
+            int weight = in.getInt();
+            int length = in.getInt();
+            int checksum = in.getInt();
+
+            if (length != in.remaining()) {
+                throw new Exception("Truncated entry");
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(in.slice());
+
+            if ((int) crc.getValue() != checksum) {
+                throw new Exception("Checksum mismatch");
+            }
+
+            PDefs program = AstCodec.decode(in);
+            loads.incrementAndGet();
+
+            return new CompiledProgram(program, weight);
+
+        } catch (Exception e) {
+
+            rebuilds.incrementAndGet();
+
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // rewritten on the next store
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Write program atomically, readers see either the old or the new entry
+     *
+     * @param key     hash of source
+     * @param program compiled program
+     * @throws IOException if the entry can not be written
+     */
+    public void store(String key, CompiledProgram program) throws IOException {
+
+        byte[] payload = AstCodec.encode(program.program());
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+        out.putInt(MAGIC);
+        out.putInt(AstCodec.FORMAT_VERSION);
+        out.put(key.getBytes(StandardCharsets.US_ASCII), 0, KEY_LENGTH);
+        out.putInt(program.weight());
+        out.putInt(payload.length);
+        out.putInt((int) crc.getValue());
+        out.put(payload);
+
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+
+        try {
+            Files.write(temp, out.array());
+            Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return number of programs read from disk
+     */
+    public long loadCount() {
+        return loads.get();
+    }
+
+    /**
+     * @return number of stale or corrupt entries discarded
+     */
+    public long rebuildCount() {
+        return rebuilds.get();
+    }
+
+    private Path file(String key) {
+
+        if (!isKey(key)) {
+            throw new IllegalArgumentException("Not a source hash: " + key);
+        }
+
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static boolean isKey(String key) {
+
+        if (key.length() != KEY_LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < KEY_LENGTH; i++) {
+            if (Character.digit(key.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
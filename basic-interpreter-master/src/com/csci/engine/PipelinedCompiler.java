@@ -0,0 +1,128 @@
+package com.csci.engine;
+
+import com.csci.grammar.Def;
+import com.csci.grammar.ListDef;
+import com.csci.grammar.PDefs;
+import com.csci.grammar.Symbols;
+import com.csci.lexer.Lexer;
+import com.csci.lexer.TokenPipe;
+import com.csci.optimizer.Optimizer;
+import com.csci.parser.Parser;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Compiler of large programs running lexing, parsing and optimization on three threads at once. The
+ * lexer feeds the parser through a bounded {@link TokenPipe}, the parser hands every finished definition
+ * to the optimizer on the calling thread, which passes it on as soon as it is optimized. Neither the
+ * full token list nor the parse tree of unoptimized definitions is ever held in memory.
+ */
+public final class PipelinedCompiler {
+
+    /**
+     * Chunks of {@link TokenPipe#CHUNK} tokens buffered between lexer and parser
+     */
+    public static final int TOKEN_CHUNKS = 16;
+
+    /**
+     * Parsed definitions buffered between parser and optimizer
+     */
+    public static final int DEFINITIONS = 64;
+
+    /**
+     * Marks the last parsed definition in the definition queue
+     */
+    private static final Object END = new Object();
+
+    private PipelinedCompiler() { }
+
+    /**
+     * Compile source code
+     *
+     * @param source program source
+     * @return compiled program
+     * @throws Exception syntax exception
+     */
+    public static CompiledProgram compile(CharSequence source) throws Exception {
+        return compile(source, def -> { });
+    }
+
+    /**
+     * Compile source code, passing every optimized definition on as soon as it is ready
+     *
+     * @param source   program source
+     * @param compiled consumer of optimized definitions in program order, called on the calling thread
+     * @return compiled program
+     * @throws Exception syntax exception
+     */
+    public static CompiledProgram compile(CharSequence source, Consumer<Def> compiled) throws Exception {
+
+        TokenPipe tokens = new TokenPipe(TOKEN_CHUNKS);
+        BlockingQueue<Object> defs = new ArrayBlockingQueue<>(DEFINITIONS);
+        Symbols symbols = new Symbols();
+
+        Thread lexer = new Thread(() -> {
+            try {
+                new Lexer().lex(source, tokens);
+                tokens.close();
+            } catch (RuntimeException | StackOverflowError e) {
+                tokens.fail(e);
+            }
+        }, "csci-lexer");
+
+        Thread parser = new Thread(() -> {
+            try {
+                Parser stream = new Parser(tokens, null, symbols);
+                Def def;
+                while ((def = stream.parseNextDef()) != null) {
+                    defs.put(def);
+                }
+                defs.put(END);
+            } catch (InterruptedException e) {
+                // compilation was abandoned
+            } catch (Exception e) {
+                report(defs, e);
+            } catch (StackOverflowError e) {
+                report(defs, new Exception("Parse error: program is nested too deeply"));
+            }
+        }, "csci-parser");
+
+        lexer.setDaemon(true);
+        parser.setDaemon(true);
+        lexer.start();
+        parser.start();
+
+        Optimizer optimizer = new Optimizer();
+        ListDef listDef = new ListDef();
+
+        try {
+
+            for (Object next = defs.take(); next != END; next = defs.take()) {
+
+                if (next instanceof Exception) {
+                    throw (Exception) next;
+                }
+
+                Def def = optimizer.optimize((Def) next);
+                listDef.add(def);
+                compiled.accept(def);
+            }
+
+        } finally {
+            lexer.interrupt();
+            parser.interrupt();
+        }
+
+        return new CompiledProgram(new PDefs(listDef, symbols), (int) Math.min(tokens.count(), Integer.MAX_VALUE));
+    }
+
+    private static void report(BlockingQueue<Object> defs, Exception e) {
+        try {
+            defs.put(e);
+        } catch (InterruptedException ignored) {
+            // compilation was abandoned
+        }
+    }
+}
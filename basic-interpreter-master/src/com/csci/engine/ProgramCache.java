@@ -0,0 +1,294 @@
+package com.csci.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of compiled programs keyed by the SHA-256 hash of their source. The total weight of retained
+ * programs is bounded, least recently used programs are evicted first. Concurrent requests for the
+ * same uncached source wait for a single compilation.
+ * <p>
+ * Hits take no lock, a hit only stamps the time of use on its entry, at most once per {@link #STAMP_NANOS} so
+ * threads hitting one program do not keep writing the same entry. Puts are serialized and evict the entries
+ * with the oldest stamps, so recency is exact up to that granularity. Admission is not frequency based, a
+ * single scan of many sources evicts programs that are used often.
+ */
+public class ProgramCache {
+
+    /**
+     * Default bound of retained program weight, in tokens
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 1L << 22;
+
+    /**
+     * Minimum time between two updates of the use stamp of an entry, in {@link System#nanoTime()} units
+     */
+    private static final long STAMP_NANOS = 1_000_000;
+
+    private final long maxWeight;
+
+    private final ProgramCompiler compiler;
+
+    private final ConcurrentHashMap<String, Entry> programs = new ConcurrentHashMap<>();
+
+    /**
+     * Compilations in progress
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<CompiledProgram>> compiling = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes puts and evictions, guards {@code weight}
+     */
+    private final Object lock = new Object();
+
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ProgramCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxWeight bound of retained program weight, see {@link CompiledProgram#weight()}
+     */
+    public ProgramCache(long maxWeight) {
+        this(maxWeight, (key, source) -> CompiledProgram.compile(source));
+    }
+
+    /**
+     * @param maxWeight bound of retained program weight, see {@link CompiledProgram#weight()}
+     * @param compiler  source of programs missing in the cache, e.g. a {@link DiskCache}
+     */
+    public ProgramCache(long maxWeight, ProgramCompiler compiler) {
+        this.maxWeight = maxWeight;
+        this.compiler = compiler;
+    }
+
+    /**
+     * Get compiled program, compiling the source on a miss
+     *
+     * @param source program source
+     * @return compiled program
+     * @throws Exception syntax exception
+     */
+    public CompiledProgram get(String source) throws Exception {
+        return get(hash(source), source);
+    }
+
+    /**
+     * Get compiled program by precomputed key
+     *
+     * @param key    hash of source, see {@link #hash(String)}
+     * @param source program source
+     * @return compiled program
+     * @throws Exception syntax exception
+     */
+    public CompiledProgram get(String key, String source) throws Exception {
+
+        Entry entry = programs.get(key);
+
+        if (entry != null) {
+            hits.increment();
+            return entry.use();
+        }
+
+        misses.increment();
+
+        CompletableFuture<CompiledProgram> pending = new CompletableFuture<>();
+        CompletableFuture<CompiledProgram> running = compiling.putIfAbsent(key, pending);
+
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw (Exception) e.getCause();
+            }
+        }
+
+        try {
+
+            // a compilation may have finished between the lookup and the registration of this one
+            entry = programs.get(key);
+            CompiledProgram program = entry != null ? entry.use() : compiler.compile(key, source);
+
+            if (entry == null) {
+                put(key, program);
+            }
+
+            pending.complete(program);
+
+            return program;
+
+        } catch (Throwable e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            compiling.remove(key);
+        }
+    }
+
+    /**
+     * @param key hash of source
+     * @return cached program or null, does not count as hit or miss
+     */
+    public CompiledProgram peek(String key) {
+        Entry entry = programs.get(key);
+        return entry != null ? entry.program : null;
+    }
+
+    /**
+     * Retain program, evicting least recently used programs beyond the weight bound
+     *
+     * @param key     hash of source
+     * @param program compiled program
+     */
+    public void put(String key, CompiledProgram program) {
+
+        if (program.weight() > maxWeight) {
+            return;
+        }
+
+        synchronized (lock) {
+
+            Entry replaced = programs.put(key, new Entry(program));
+
+            if (replaced != null) {
+                weight -= replaced.program.weight();
+            }
+
+            weight += program.weight();
+
+            if (weight <= maxWeight) {
+                return;
+            }
+
+            List<Map.Entry<String, Entry>> eldest = new ArrayList<>(programs.entrySet());
+
+            // hits keep stamping while the entries are sorted, sort by stamps read once
+            for (Map.Entry<String, Entry> candidate : eldest) {
+                candidate.getValue().sortStamp = candidate.getValue().stamp;
+            }
+
+            eldest.sort(Comparator.comparingLong(candidate -> candidate.getValue().sortStamp));
+
+            for (Iterator<Map.Entry<String, Entry>> i = eldest.iterator(); weight > maxWeight; ) {
+
+                Map.Entry<String, Entry> evicted = i.next();
+
+                if (evicted.getKey().equals(key)) {
+                    continue;
+                }
+
+                programs.remove(evicted.getKey());
+                weight -= evicted.getValue().program.weight();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * @return number of lookups served from the cache
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that had to wait for a compilation
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of programs evicted to stay within the weight bound
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return total weight of retained programs
+     */
+    public long weight() {
+        synchronized (lock) {
+            return weight;
+        }
+    }
+
+    /**
+     * @return number of retained programs
+     */
+    public int size() {
+        return programs.size();
+    }
+
+    /**
+     * @param source program source
+     * @return hex encoded SHA-256 hash of the UTF-8 encoded source
+     */
+    public static String hash(String source) {
+
+        try {
+
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+
+            return builder.toString();
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Cached program and the time it was last used
+     */
+    private static final class Entry {
+
+        final CompiledProgram program;
+
+        volatile long stamp;
+
+        /**
+         * Copy of the stamp taken by an eviction, guarded by the lock of the cache
+         */
+        long sortStamp;
+
+        Entry(CompiledProgram program) {
+            this.program = program;
+            this.stamp = System.nanoTime();
+        }
+
+        CompiledProgram use() {
+
+            long now = System.nanoTime();
+
+            if (now - stamp > STAMP_NANOS) {
+                stamp = now;
+            }
+
+            return program;
+        }
+    }
+}
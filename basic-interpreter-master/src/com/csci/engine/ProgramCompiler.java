@@ -0,0 +1,16 @@
+package com.csci.engine;
+
+/**
+ * Source of compiled programs used by {@link ProgramCache} on a miss
+ */
+@FunctionalInterface
+public interface ProgramCompiler {
+
+    /**
+     * @param key    hash of source, see {@link ProgramCache#hash(String)}
+     * @param source program source
+     * @return compiled program
+     * @throws Exception syntax exception
+     */
+    CompiledProgram compile(String key, String source) throws Exception;
+}
@@ -5,8 +5,8 @@ import com.csci.visitor.PrintVisitor;
 
 public class ADecl extends Arg {
 
-    public Type type_;
-    public String id_;
+    public final Type type_;
+    public final String id_;
 
     public ADecl(Type p1, String p2) {
         type_ = p1;
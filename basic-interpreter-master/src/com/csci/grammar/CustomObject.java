@@ -2,9 +2,9 @@ package com.csci.grammar;
 
 public class CustomObject {
 
-    public Type type;
+    public final Type type;
 
-    public Object value;
+    public final Object value;
 
     public CustomObject(Type type, Object value) {
         this.type = type;
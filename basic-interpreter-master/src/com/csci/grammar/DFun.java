@@ -5,10 +5,24 @@ import com.csci.visitor.PrintVisitor;
 
 public class DFun extends Def {
 
-    public Type type_;
-    public String id_;
-    public ListArg listarg_;
-    public ListStm liststm_;
+    public final Type type_;
+    public final String id_;
+    public final ListArg listarg_;
+
+    /**
+     * Statements, null until a lazy body is parsed
+     */
+    private volatile ListStm liststm_;
+
+    /**
+     * Parser of a lazy body, null once it is parsed
+     */
+    private Body body;
+
+    /**
+     * Error of the parse of a lazy body, thrown by every later call
+     */
+    private Exception error;
 
     public DFun(Type p1, String p2, ListArg p3, ListStm p4) {
         type_ = p1;
@@ -17,6 +31,63 @@ public class DFun extends Def {
         liststm_ = p4;
     }
 
+    /**
+     * Function whose body is parsed on first use
+     *
+     * @param p1 return type
+     * @param p2 function name
+     * @param p3 arguments
+     * @param p4 parser of the body
+     */
+    public DFun(Type p1, String p2, ListArg p3, Body p4) {
+        type_ = p1;
+        id_ = p2;
+        listarg_ = p3;
+        body = p4;
+    }
+
+    /**
+     * Get the statements, parsing a lazy body once on the first call of any thread
+     *
+     * @return statements
+     * @throws Exception syntax exception of a lazy body
+     */
+    public ListStm body() throws Exception {
+
+        ListStm listStm = liststm_;
+
+        if (listStm != null) {
+            return listStm;
+        }
+
+        synchronized (this) {
+
+            if (error != null) {
+                throw error;
+            }
+
+            if (liststm_ == null && body != null) {
+
+                try {
+                    liststm_ = body.parse();
+                    body = null;
+                } catch (Exception e) {
+                    error = e;
+                    throw e;
+                }
+            }
+
+            return liststm_;
+        }
+    }
+
+    /**
+     * @return statements or null while a lazy body is not parsed
+     */
+    public ListStm statements() {
+        return liststm_;
+    }
+
     @Override
     public String accept(PrintVisitor visitor) {
         return visitor.visit(this);
@@ -26,4 +97,16 @@ public class DFun extends Def {
     public CustomObject eval(EvalVisitor visitor) throws Exception  {
         return visitor.visit(this);
     }
+
+    /**
+     * Deferred parse of a function body
+     */
+    public interface Body {
+
+        /**
+         * @return statements of the body
+         * @throws Exception syntax exception
+         */
+        ListStm parse() throws Exception;
+    }
 }
@@ -5,8 +5,8 @@ import com.csci.visitor.PrintVisitor;
 
 public class EApp extends Exp {
 
-    public String id_;
-    public ListExp listexp_;
+    public final String id_;
+    public final ListExp listexp_;
 
     public EApp(String p1, ListExp p2) {
         id_ = p1;
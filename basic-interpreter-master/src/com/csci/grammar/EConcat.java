@@ -0,0 +1,31 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+/**
+ * Fused string concatenation produced by the optimizer from a chain of string typed {@link EPlus} nodes.
+ * Constant operands are kept pre-stripped in {@code literals_}, dynamic operands in {@code exps_}.
+ */
+public class EConcat extends Exp {
+
+    public final Exp[] exps_;
+    public final String[] literals_;
+    public final int capacity_;
+
+    public EConcat(Exp[] p1, String[] p2, int p3) {
+        exps_ = p1;
+        literals_ = p2;
+        capacity_ = p3;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+}
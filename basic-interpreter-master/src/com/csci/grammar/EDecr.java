@@ -5,7 +5,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EDecr extends Exp {
 
-    public Exp exp_;
+    public final Exp exp_;
 
     public EDecr(Exp p1) {
         exp_ = p1;
@@ -5,7 +5,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EDouble extends Exp {
 
-    public Double double_;
+    public final Double double_;
 
     public EDouble(Double p1) {
         double_ = p1;
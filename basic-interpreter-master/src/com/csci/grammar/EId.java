@@ -5,10 +5,16 @@ import com.csci.visitor.PrintVisitor;
 
 public class EId extends Exp {
 
-    public String id_;
+    public final String id_;
+    public final int symbol_;
 
-    public EId(String p1) {
+    /**
+     * @param p1 variable name
+     * @param p2 symbol of the name in the table of the program
+     */
+    public EId(String p1, int p2) {
         id_ = p1;
+        symbol_ = p2;
     }
 
     @Override
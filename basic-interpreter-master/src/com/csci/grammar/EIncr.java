@@ -5,7 +5,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EIncr extends Exp {
 
-    public Exp exp_;
+    public final Exp exp_;
 
     public EIncr(Exp p1) {
         exp_ = p1;
@@ -0,0 +1,34 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+public class EIndex extends Exp {
+
+    public final Exp exp_1, exp_2;
+
+    /**
+     * False if the optimizer proved the index to be in range
+     */
+    public final boolean checked_;
+
+    public EIndex(Exp p1, Exp p2) {
+        this(p1, p2, true);
+    }
+
+    public EIndex(Exp p1, Exp p2, boolean p3) {
+        exp_1 = p1;
+        exp_2 = p2;
+        checked_ = p3;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+}
@@ -6,7 +6,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EInt extends Exp implements Visitable {
 
-    public Integer integer_;
+    public final Integer integer_;
 
     public EInt(Integer p1) {
         integer_ = p1;
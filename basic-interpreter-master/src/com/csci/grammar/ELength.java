@@ -0,0 +1,23 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+public class ELength extends Exp {
+
+    public final Exp exp_;
+
+    public ELength(Exp p1) {
+        exp_ = p1;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+}
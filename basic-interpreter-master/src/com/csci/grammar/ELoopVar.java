@@ -0,0 +1,28 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+/**
+ * Reference to a {@link SFor} induction variable resolved by the optimizer to a primitive slot
+ */
+public class ELoopVar extends Exp {
+
+    public final String id_;
+    public final int slot_;
+
+    public ELoopVar(String p1, int p2) {
+        id_ = p1;
+        slot_ = p2;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+}
@@ -5,7 +5,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EMinus extends Exp {
 
-    public Exp exp_1, exp_2;
+    public final Exp exp_1, exp_2;
 
     public EMinus(Exp p1, Exp p2) {
         exp_1 = p1;
@@ -0,0 +1,31 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+public class ENewArray extends Exp {
+
+    public final Type type_;
+    public final Exp exp_;
+    public final boolean offHeap_;
+
+    public ENewArray(Type p1, Exp p2) {
+        this(p1, p2, false);
+    }
+
+    public ENewArray(Type p1, Exp p2, boolean p3) {
+        type_ = p1;
+        exp_ = p2;
+        offHeap_ = p3;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+}
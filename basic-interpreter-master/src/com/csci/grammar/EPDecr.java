@@ -5,7 +5,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EPDecr extends Exp {
 
-    public Exp exp_;
+    public final Exp exp_;
 
     public EPDecr(Exp p1) {
         exp_ = p1;
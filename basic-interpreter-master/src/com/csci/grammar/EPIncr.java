@@ -5,7 +5,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EPIncr extends Exp {
 
-    public Exp exp_;
+    public final Exp exp_;
 
     public EPIncr(Exp p1) {
         exp_ = p1;
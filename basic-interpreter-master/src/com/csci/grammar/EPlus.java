@@ -6,7 +6,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EPlus extends Exp implements Visitable {
 
-    public Exp exp_1, exp_2;
+    public final Exp exp_1, exp_2;
 
     public EPlus(Exp p1, Exp p2) {
         exp_1 = p1;
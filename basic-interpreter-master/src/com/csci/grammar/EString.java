@@ -5,7 +5,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class EString extends Exp {
 
-    public String string_;
+    public final String string_;
 
     public EString(String p1) {
         string_ = p1;
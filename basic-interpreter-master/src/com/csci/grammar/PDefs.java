@@ -5,10 +5,16 @@ import com.csci.visitor.PrintVisitor;
 
 public class PDefs extends Program {
 
-    public ListDef listdef_;
+    public final ListDef listdef_;
 
-    public PDefs(ListDef p1) {
+    /**
+     * Table of the symbols the variable nodes of the definitions carry
+     */
+    public final Symbols symbols_;
+
+    public PDefs(ListDef p1, Symbols p2) {
         listdef_ = p1;
+        symbols_ = p2;
     }
 
     @Override
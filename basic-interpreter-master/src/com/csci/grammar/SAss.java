@@ -5,11 +5,13 @@ import com.csci.visitor.PrintVisitor;
 
 public class SAss extends Stm {
 
-    public String id;
-    public Exp exp;
+    public final String id;
+    public final int symbol;
+    public final Exp exp;
 
-    public SAss(String id, Exp exp) {
+    public SAss(String id, int symbol, Exp exp) {
         this.id = id;
+        this.symbol = symbol;
         this.exp = exp;
     }
 
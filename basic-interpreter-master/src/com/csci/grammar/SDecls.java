@@ -5,12 +5,14 @@ import com.csci.visitor.PrintVisitor;
 
 public class SDecls extends Stm {
 
-    public Type type_;
-    public String id_;
+    public final Type type_;
+    public final String id_;
+    public final int symbol_;
 
-    public SDecls(Type p1, String p2) {
+    public SDecls(Type p1, String p2, int p3) {
         type_ = p1;
         id_ = p2;
+        symbol_ = p3;
     }
 
     @Override
@@ -5,7 +5,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class SExp extends Stm {
 
-    public Exp exp_;
+    public final Exp exp_;
 
     public SExp(Exp p1) {
         exp_ = p1;
@@ -0,0 +1,38 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+public class SFor extends Stm {
+
+    public final Stm stm_;
+    public final Exp exp_1, exp_2;
+    public final ListStm liststm_;
+
+    /**
+     * Induction variable slot assigned by the optimizer, -1 if the loop variable lives in the scope map
+     */
+    public final int slot_;
+
+    public SFor(Stm p1, Exp p2, Exp p3, ListStm p4) {
+        this(p1, p2, p3, p4, -1);
+    }
+
+    public SFor(Stm p1, Exp p2, Exp p3, ListStm p4, int p5) {
+        stm_ = p1;
+        exp_1 = p2;
+        exp_2 = p3;
+        liststm_ = p4;
+        slot_ = p5;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+}
@@ -5,9 +5,9 @@ import com.csci.visitor.PrintVisitor;
 
 public class SIfElse extends Stm {
 
-    public Exp exp_;
+    public final Exp exp_;
 
-    public ListStm stm_1, stm_2;
+    public final ListStm stm_1, stm_2;
 
     public SIfElse(Exp p1, ListStm p2, ListStm p3) {
         exp_ = p1;
@@ -0,0 +1,28 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+public class SIndexAss extends Stm {
+
+    public final String id_;
+    public final int symbol_;
+    public final Exp exp_1, exp_2;
+
+    public SIndexAss(String p1, int p2, Exp p3, Exp p4) {
+        id_ = p1;
+        symbol_ = p2;
+        exp_1 = p3;
+        exp_2 = p4;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+}
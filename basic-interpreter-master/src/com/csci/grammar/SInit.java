@@ -5,14 +5,16 @@ import com.csci.visitor.PrintVisitor;
 
 public class SInit extends Stm {
 
-    public Type type_;
-    public String id_;
-    public Exp exp_;
+    public final Type type_;
+    public final String id_;
+    public final int symbol_;
+    public final Exp exp_;
 
-    public SInit(Type p1, String p2, Exp p3) {
+    public SInit(Type p1, String p2, int p3, Exp p4) {
         type_ = p1;
         id_ = p2;
-        exp_ = p3;
+        symbol_ = p3;
+        exp_ = p4;
     }
 
     @Override
@@ -6,7 +6,7 @@ import com.csci.visitor.PrintVisitor;
 
 public class SReturn extends Stm implements Visitable {
 
-    public Exp exp_;
+    public final Exp exp_;
 
     public SReturn(Exp p1) {
         exp_ = p1;
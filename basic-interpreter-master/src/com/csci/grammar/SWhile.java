@@ -5,8 +5,8 @@ import com.csci.visitor.PrintVisitor;
 
 public class SWhile extends Stm {
 
-    public Exp exp_;
-    public ListStm stm_;
+    public final Exp exp_;
+    public final ListStm stm_;
 
     public SWhile(Exp p1, ListStm p2) {
         exp_ = p1;
@@ -0,0 +1,72 @@
+package com.csci.grammar;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifiers of one program, every distinct identifier gets a dense int symbol on first sight. Nodes naming a
+ * variable carry its symbol, so evaluation indexes an array sized to the symbols of the program. A table is
+ * shared by the definitions of its program, lazily parsed bodies included, and is dropped with the program.
+ */
+public final class Symbols {
+
+    private final ConcurrentHashMap<String, Integer> symbols = new ConcurrentHashMap<>();
+
+    private volatile String[] names = new String[64];
+    private int count;
+
+    /**
+     * @param name identifier
+     * @return symbol of the identifier, the same for equal names
+     */
+    public int intern(String name) {
+
+        Integer symbol = symbols.get(name);
+
+        if (symbol != null) {
+            return symbol;
+        }
+
+        synchronized (this) {
+
+            symbol = symbols.get(name);
+
+            if (symbol != null) {
+                return symbol;
+            }
+
+            if (count == names.length) {
+                names = Arrays.copyOf(names, count * 2);
+            }
+
+            names[count] = name;
+            symbols.put(name, count);
+
+            return count++;
+        }
+    }
+
+    /**
+     * @param name identifier
+     * @return symbol of the identifier or -1 if the program does not use it
+     */
+    public int find(String name) {
+        Integer symbol = symbols.get(name);
+        return symbol != null ? symbol : -1;
+    }
+
+    /**
+     * @param symbol symbol returned by {@link #intern(String)}
+     * @return interned identifier
+     */
+    public String name(int symbol) {
+        return names[symbol];
+    }
+
+    /**
+     * @return number of symbols, all symbols are below
+     */
+    public synchronized int count() {
+        return count;
+    }
+}
@@ -0,0 +1,28 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+public class TypeArray extends Type {
+
+    public final Type type_;
+
+    public TypeArray(Type p1) {
+        type_ = p1;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public String toString() {
+        return type_ + "[]";
+    }
+}
@@ -0,0 +1,30 @@
+package com.csci.grammar;
+
+import com.csci.visitor.EvalVisitor;
+import com.csci.visitor.PrintVisitor;
+
+public class TypeMap extends Type {
+
+    public final Type key_;
+    public final Type value_;
+
+    public TypeMap(Type p1, Type p2) {
+        key_ = p1;
+        value_ = p2;
+    }
+
+    @Override
+    public String accept(PrintVisitor visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public CustomObject eval(EvalVisitor visitor) throws Exception {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public String toString() {
+        return "map<" + key_ + "," + value_ + ">";
+    }
+}
@@ -1,7 +1,6 @@
 package com.csci.gui;
 
 import java.awt.*;
-import java.util.LinkedList;
 import java.util.HashMap;
 
 import javax.swing.*;
@@ -12,12 +11,13 @@ import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.text.*;
 
+import com.csci.engine.CompiledProgram;
 import com.csci.grammar.CustomObject;
 import com.csci.grammar.PDefs;
-import com.csci.lexer.Lexer;
+import com.csci.lexer.IncrementalLexer;
 import com.csci.lexer.Token;
 import com.csci.lexer.TokenType;
-import com.csci.parser.Parser;
+import com.csci.parser.IncrementalParser;
 import com.csci.grammar.Program;
 import com.csci.visitor.Evaluator;
 import com.csci.visitor.Printer;
@@ -38,16 +38,30 @@ public class Editor {
      */
     private JTextPane console;
     /**
-     * Lexer instance
+     * Tokens of the editor document, updated on every edit
      */
-    private Lexer lexer;
+    private IncrementalLexer tokens;
+    /**
+     * Parser of the editor document, re-parses only edited definitions
+     */
+    private IncrementalParser definitions;
+    /**
+     * Highlighting style per token type name
+     */
+    private HashMap<String, Style> tokenStyles;
+    /**
+     * Range of the document waiting to be highlighted, start is -1 if there is none
+     */
+    private int dirtyStart = -1;
+    private int dirtyEnd;
 
     /**
      * Constructor
      */
     public Editor() {
+        tokens = new IncrementalLexer("");
+        definitions = new IncrementalParser(tokens);
         initialize();
-        lexer = new Lexer();
     }
 
     /**
@@ -71,15 +85,11 @@ public class Editor {
 
             if (input != null && !input.isEmpty()) {
 
-                LinkedList<Token> tokenList = lexer.lex(input);
-
-                Parser parser = new Parser(tokenList);
-
                 Printer printer = new Printer();
 
                 try {
 
-                    Program program = parser.parseProgram();
+                    Program program = definitions.parse();
 
                     String parsedString = printer.visit((PDefs) program);
 
@@ -106,19 +116,15 @@ public class Editor {
 
             if (input != null && !input.isEmpty()) {
 
-                LinkedList<Token> tokenList = lexer.lex(input);
-
-                Parser parser = new Parser(tokenList);
-
                 Evaluator evaluator = new Evaluator();
 
                 try {
 
-                    Program program = parser.parseProgram();
+                    CompiledProgram program = CompiledProgram.compile(definitions);
 
-                    CustomObject returnValue = evaluator.visit((PDefs) program);
+                    CustomObject returnValue = program.run(evaluator);
 
-                    System.out.println(evaluator.GLOBAL_SCOPE);
+                    System.out.println(evaluator.variables());
 
                     if (returnValue != null)
                         console.setText(returnValue.toString());
@@ -174,68 +180,122 @@ public class Editor {
     }
 
     /**
-     * Highlights tokens
+     * Re-lexes the edited part of the document and schedules highlighting of the tokens that changed
      *
      * @param e event
      */
     private void highlight(DocumentEvent e) {
 
-        Runnable doHighlight = () -> {
-
-            try {
-
-                Document doc = e.getDocument();
-                String code = doc.getText(0, doc.getLength());
-
-                LinkedList<Token> tokens = lexer.lex(code);
-
-                HashMap<String, Color> tokenColors = new HashMap<>();
-                tokenColors.put(TokenType.FLOAT.name(), Color.RED);
-                tokenColors.put(TokenType.INT.name(), Color.RED);
-                tokenColors.put(TokenType.STRING.name(), Color.GRAY);
-                tokenColors.put(TokenType.CHAR.name(), Color.GRAY);
-                tokenColors.put(TokenType.TRUE.name(), Color.MAGENTA);
-                tokenColors.put(TokenType.FALSE.name(), Color.MAGENTA);
-                tokenColors.put(TokenType.RETURN.name(), Color.BLUE);
-                tokenColors.put(TokenType.IF.name(), Color.BLUE);
-                tokenColors.put(TokenType.ELSE.name(), Color.BLUE);
-                tokenColors.put(TokenType.WHILE.name(), Color.BLUE);
-                tokenColors.put(TokenType.TYPEINT.name(), Color.BLUE);
-                tokenColors.put(TokenType.TYPEBOOL.name(), Color.BLUE);
-                tokenColors.put(TokenType.TYPECHAR.name(), Color.BLUE);
-                tokenColors.put(TokenType.TYPEFLOAT.name(), Color.BLUE);
-                tokenColors.put(TokenType.TYPESTRING.name(), Color.BLUE);
-                tokenColors.put(TokenType.TYPEVOID.name(), Color.BLUE);
-
-                HashMap<String, Style> tokenStyles = new HashMap<>();
-
-                for (String key : tokenColors.keySet()) {
-                    Color color = tokenColors.get(key);
-                    Style style = editor.addStyle(key, null);
-                    StyleConstants.setForeground(style, color);
-                    tokenStyles.put(key, style);
-                }
+        Document doc = e.getDocument();
+        int offset = e.getOffset();
+        int length = e.getLength();
 
-                Style defaultStyle = editor.addStyle("default", null);
-                StyleConstants.setForeground(defaultStyle, Color.BLACK);
-
-                for (Token token : tokens) {
-                    Style tokenStyle = tokenStyles.get(token.getType().name());
-                    if (tokenStyle != null)
-                        editor
-                                .getStyledDocument()
-                                .setCharacterAttributes(token.getPosition(), token.getData().length(), tokenStyle, true);
-                    else
-                        editor
-                                .getStyledDocument()
-                                .setCharacterAttributes(token.getPosition(), token.getData().length(), defaultStyle, true);
-                }
-            } catch (BadLocationException ex) {
-                ex.printStackTrace();
-            }
-        };
+        try {
+
+            if (e.getType() == DocumentEvent.EventType.INSERT)
+                definitions.edit(offset, 0, doc.getText(offset, length));
+            else
+                definitions.edit(offset, length, "");
+
+        } catch (BadLocationException ex) {
+            ex.printStackTrace();
+            return;
+        }
+
+        int delta = e.getType() == DocumentEvent.EventType.INSERT ? length : -length;
+
+        if (dirtyStart < 0) {
+
+            dirtyStart = tokens.changedStart();
+            dirtyEnd = tokens.changedEnd();
+
+            SwingUtilities.invokeLater(this::restyle);
+
+        } else {
 
-        SwingUtilities.invokeLater(doHighlight);
+            // move the waiting range along with the edit before adding the re-lexed range
+            if (dirtyStart > offset)
+                dirtyStart = Math.max(offset, dirtyStart + delta);
+            if (dirtyEnd > offset)
+                dirtyEnd = Math.max(offset, dirtyEnd + delta);
+
+            dirtyStart = Math.min(dirtyStart, tokens.changedStart());
+            dirtyEnd = Math.max(dirtyEnd, tokens.changedEnd());
+        }
+    }
+
+    /**
+     * Highlights tokens of the waiting range
+     */
+    private void restyle() {
+
+        StyledDocument doc = editor.getStyledDocument();
+
+        if (tokenStyles == null)
+            tokenStyles = createStyles();
+
+        Style defaultStyle = tokenStyles.get("default");
+
+        int start = Math.min(dirtyStart, doc.getLength());
+        int end = Math.min(dirtyEnd, doc.getLength());
+
+        dirtyStart = -1;
+
+        doc.setCharacterAttributes(start, end - start, defaultStyle, true);
+
+        for (int i = tokens.indexAt(start); i < tokens.size(); i++) {
+
+            Token token = tokens.token(i);
+
+            if (token.getPosition() >= end)
+                break;
+
+            Style tokenStyle = tokenStyles.getOrDefault(token.getType().name(), defaultStyle);
+
+            doc.setCharacterAttributes(token.getPosition(), token.getData().length(), tokenStyle, true);
+        }
+    }
+
+    /**
+     * @return highlighting style per token type name, and the default style
+     */
+    private HashMap<String, Style> createStyles() {
+
+        HashMap<String, Color> tokenColors = new HashMap<>();
+        tokenColors.put(TokenType.FLOAT.name(), Color.RED);
+        tokenColors.put(TokenType.INT.name(), Color.RED);
+        tokenColors.put(TokenType.STRING.name(), Color.GRAY);
+        tokenColors.put(TokenType.CHAR.name(), Color.GRAY);
+        tokenColors.put(TokenType.TRUE.name(), Color.MAGENTA);
+        tokenColors.put(TokenType.FALSE.name(), Color.MAGENTA);
+        tokenColors.put(TokenType.RETURN.name(), Color.BLUE);
+        tokenColors.put(TokenType.IF.name(), Color.BLUE);
+        tokenColors.put(TokenType.ELSE.name(), Color.BLUE);
+        tokenColors.put(TokenType.WHILE.name(), Color.BLUE);
+        tokenColors.put(TokenType.FOR.name(), Color.BLUE);
+        tokenColors.put(TokenType.OFFHEAP.name(), Color.BLUE);
+        tokenColors.put(TokenType.TYPEINT.name(), Color.BLUE);
+        tokenColors.put(TokenType.TYPEBOOL.name(), Color.BLUE);
+        tokenColors.put(TokenType.TYPECHAR.name(), Color.BLUE);
+        tokenColors.put(TokenType.TYPEFLOAT.name(), Color.BLUE);
+        tokenColors.put(TokenType.TYPESTRING.name(), Color.BLUE);
+        tokenColors.put(TokenType.TYPEVOID.name(), Color.BLUE);
+        tokenColors.put(TokenType.TYPEMAP.name(), Color.BLUE);
+
+        HashMap<String, Style> styles = new HashMap<>();
+
+        for (String key : tokenColors.keySet()) {
+            Color color = tokenColors.get(key);
+            Style style = editor.addStyle(key, null);
+            StyleConstants.setForeground(style, color);
+            styles.put(key, style);
+        }
+
+        Style defaultStyle = editor.addStyle("default", null);
+        StyleConstants.setForeground(defaultStyle, Color.BLACK);
+        styles.put("default", defaultStyle);
+
+        return styles;
     }
 
 }
@@ -0,0 +1,39 @@
+package com.csci.lexer;
+
+/**
+ * Token source over a range of a token array, the array is not modified so several sources can read it at once
+ */
+public class ArrayTokenSource implements TokenSource {
+
+    private final Token[] tokens;
+    private final int to;
+    private int next;
+
+    /**
+     * @param tokens tokens
+     * @param from   index of the first token
+     * @param to     index after the last token
+     */
+    public ArrayTokenSource(Token[] tokens, int from, int to) {
+        this.tokens = tokens;
+        this.next = from;
+        this.to = to;
+    }
+
+    @Override
+    public Token peek(int offset) {
+        return next + offset < to ? tokens[next + offset] : null;
+    }
+
+    @Override
+    public void pop() {
+        next++;
+    }
+
+    /**
+     * @return index of the current token
+     */
+    public int position() {
+        return next;
+    }
+}
@@ -0,0 +1,356 @@
+package com.csci.lexer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lexer scanning UTF-8 bytes directly, e.g. of a memory mapped file, without decoding the source into a
+ * {@code String}. Produces the tokens of {@link Lexer#lex(String)} with the same text, except that positions
+ * are byte offsets. Only ASCII bytes start tokens, other bytes are only looked at inside strings and comments
+ * to find the end of their line. Runs of whitespace, identifier characters, digits and string or comment
+ * bodies are scanned a vector at a time where the vector API is available.
+ */
+public class ByteLexer {
+
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    private static final ByteScanner SCANNER = ByteScanner.INSTANCE;
+
+    /**
+     * Keywords in the order the token patterns try them, a keyword also matches as a prefix of a longer word
+     * unless its pattern ends with {@link Lexer#WORD_END}
+     */
+    private static final TokenType[] KEYWORDS = {
+            TokenType.TYPEINT, TokenType.TYPEFLOAT, TokenType.TYPESTRING, TokenType.TYPECHAR, TokenType.TYPEBOOL,
+            TokenType.TYPEVOID, TokenType.TYPEMAP, TokenType.TRUE, TokenType.FALSE, TokenType.FOR, TokenType.WHILE,
+            TokenType.IF, TokenType.ELSE, TokenType.RETURN, TokenType.BREAK, TokenType.CONTINUE, TokenType.OFFHEAP
+    };
+
+    private static final byte[][] KEYWORD_BYTES = new byte[KEYWORDS.length][];
+    private static final boolean[] WHOLE_WORD = new boolean[KEYWORDS.length];
+
+    static {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            String pattern = KEYWORDS[i].pattern;
+            WHOLE_WORD[i] = pattern.endsWith(Lexer.WORD_END);
+            KEYWORD_BYTES[i] = (WHOLE_WORD[i]
+                    ? pattern.substring(0, pattern.length() - Lexer.WORD_END.length()) : pattern).getBytes();
+        }
+    }
+
+    private MemorySegment source;
+    private int length;
+    private TokenArray tokens;
+
+    /**
+     * Map file and lex it
+     *
+     * @param file  UTF-8 source file
+     * @param arena owner of the mapping, has to stay open while tokens are read
+     * @return tokens
+     * @throws IOException if the file can not be mapped
+     */
+    public TokenArray lex(Path file, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return lex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        }
+    }
+
+    /**
+     * @param buffer UTF-8 source
+     * @return tokens
+     */
+    public TokenArray lex(MappedByteBuffer buffer) {
+        return lex(MemorySegment.ofBuffer(buffer));
+    }
+
+    /**
+     * @param source UTF-8 source of at most 2 GB
+     * @return tokens
+     */
+    public TokenArray lex(MemorySegment source) {
+
+        if (source.byteSize() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Sources larger than 2 GB are not supported");
+        }
+
+        this.source = source;
+        this.length = (int) source.byteSize();
+        this.tokens = new TokenArray(source);
+
+        int p = 0;
+
+        while (p < length) {
+            p = scan(p);
+        }
+
+        TokenArray res = tokens;
+        this.source = null;
+        this.tokens = null;
+
+        return res;
+    }
+
+    /**
+     * Match at position, adding the token if one is produced
+     *
+     * @param p position
+     * @return position after the match, or after the skipped byte if nothing matches
+     */
+    private int scan(int p) {
+
+        byte b = at(p);
+
+        switch (b) {
+            case '/':
+                return slash(p);
+            case '{':
+                return single(TokenType.SCOPESTART, p);
+            case '}':
+                return single(TokenType.SCOPEEND, p);
+            case '(':
+                return single(TokenType.BRASTART, p);
+            case ')':
+                return single(TokenType.BRAEND, p);
+            case '[':
+                return single(TokenType.ARRSTART, p);
+            case ']':
+                return single(TokenType.ARREND, p);
+            case '.':
+                return single(TokenType.DOT, p);
+            case '-':
+                if (isDigit(at(p + 1))) {
+                    return number(p, p + 1);
+                }
+                return at(p + 1) == '-' ? pair(TokenType.DECREMENT, p) : single(TokenType.MINUS, p);
+            case '"':
+                return quoted(TokenType.STRING, p);
+            case '\'':
+                return quoted(TokenType.CHAR, p);
+            case '+':
+                return at(p + 1) == '+' ? pair(TokenType.INCREMENT, p) : single(TokenType.PLUS, p);
+            case '*':
+                return single(TokenType.PROD, p);
+            case '>':
+                return at(p + 1) == '=' ? pair(TokenType.GREATEROREQUALS, p) : single(TokenType.GREATER, p);
+            case '<':
+                return at(p + 1) == '=' ? pair(TokenType.LESSOREQUALS, p) : single(TokenType.LESS, p);
+            case '=':
+                return at(p + 1) == '=' ? pair(TokenType.EQUALS, p) : single(TokenType.ASSIGNMENT, p);
+            case '!':
+                // != is matched but, like in the pattern lexer, produces no token
+                return at(p + 1) == '=' ? p + 2 : p + 1;
+            case '&':
+                return at(p + 1) == '&' ? pair(TokenType.AND, p) : p + 1;
+            case '|':
+                return at(p + 1) == '|' ? pair(TokenType.OR, p) : p + 1;
+            case ';':
+                return single(TokenType.SEMICOLON, p);
+            case ',':
+                return single(TokenType.COMMA, p);
+            case '\t':
+            case '\f':
+            case '\n':
+            case '\r':
+                return whitespace(p);
+            default:
+                if (isDigit(b)) {
+                    return number(p, p);
+                }
+                if (isWord(b)) {
+                    return word(p);
+                }
+                return p + 1;
+        }
+    }
+
+    private int single(TokenType type, int p) {
+        tokens.add(type, p, 1);
+        return p + 1;
+    }
+
+    private int pair(TokenType type, int p) {
+        tokens.add(type, p, 2);
+        return p + 2;
+    }
+
+    /**
+     * Line comment, block comment with exactly one line break, or division
+     */
+    private int slash(int p) {
+
+        byte next = at(p + 1);
+
+        if (next == '/') {
+
+            int end = lineEnd(p + 2);
+
+            if (end < length && at(end) == '\n') {
+                return end + 1;
+            }
+
+        } else if (next == '*') {
+
+            int first = lineEnd(p + 2);
+
+            if (first < length && at(first) == '\n') {
+
+                int second = lineEnd(first + 1);
+
+                // the greedy pattern ends the comment at the last */ of its second line
+                for (int k = second - 2; k >= first + 1; k--) {
+                    if (at(k) == '*' && at(k + 1) == '/') {
+                        return k + 2;
+                    }
+                }
+            }
+        }
+
+        return single(TokenType.DIV, p);
+    }
+
+    /**
+     * Integer or float, optionally preceded by a minus sign
+     *
+     * @param p      token start
+     * @param digits first digit
+     */
+    private int number(int p, int digits) {
+
+        int q = SCANNER.skipDigits(source, digits, length);
+
+        if (at(q) == '.' && isDigit(at(q + 1))) {
+
+            q = SCANNER.skipDigits(source, q + 1, length);
+
+            tokens.add(TokenType.FLOAT, p, q - p);
+            return q;
+        }
+
+        tokens.add(TokenType.INT, p, q - p);
+        return q;
+    }
+
+    /**
+     * String or char literal ending at the next quote of the same line, skipped quote if there is none
+     */
+    private int quoted(TokenType type, int p) {
+
+        byte quote = at(p);
+        int q = p + 1;
+
+        while (true) {
+
+            q = SCANNER.findStop(source, q, length, quote);
+
+            if (q == length || at(q) == '\n' || at(q) == '\r' || isLineBreak(q)) {
+                return p + 1;
+            }
+
+            if (at(q) == quote) {
+                tokens.add(type, p, q + 1 - p);
+                return q + 1;
+            }
+
+            q++;
+        }
+    }
+
+    private int whitespace(int p) {
+        return SCANNER.skipWhitespace(source, p, length);
+    }
+
+    /**
+     * Keyword, possibly as prefix of a longer word, or identifier
+     */
+    private int word(int p) {
+
+        for (int i = 0; i < KEYWORDS.length; i++) {
+
+            if (WHOLE_WORD[i] && (isWord(at(p + KEYWORD_BYTES[i].length)) || isDigit(at(p + KEYWORD_BYTES[i].length)))) {
+                continue;
+            }
+
+            if (startsWith(p, KEYWORD_BYTES[i])) {
+                tokens.add(KEYWORDS[i], p, KEYWORD_BYTES[i].length);
+                return p + KEYWORD_BYTES[i].length;
+            }
+        }
+
+        int q = SCANNER.skipWord(source, p, length);
+
+        tokens.add(TokenType.IDENT, p, q - p);
+        return q;
+    }
+
+    private boolean startsWith(int p, byte[] keyword) {
+
+        if (p + keyword.length > length) {
+            return false;
+        }
+
+        for (int i = 0; i < keyword.length; i++) {
+            if (at(p + i) != keyword[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param p position
+     * @return position of the first line terminator at or after p as seen by {@code .} in a pattern,
+     * or the source length if there is none
+     */
+    private int lineEnd(int p) {
+
+        int q = p;
+
+        while (true) {
+
+            q = SCANNER.findStop(source, q, length, (byte) '\n');
+
+            if (q == length || at(q) >= 0 || isLineBreak(q)) {
+                return q;
+            }
+
+            q++;
+        }
+    }
+
+    /**
+     * @param p position of a non-ASCII byte
+     * @return true if U+0085, U+2028 or U+2029 starts at p, these end a line too
+     */
+    private boolean isLineBreak(int p) {
+
+        byte b = at(p);
+        byte b1 = at(p + 1);
+
+        return (b == (byte) 0xC2 && b1 == (byte) 0x85)
+                || (b == (byte) 0xE2 && b1 == (byte) 0x80 && (at(p + 2) == (byte) 0xA8 || at(p + 2) == (byte) 0xA9));
+    }
+
+    /**
+     * @param p position
+     * @return byte at position or 0 past the end
+     */
+    private byte at(int p) {
+        return p < length ? source.get(BYTE, p) : 0;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isWord(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || b == '_';
+    }
+}
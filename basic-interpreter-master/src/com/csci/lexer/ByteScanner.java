@@ -0,0 +1,49 @@
+package com.csci.lexer;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Bulk scans over runs of one character class in UTF-8 bytes. Every scan returns the position of the first
+ * byte at or after {@code p} ending the run, or {@code length} if the run reaches the end.
+ */
+interface ByteScanner {
+
+    /**
+     * Scanner using the vector API if the {@code jdk.incubator.vector} module is present, otherwise scalar loops
+     */
+    ByteScanner INSTANCE = create();
+
+    /**
+     * @return first byte other than tab, form feed, line feed and carriage return
+     */
+    int skipWhitespace(MemorySegment source, int p, int length);
+
+    /**
+     * @return first byte other than a letter, digit or underscore
+     */
+    int skipWord(MemorySegment source, int p, int length);
+
+    /**
+     * @return first byte other than a digit
+     */
+    int skipDigits(MemorySegment source, int p, int length);
+
+    /**
+     * @param stop byte ending the run besides line feed, carriage return and non-ASCII bytes
+     * @return first stop byte, line feed, carriage return or non-ASCII byte
+     */
+    int findStop(MemorySegment source, int p, int length, byte stop);
+
+    private static ByteScanner create() {
+
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorByteScanner();
+            } catch (LinkageError e) {
+                // fall through to the scalar scanner
+            }
+        }
+
+        return new ScalarByteScanner();
+    }
+}
@@ -0,0 +1,368 @@
+package com.csci.lexer;
+
+import java.util.LinkedList;
+import java.util.regex.Matcher;
+
+/**
+ * Lexer keeping the tokens of a document up to date while it is edited. An edit re-lexes from the last token
+ * no match can see the edit from, until the new tokens line up with the old ones again. Produces the same
+ * tokens as {@link Lexer#lex(String)} on the edited document.
+ * <p>
+ * Text and tokens are kept in gap buffers with the gap at the last edit. Tokens after the gap store their
+ * position relative to the end of the document, so an edit does not shift them. The cost of an edit is
+ * proportional to the re-lexed range and the distance to the previous edit, not to the document.
+ */
+public class IncrementalLexer {
+
+    private char[] text;
+    private int gapStart;
+    private int gapEnd;
+
+    private final Text view = new Text();
+
+    private TokenType[] types;
+    private String[] data;
+    private int[] starts;
+    private int tokenGapStart;
+    private int tokenGapEnd;
+
+    /**
+     * Range of characters re-lexed by the last edit
+     */
+    private int changedStart;
+    private int changedEnd;
+
+    /**
+     * @param input initial document
+     */
+    public IncrementalLexer(String input) {
+
+        text = new char[input.length() + 1024];
+        input.getChars(0, input.length(), text, 0);
+        gapStart = input.length();
+        gapEnd = text.length;
+
+        LinkedList<Token> tokens = new Lexer().lex(input);
+
+        types = new TokenType[tokens.size() + 256];
+        data = new String[types.length];
+        starts = new int[types.length];
+        tokenGapEnd = types.length;
+
+        for (Token token : tokens) {
+            insert(token);
+        }
+
+        changedStart = 0;
+        changedEnd = input.length();
+    }
+
+    /**
+     * Apply an edit, e.g. of a {@code DocumentEvent}, and re-lex the text around it
+     *
+     * @param offset   position of the edit
+     * @param removed  number of characters removed at the position
+     * @param inserted text inserted at the position
+     */
+    public void edit(int offset, int removed, String inserted) {
+
+        int oldLength = length();
+
+        if (offset < 0 || removed < 0 || offset + removed > oldLength) {
+            throw new IndexOutOfBoundsException("Edit of " + removed + " characters at " + offset
+                    + " outside of document of length " + oldLength);
+        }
+
+        // a token matched before the line above the edited line can not have looked at the edit,
+        // tokens do not span lines and a block comment spans two
+        int line = lineStart(offset);
+        int safe = line > 0 ? lineStart(line - 1) : 0;
+        int kept = indexAt(safe);
+
+        moveTokenGap(kept, oldLength);
+
+        int from = kept > 0 ? starts[kept - 1] + data[kept - 1].length() : 0;
+
+        replace(offset, removed, inserted);
+
+        int length = length();
+        int unchanged = offset + inserted.length();
+        int end = length;
+
+        Matcher matcher = Lexer.TOKEN_PATTERNS.matcher(view);
+        matcher.region(from, length);
+
+        while (matcher.find()) {
+
+            int start = matcher.start();
+
+            // drop old tokens the new ones replace
+            while (tokenGapEnd < types.length && starts[tokenGapEnd] + length < start) {
+                tokenGapEnd++;
+            }
+
+            // matching at a position only looks forward, past the edit old and new tokens agree from here on
+            if (start >= unchanged && tokenGapEnd < types.length && starts[tokenGapEnd] + length == start) {
+                end = start;
+                break;
+            }
+
+            Lexer.emit(matcher, 0, this::insert);
+        }
+
+        if (end == length) {
+            tokenGapEnd = types.length;
+        }
+
+        changedStart = from;
+        changedEnd = end;
+    }
+
+    /**
+     * @return start of the characters re-lexed by the last edit
+     */
+    public int changedStart() {
+        return changedStart;
+    }
+
+    /**
+     * @return end of the characters re-lexed by the last edit, tokens from here on were kept
+     */
+    public int changedEnd() {
+        return changedEnd;
+    }
+
+    /**
+     * @return document length
+     */
+    public int length() {
+        return text.length - (gapEnd - gapStart);
+    }
+
+    /**
+     * @return number of tokens
+     */
+    public int size() {
+        return types.length - (tokenGapEnd - tokenGapStart);
+    }
+
+    /**
+     * @param index token index
+     * @return token
+     */
+    public Token token(int index) {
+        int slot = slot(index);
+        return new Token(types[slot], data[slot], position(slot));
+    }
+
+    /**
+     * @param index token index
+     * @return token type
+     */
+    public TokenType type(int index) {
+        return types[slot(index)];
+    }
+
+    /**
+     * @param index token index
+     * @return position of the token
+     */
+    public int start(int index) {
+        return position(slot(index));
+    }
+
+    /**
+     * @param position document position
+     * @return index of the first token starting at or after position
+     */
+    public int indexAt(int position) {
+
+        int low = 0;
+        int high = size();
+
+        while (low < high) {
+
+            int middle = (low + high) >>> 1;
+
+            if (position(slot(middle)) < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @return all tokens as a list accepted by {@link com.csci.parser.Parser#Parser(LinkedList)}
+     */
+    public LinkedList<Token> tokens() {
+
+        LinkedList<Token> tokens = new LinkedList<>();
+
+        for (int i = 0; i < size(); i++) {
+            tokens.add(token(i));
+        }
+
+        return tokens;
+    }
+
+    /**
+     * @return document
+     */
+    public String text() {
+        return view.toString();
+    }
+
+    private int slot(int index) {
+        return index < tokenGapStart ? index : index + tokenGapEnd - tokenGapStart;
+    }
+
+    private int position(int slot) {
+        return slot < tokenGapStart ? starts[slot] : starts[slot] + length();
+    }
+
+    /**
+     * Add token before the gap
+     */
+    private void insert(Token token) {
+
+        if (tokenGapStart == tokenGapEnd) {
+
+            int capacity = types.length * 2;
+            int tail = types.length - tokenGapEnd;
+
+            TokenType[] newTypes = new TokenType[capacity];
+            String[] newData = new String[capacity];
+            int[] newStarts = new int[capacity];
+
+            System.arraycopy(types, 0, newTypes, 0, tokenGapStart);
+            System.arraycopy(data, 0, newData, 0, tokenGapStart);
+            System.arraycopy(starts, 0, newStarts, 0, tokenGapStart);
+            System.arraycopy(types, tokenGapEnd, newTypes, capacity - tail, tail);
+            System.arraycopy(data, tokenGapEnd, newData, capacity - tail, tail);
+            System.arraycopy(starts, tokenGapEnd, newStarts, capacity - tail, tail);
+
+            types = newTypes;
+            data = newData;
+            starts = newStarts;
+            tokenGapEnd = capacity - tail;
+        }
+
+        types[tokenGapStart] = token.getType();
+        data[tokenGapStart] = token.getData();
+        starts[tokenGapStart] = token.getPosition();
+        tokenGapStart++;
+    }
+
+    /**
+     * Move the token gap before a token, converting positions of tokens that cross it
+     *
+     * @param index  token index
+     * @param length document length the relative positions refer to
+     */
+    private void moveTokenGap(int index, int length) {
+
+        while (tokenGapStart > index) {
+            tokenGapStart--;
+            tokenGapEnd--;
+            types[tokenGapEnd] = types[tokenGapStart];
+            data[tokenGapEnd] = data[tokenGapStart];
+            starts[tokenGapEnd] = starts[tokenGapStart] - length;
+            data[tokenGapStart] = null;
+        }
+
+        while (tokenGapStart < index) {
+            types[tokenGapStart] = types[tokenGapEnd];
+            data[tokenGapStart] = data[tokenGapEnd];
+            starts[tokenGapStart] = starts[tokenGapEnd] + length;
+            data[tokenGapEnd] = null;
+            tokenGapStart++;
+            tokenGapEnd++;
+        }
+    }
+
+    /**
+     * Replace characters, moving the text gap to the edit
+     */
+    private void replace(int offset, int removed, String inserted) {
+
+        if (offset < gapStart) {
+            int moved = gapStart - offset;
+            System.arraycopy(text, offset, text, gapEnd - moved, moved);
+            gapStart -= moved;
+            gapEnd -= moved;
+        } else if (offset > gapStart) {
+            int moved = offset - gapStart;
+            System.arraycopy(text, gapEnd, text, gapStart, moved);
+            gapStart += moved;
+            gapEnd += moved;
+        }
+
+        gapEnd += removed;
+
+        if (gapEnd - gapStart < inserted.length()) {
+
+            int tail = text.length - gapEnd;
+            char[] grown = new char[(gapStart + inserted.length() + tail) * 2 + 1024];
+
+            System.arraycopy(text, 0, grown, 0, gapStart);
+            System.arraycopy(text, gapEnd, grown, grown.length - tail, tail);
+
+            text = grown;
+            gapEnd = grown.length - tail;
+        }
+
+        inserted.getChars(0, inserted.length(), text, gapStart);
+        gapStart += inserted.length();
+    }
+
+    /**
+     * @param position document position
+     * @return start of the line containing position
+     */
+    private int lineStart(int position) {
+
+        for (int p = position - 1; p >= 0; p--) {
+            if (view.charAt(p) == '\n') {
+                return p + 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Document seen by the matcher
+     */
+    private final class Text implements CharSequence {
+
+        @Override
+        public int length() {
+            return IncrementalLexer.this.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return index < gapStart ? text[index] : text[index + gapEnd - gapStart];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+
+            char[] chars = new char[end - start];
+
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = charAt(start + i);
+            }
+
+            return new String(chars);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package com.csci.lexer;
 
 import java.util.LinkedList;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Lexer {
 
-    public LinkedList<Token> lex(String input) {
+    /**
+     * Alternation of all token patterns with one named group per token type
+     */
+    static final Pattern TOKEN_PATTERNS = compile();
 
-        // The tokens to return
-        LinkedList<Token> tokens = new LinkedList<>();
+    /**
+     * End of the pattern of a keyword that only matches a whole word, older keywords also match as a prefix
+     */
+    static final String WORD_END = "(?![A-Za-z0-9_])";
+
+    private static Pattern compile() {
 
-        // Lexer logic begins here
         StringBuilder tokenPatternsBuffer = new StringBuilder();
 
         // append formatted strings to buffer
@@ -19,265 +26,339 @@ public class Lexer {
             tokenPatternsBuffer.append(String.format("|(?<%s>%s)", tokenType.name(), tokenType.pattern));
 
         // compile token patterns
-        Pattern tokenPatterns = Pattern.compile(new String(tokenPatternsBuffer.substring(1)));
+        return Pattern.compile(new String(tokenPatternsBuffer.substring(1)));
+    }
+
+    public LinkedList<Token> lex(String input) {
+
+        // The tokens to return
+        LinkedList<Token> tokens = new LinkedList<>();
+
+        lex(input, tokens::add);
+
+        return tokens;
+    }
+
+    /**
+     * Lex input and pass tokens in order to a consumer, e.g. the queue of a parser running on another thread
+     *
+     * @param input  source
+     * @param tokens token consumer
+     */
+    public void lex(CharSequence input, Consumer<Token> tokens) {
 
         // Begin matching tokens
-        Matcher matcher = tokenPatterns.matcher(input);
+        Matcher matcher = TOKEN_PATTERNS.matcher(input);
 
         // match the patterns and add to list
         while (matcher.find()) {
+            emit(matcher, 0, tokens);
+        }
+    }
 
-            if (matcher.group(TokenType.FLOAT.name()) != null) {
+    /**
+     * Lex the part of input from a token start, tokens are those the whole input gives in that part
+     *
+     * @param input source
+     * @param from  position of a token of the whole input
+     * @param to    position tokens have to start before
+     * @return tokens with their positions in the whole input
+     */
+    public LinkedList<Token> lex(String input, int from, int to) {
 
-                tokens.add(new Token(TokenType.FLOAT, matcher.group(TokenType.FLOAT.name()), matcher.start()));
+        LinkedList<Token> tokens = new LinkedList<>();
 
-                continue;
+        Matcher matcher = TOKEN_PATTERNS.matcher(input);
+        matcher.region(from, input.length());
 
-            } else if (matcher.group(TokenType.INT.name()) != null) {
+        while (matcher.find() && matcher.start() < to) {
+            emit(matcher, 0, tokens::add);
+        }
 
-                tokens.add(new Token(TokenType.INT, matcher.group(TokenType.INT.name()), matcher.start()));
+        return tokens;
+    }
 
-                continue;
+    /**
+     * Pass the token of the current match to a consumer, whitespace and comments are dropped
+     *
+     * @param matcher matcher positioned on a match
+     * @param base    position of the matcher input in the source
+     * @param tokens  token consumer
+     */
+    static void emit(Matcher matcher, int base, Consumer<Token> tokens) {
 
-            } else if (matcher.group(TokenType.STRING.name()) != null) {
+        if (matcher.group(TokenType.FLOAT.name()) != null) {
 
-                tokens.add(new Token(TokenType.STRING, matcher.group(TokenType.STRING.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.FLOAT, matcher.group(TokenType.FLOAT.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.CHAR.name()) != null) {
+        } else if (matcher.group(TokenType.INT.name()) != null) {
 
-                tokens.add(new Token(TokenType.CHAR, matcher.group(TokenType.CHAR.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.INT, matcher.group(TokenType.INT.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.TRUE.name()) != null) {
+        } else if (matcher.group(TokenType.STRING.name()) != null) {
 
-                tokens.add(new Token(TokenType.TRUE, matcher.group(TokenType.TRUE.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.STRING, matcher.group(TokenType.STRING.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.FALSE.name()) != null) {
+        } else if (matcher.group(TokenType.CHAR.name()) != null) {
 
-                tokens.add(new Token(TokenType.FALSE, matcher.group(TokenType.FALSE.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.CHAR, matcher.group(TokenType.CHAR.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.TYPEINT.name()) != null) {
+        } else if (matcher.group(TokenType.TRUE.name()) != null) {
 
-                tokens.add(new Token(TokenType.TYPEINT, matcher.group(TokenType.TYPEINT.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.TRUE, matcher.group(TokenType.TRUE.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.TYPEFLOAT.name()) != null) {
+        } else if (matcher.group(TokenType.FALSE.name()) != null) {
 
-                tokens.add(new Token(TokenType.TYPEFLOAT, matcher.group(TokenType.TYPEFLOAT.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.FALSE, matcher.group(TokenType.FALSE.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.TYPESTRING.name()) != null) {
+        } else if (matcher.group(TokenType.TYPEINT.name()) != null) {
 
-                tokens.add(new Token(TokenType.TYPESTRING, matcher.group(TokenType.TYPESTRING.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.TYPEINT, matcher.group(TokenType.TYPEINT.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.TYPECHAR.name()) != null) {
+        } else if (matcher.group(TokenType.TYPEFLOAT.name()) != null) {
 
-                tokens.add(new Token(TokenType.TYPECHAR, matcher.group(TokenType.TYPECHAR.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.TYPEFLOAT, matcher.group(TokenType.TYPEFLOAT.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.TYPEBOOL.name()) != null) {
+        } else if (matcher.group(TokenType.TYPESTRING.name()) != null) {
 
-                tokens.add(new Token(TokenType.TYPEBOOL, matcher.group(TokenType.TYPEBOOL.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.TYPESTRING, matcher.group(TokenType.TYPESTRING.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.TYPEVOID.name()) != null) {
+        } else if (matcher.group(TokenType.TYPECHAR.name()) != null) {
 
-                tokens.add(new Token(TokenType.TYPEVOID, matcher.group(TokenType.TYPEVOID.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.TYPECHAR, matcher.group(TokenType.TYPECHAR.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.FOR.name()) != null) {
+        } else if (matcher.group(TokenType.TYPEBOOL.name()) != null) {
 
-                tokens.add(new Token(TokenType.FOR, matcher.group(TokenType.FOR.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.TYPEBOOL, matcher.group(TokenType.TYPEBOOL.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.WHILE.name()) != null) {
+        } else if (matcher.group(TokenType.TYPEVOID.name()) != null) {
 
-                tokens.add(new Token(TokenType.WHILE, matcher.group(TokenType.WHILE.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.TYPEVOID, matcher.group(TokenType.TYPEVOID.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.IF.name()) != null) {
+        } else if (matcher.group(TokenType.TYPEMAP.name()) != null) {
 
-                tokens.add(new Token(TokenType.IF, matcher.group(TokenType.IF.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.TYPEMAP, matcher.group(TokenType.TYPEMAP.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.ELSE.name()) != null) {
+        } else if (matcher.group(TokenType.FOR.name()) != null) {
 
-                tokens.add(new Token(TokenType.ELSE, matcher.group(TokenType.ELSE.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.FOR, matcher.group(TokenType.FOR.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.RETURN.name()) != null) {
+        } else if (matcher.group(TokenType.WHILE.name()) != null) {
 
-                tokens.add(new Token(TokenType.RETURN, matcher.group(TokenType.RETURN.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.WHILE, matcher.group(TokenType.WHILE.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.BREAK.name()) != null) {
+        } else if (matcher.group(TokenType.IF.name()) != null) {
 
-                tokens.add(new Token(TokenType.BREAK, matcher.group(TokenType.BREAK.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.IF, matcher.group(TokenType.IF.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.CONTINUE.name()) != null) {
+        } else if (matcher.group(TokenType.ELSE.name()) != null) {
 
-                tokens.add(new Token(TokenType.CONTINUE, matcher.group(TokenType.CONTINUE.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.ELSE, matcher.group(TokenType.ELSE.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.IDENT.name()) != null) {
+        } else if (matcher.group(TokenType.RETURN.name()) != null) {
 
-                tokens.add(new Token(TokenType.IDENT, matcher.group(TokenType.IDENT.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.RETURN, matcher.group(TokenType.RETURN.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.INCREMENT.name()) != null) {
+        } else if (matcher.group(TokenType.BREAK.name()) != null) {
 
-                tokens.add(new Token(TokenType.INCREMENT, matcher.group(TokenType.INCREMENT.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.BREAK, matcher.group(TokenType.BREAK.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.DECREMENT.name()) != null) {
+        } else if (matcher.group(TokenType.CONTINUE.name()) != null) {
 
-                tokens.add(new Token(TokenType.DECREMENT, matcher.group(TokenType.DECREMENT.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.CONTINUE, matcher.group(TokenType.CONTINUE.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.PLUS.name()) != null) {
+        } else if (matcher.group(TokenType.OFFHEAP.name()) != null) {
 
-                tokens.add(new Token(TokenType.PLUS, matcher.group(TokenType.PLUS.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.OFFHEAP, matcher.group(TokenType.OFFHEAP.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.MINUS.name()) != null) {
+        } else if (matcher.group(TokenType.IDENT.name()) != null) {
 
-                tokens.add(new Token(TokenType.MINUS, matcher.group(TokenType.MINUS.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.IDENT, matcher.group(TokenType.IDENT.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.PROD.name()) != null) {
+        } else if (matcher.group(TokenType.INCREMENT.name()) != null) {
 
-                tokens.add(new Token(TokenType.PROD, matcher.group(TokenType.PROD.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.INCREMENT, matcher.group(TokenType.INCREMENT.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.DIV.name()) != null) {
+        } else if (matcher.group(TokenType.DECREMENT.name()) != null) {
 
-                tokens.add(new Token(TokenType.DIV, matcher.group(TokenType.DIV.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.DECREMENT, matcher.group(TokenType.DECREMENT.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.AND.name()) != null) {
+        } else if (matcher.group(TokenType.PLUS.name()) != null) {
 
-                tokens.add(new Token(TokenType.AND, matcher.group(TokenType.AND.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.PLUS, matcher.group(TokenType.PLUS.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.OR.name()) != null) {
+        } else if (matcher.group(TokenType.MINUS.name()) != null) {
 
-                tokens.add(new Token(TokenType.OR, matcher.group(TokenType.OR.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.MINUS, matcher.group(TokenType.MINUS.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.EQUALS.name()) != null) {
+        } else if (matcher.group(TokenType.PROD.name()) != null) {
 
-                tokens.add(new Token(TokenType.EQUALS, matcher.group(TokenType.EQUALS.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.PROD, matcher.group(TokenType.PROD.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.ASSIGNMENT.name()) != null) {
+        } else if (matcher.group(TokenType.DIV.name()) != null) {
 
-                tokens.add(new Token(TokenType.ASSIGNMENT, matcher.group(TokenType.ASSIGNMENT.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.DIV, matcher.group(TokenType.DIV.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.GREATEROREQUALS.name()) != null) {
+        } else if (matcher.group(TokenType.AND.name()) != null) {
 
-                tokens.add(new Token(TokenType.GREATEROREQUALS, matcher.group(TokenType.GREATEROREQUALS.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.AND, matcher.group(TokenType.AND.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.LESSOREQUALS.name()) != null) {
+        } else if (matcher.group(TokenType.OR.name()) != null) {
 
-                tokens.add(new Token(TokenType.LESSOREQUALS, matcher.group(TokenType.LESSOREQUALS.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.OR, matcher.group(TokenType.OR.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.GREATER.name()) != null) {
+        } else if (matcher.group(TokenType.EQUALS.name()) != null) {
 
-                tokens.add(new Token(TokenType.GREATER, matcher.group(TokenType.GREATER.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.EQUALS, matcher.group(TokenType.EQUALS.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.LESS.name()) != null) {
+        } else if (matcher.group(TokenType.ASSIGNMENT.name()) != null) {
 
-                tokens.add(new Token(TokenType.LESS, matcher.group(TokenType.LESS.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.ASSIGNMENT, matcher.group(TokenType.ASSIGNMENT.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.SEMICOLON.name()) != null) {
+        } else if (matcher.group(TokenType.GREATEROREQUALS.name()) != null) {
 
-                tokens.add(new Token(TokenType.SEMICOLON, matcher.group(TokenType.SEMICOLON.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.GREATEROREQUALS, matcher.group(TokenType.GREATEROREQUALS.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.SCOPESTART.name()) != null) {
+        } else if (matcher.group(TokenType.LESSOREQUALS.name()) != null) {
 
-                tokens.add(new Token(TokenType.SCOPESTART, matcher.group(TokenType.SCOPESTART.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.LESSOREQUALS, matcher.group(TokenType.LESSOREQUALS.name()), base + matcher.start()));
 
-                continue;
+            return;
 
-            } else if (matcher.group(TokenType.SCOPEEND.name()) != null) {
+        } else if (matcher.group(TokenType.GREATER.name()) != null) {
 
-                tokens.add(new Token(TokenType.SCOPEEND, matcher.group(TokenType.SCOPEEND.name()), matcher.start()));
+            tokens.accept(new Token(TokenType.GREATER, matcher.group(TokenType.GREATER.name()), base + matcher.start()));
 
-                continue;
+            return;
 
+        } else if (matcher.group(TokenType.LESS.name()) != null) {
 
-            } else if (matcher.group(TokenType.BRASTART.name()) != null) {
+            tokens.accept(new Token(TokenType.LESS, matcher.group(TokenType.LESS.name()), base + matcher.start()));
 
-                tokens.add(new Token(TokenType.BRASTART, matcher.group(TokenType.BRASTART.name()), matcher.start()));
+            return;
 
-                continue;
+        } else if (matcher.group(TokenType.SEMICOLON.name()) != null) {
 
-            } else if (matcher.group(TokenType.BRAEND.name()) != null) {
+            tokens.accept(new Token(TokenType.SEMICOLON, matcher.group(TokenType.SEMICOLON.name()), base + matcher.start()));
 
-                tokens.add(new Token(TokenType.BRAEND, matcher.group(TokenType.BRAEND.name()), matcher.start()));
+            return;
 
-                continue;
+        } else if (matcher.group(TokenType.COMMA.name()) != null) {
 
-            } else if (matcher.group(TokenType.ARRSTART.name()) != null) {
+            tokens.accept(new Token(TokenType.COMMA, matcher.group(TokenType.COMMA.name()), base + matcher.start()));
 
-                tokens.add(new Token(TokenType.ARRSTART, matcher.group(TokenType.ARRSTART.name()), matcher.start()));
+            return;
 
-                continue;
+        } else if (matcher.group(TokenType.SCOPESTART.name()) != null) {
 
-            } else if (matcher.group(TokenType.ARREND.name()) != null) {
+            tokens.accept(new Token(TokenType.SCOPESTART, matcher.group(TokenType.SCOPESTART.name()), base + matcher.start()));
 
-                tokens.add(new Token(TokenType.ARREND, matcher.group(TokenType.ARREND.name()), matcher.start()));
+            return;
 
-                continue;
+        } else if (matcher.group(TokenType.SCOPEEND.name()) != null) {
 
-            }
-        }
+            tokens.accept(new Token(TokenType.SCOPEEND, matcher.group(TokenType.SCOPEEND.name()), base + matcher.start()));
 
-        return tokens;
+            return;
+
+
+        } else if (matcher.group(TokenType.BRASTART.name()) != null) {
+
+            tokens.accept(new Token(TokenType.BRASTART, matcher.group(TokenType.BRASTART.name()), base + matcher.start()));
+
+            return;
+
+        } else if (matcher.group(TokenType.BRAEND.name()) != null) {
+
+            tokens.accept(new Token(TokenType.BRAEND, matcher.group(TokenType.BRAEND.name()), base + matcher.start()));
+
+            return;
+
+        } else if (matcher.group(TokenType.ARRSTART.name()) != null) {
+
+            tokens.accept(new Token(TokenType.ARRSTART, matcher.group(TokenType.ARRSTART.name()), base + matcher.start()));
+
+            return;
+
+        } else if (matcher.group(TokenType.ARREND.name()) != null) {
+
+            tokens.accept(new Token(TokenType.ARREND, matcher.group(TokenType.ARREND.name()), base + matcher.start()));
+
+            return;
+
+        } else if (matcher.group(TokenType.DOT.name()) != null) {
+
+            tokens.accept(new Token(TokenType.DOT, matcher.group(TokenType.DOT.name()), base + matcher.start()));
+
+            return;
+
+        }
     }
 
 }
@@ -0,0 +1,25 @@
+package com.csci.lexer;
+
+import java.util.LinkedList;
+
+/**
+ * Token source over a fully lexed token list, consumed tokens are removed from the list
+ */
+public class ListTokenSource implements TokenSource {
+
+    private final LinkedList<Token> tokens;
+
+    public ListTokenSource(LinkedList<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public Token peek(int offset) {
+        return tokens.size() > offset ? tokens.get(offset) : null;
+    }
+
+    @Override
+    public void pop() {
+        tokens.pop();
+    }
+}
@@ -0,0 +1,225 @@
+package com.csci.lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Matcher;
+
+/**
+ * Lexer splitting large sources into chunks lexed in parallel on the common fork/join pool. Produces
+ * exactly the tokens of {@link Lexer#lex(String)}.
+ * <p>
+ * Chunks start after a line break, so only a token crossing a line break, i.e. a block comment, can cross
+ * a chunk boundary. Every chunk is lexed speculatively from its start. A chunk whose predecessor's last match
+ * ends past that start, e.g. inside a comment or a string, is lexed again from where the match ends.
+ */
+public class ParallelLexer {
+
+    /**
+     * Default chunk length in characters
+     */
+    public static final int DEFAULT_CHUNK = 1 << 20;
+
+    private final int chunk;
+
+    public ParallelLexer() {
+        this(DEFAULT_CHUNK);
+    }
+
+    /**
+     * @param chunk approximate chunk length in characters
+     */
+    public ParallelLexer(int chunk) {
+        this.chunk = Math.max(chunk, 1);
+    }
+
+    /**
+     * @param input source
+     * @return tokens, identical to those of the sequential lexer
+     */
+    public LinkedList<Token> lex(String input) {
+
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+
+        for (int target = chunk; target < input.length(); ) {
+
+            int lineBreak = input.indexOf('\n', target);
+
+            if (lineBreak < 0 || lineBreak + 1 >= input.length()) {
+                break;
+            }
+
+            bounds.add(lineBreak + 1);
+            target = lineBreak + 1 + chunk;
+        }
+
+        bounds.add(input.length());
+
+        int count = bounds.size() - 1;
+        Chunk[] chunks = new Chunk[count];
+
+        if (count == 1) {
+            chunks[0] = lexChunk(input, 0, input.length());
+        } else {
+            ForkJoinPool.commonPool().invoke(new ChunkTask(input, bounds, chunks, 0, count));
+        }
+
+        // fix up chunks whose speculative start was inside a match of the previous chunk
+        for (int i = 1; i < count; i++) {
+            if (chunks[i - 1].exit > bounds.get(i)) {
+                chunks[i] = relex(input, chunks[i], chunks[i - 1].exit, bounds.get(i + 1));
+            }
+        }
+
+        LinkedList<Token> tokens = new LinkedList<>();
+
+        for (Chunk lexed : chunks) {
+            for (int i = 0; i < lexed.size; i++) {
+                tokens.add(lexed.tokens[i]);
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Lex matches starting in {@code [from, end)}, the last one may extend past {@code end}
+     *
+     * @param input source
+     * @param from  position to start matching at
+     * @param end   end of the chunk
+     * @return tokens of the chunk and the position the next chunk has to start at
+     */
+    private static Chunk lexChunk(String input, int from, int end) {
+
+        Chunk lexed = new Chunk(Math.max(from, end));
+
+        if (from >= end) {
+            return lexed;
+        }
+
+        Matcher matcher = Lexer.TOKEN_PATTERNS.matcher(input);
+        matcher.region(from, input.length());
+
+        while (matcher.find() && matcher.start() < end) {
+            Lexer.emit(matcher, 0, lexed::add);
+            lexed.exit = Math.max(end, matcher.end());
+        }
+
+        return lexed;
+    }
+
+    /**
+     * Lex a chunk again from the correct start until a token starts where a speculative token starts. From
+     * there on both agree, as matching at a position does not depend on where the search started.
+     *
+     * @param input       source
+     * @param speculative tokens lexed from the chunk start
+     * @param from        position to start matching at
+     * @param end         end of the chunk
+     * @return tokens of the chunk
+     */
+    private static Chunk relex(String input, Chunk speculative, int from, int end) {
+
+        Chunk lexed = new Chunk(Math.max(from, end));
+
+        if (from >= end) {
+            return lexed;
+        }
+
+        Matcher matcher = Lexer.TOKEN_PATTERNS.matcher(input);
+        matcher.region(from, input.length());
+
+        int next = 0;
+
+        while (matcher.find() && matcher.start() < end) {
+
+            while (next < speculative.size && speculative.tokens[next].getPosition() < matcher.start()) {
+                next++;
+            }
+
+            if (next < speculative.size && speculative.tokens[next].getPosition() == matcher.start()) {
+
+                for (int i = next; i < speculative.size; i++) {
+                    lexed.add(speculative.tokens[i]);
+                }
+
+                lexed.exit = speculative.exit;
+                return lexed;
+            }
+
+            Lexer.emit(matcher, 0, lexed::add);
+            lexed.exit = Math.max(end, matcher.end());
+        }
+
+        return lexed;
+    }
+
+    /**
+     * Tokens of one chunk in a compact array
+     */
+    private static final class Chunk {
+
+        Token[] tokens = new Token[256];
+        int size;
+
+        /**
+         * End of the last match or of the chunk, whichever is later
+         */
+        int exit;
+
+        Chunk(int exit) {
+            this.exit = exit;
+        }
+
+        void add(Token token) {
+            if (size == tokens.length) {
+                tokens = Arrays.copyOf(tokens, size * 2);
+            }
+            tokens[size++] = token;
+        }
+    }
+
+    /**
+     * Lexes a range of chunks, split in halves down to single chunks
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // tasks only live within one lex call and are never serialized
+        private final String input;
+        private final transient List<Integer> bounds;
+        private final transient Chunk[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(String input, List<Integer> bounds, Chunk[] chunks, int from, int to) {
+            this.input = input;
+            this.bounds = bounds;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from == 1) {
+                chunks[from] = lexChunk(input, bounds.get(from), bounds.get(from + 1));
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+
+            invokeAll(
+                    new ChunkTask(input, bounds, chunks, from, middle),
+                    new ChunkTask(input, bounds, chunks, middle, to)
+            );
+        }
+    }
+}
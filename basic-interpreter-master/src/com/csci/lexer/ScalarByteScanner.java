@@ -0,0 +1,77 @@
+package com.csci.lexer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Byte scanner looking at one byte at a time, used when the vector API is not available and for the tail
+ * of a vector scan
+ */
+class ScalarByteScanner implements ByteScanner {
+
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    @Override
+    public int skipWhitespace(MemorySegment source, int p, int length) {
+
+        int q = p;
+
+        while (q < length) {
+            byte b = source.get(BYTE, q);
+            if (b != '\t' && b != '\f' && b != '\n' && b != '\r') {
+                break;
+            }
+            q++;
+        }
+
+        return q;
+    }
+
+    @Override
+    public int skipWord(MemorySegment source, int p, int length) {
+
+        int q = p;
+
+        while (q < length) {
+            byte b = source.get(BYTE, q);
+            if (!((b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_')) {
+                break;
+            }
+            q++;
+        }
+
+        return q;
+    }
+
+    @Override
+    public int skipDigits(MemorySegment source, int p, int length) {
+
+        int q = p;
+
+        while (q < length) {
+            byte b = source.get(BYTE, q);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            q++;
+        }
+
+        return q;
+    }
+
+    @Override
+    public int findStop(MemorySegment source, int p, int length, byte stop) {
+
+        int q = p;
+
+        while (q < length) {
+            byte b = source.get(BYTE, q);
+            if (b == stop || b == '\n' || b == '\r' || b < 0) {
+                break;
+            }
+            q++;
+        }
+
+        return q;
+    }
+}
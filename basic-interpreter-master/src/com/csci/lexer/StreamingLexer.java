@@ -0,0 +1,275 @@
+package com.csci.lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.regex.Matcher;
+
+/**
+ * Pull lexer reading its source through a fixed size ring buffer, so memory does not grow with the input.
+ * Produces the same tokens as {@link Lexer#lex(String)}. A match reaching the end of the buffered input is
+ * retried with more input, so tokens spanning a buffer boundary are never split. A single token or comment
+ * longer than the buffer is rejected. A block comment ends at the last {@code *}{@code /} of its second line
+ * within the buffer, the lexer of the whole input would take a later one on the same line.
+ */
+public class StreamingLexer implements TokenSource {
+
+    /**
+     * Default buffer capacity in characters
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * ASCII characters a token may start with, no token starts with any other character
+     */
+    private static final boolean[] STARTS_TOKEN = new boolean[128];
+
+    static {
+        Matcher single = Lexer.TOKEN_PATTERNS.matcher("");
+        for (char c = 0; c < STARTS_TOKEN.length; c++) {
+            single.reset(String.valueOf(c));
+            STARTS_TOKEN[c] = single.lookingAt() || single.hitEnd();
+        }
+    }
+
+    private final Reader reader;
+
+    private final char[] ring;
+    private final int mask;
+
+    /**
+     * Source positions of the first unconsumed and of the first unread character
+     */
+    private int head;
+    private int tail;
+
+    private boolean eof;
+
+    private final Window window = new Window();
+    private final Matcher matcher = Lexer.TOKEN_PATTERNS.matcher("");
+
+    /**
+     * Lexed tokens not consumed yet
+     */
+    private final ArrayDeque<Token> lookahead = new ArrayDeque<>();
+
+    public StreamingLexer(Reader reader) {
+        this(reader, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param channel UTF-8 encoded source
+     */
+    public StreamingLexer(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.UTF_8), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param reader   source
+     * @param capacity buffer capacity in characters, rounded up to a power of two
+     */
+    public StreamingLexer(Reader reader, int capacity) {
+        this.reader = reader;
+        this.ring = new char[Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1];
+        this.mask = ring.length - 1;
+    }
+
+    /**
+     * Consume next token
+     *
+     * @return next token or null at end of input
+     */
+    public Token nextToken() {
+
+        Token token = peek(0);
+
+        if (token != null) {
+            lookahead.pollFirst();
+        }
+
+        return token;
+    }
+
+    /**
+     * @param offset number of tokens to look past the next one
+     * @return token at offset or null past the end of input
+     */
+    @Override
+    public Token peek(int offset) {
+
+        while (lookahead.size() <= offset) {
+            if (!lexNext()) {
+                return null;
+            }
+        }
+
+        if (offset == 0) {
+            return lookahead.peekFirst();
+        }
+
+        int i = 0;
+
+        for (Token token : lookahead) {
+            if (i++ == offset) {
+                return token;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void pop() {
+        nextToken();
+    }
+
+    /**
+     * Match next token, whitespace and comments are consumed without producing a token
+     *
+     * @return false at end of input
+     */
+    private boolean lexNext() {
+
+        while (true) {
+
+            matcher.reset(window);
+
+            boolean found = matcher.find();
+
+            if (!eof && (matcher.hitEnd() || !found)) {
+
+                if (tail - head < ring.length) {
+                    fill();
+                    continue;
+                }
+
+                if (!complete(found)) {
+
+                    if (!skip(found)) {
+                        throw new IllegalStateException("Lex error: token at position " + head
+                                + " is longer than the buffer of " + ring.length + " characters");
+                    }
+
+                    continue;
+                }
+            }
+
+            if (!found) {
+                head = tail;
+                return false;
+            }
+
+            int before = lookahead.size();
+
+            Lexer.emit(matcher, head, lookahead::addLast);
+
+            head += matcher.end();
+
+            if (lookahead.size() > before) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Decide if a match in a full buffer is the token the whole input gives, although the matcher looked ahead to
+     * the end of the buffer. A match at its start ending before its end is, unless it is a division sign, which
+     * starts a comment there.
+     *
+     * @param found true if the matcher found a match in the buffer
+     * @return true if the match can be emitted
+     */
+    private boolean complete(boolean found) {
+        return found && matcher.start() == 0 && matcher.end() < tail - head
+                && matcher.group(TokenType.DIV.name()) == null;
+    }
+
+    /**
+     * Make room in a full buffer without changing the tokens produced. Characters no token starts with
+     * are dropped, as is whitespace matched at the start of the buffer.
+     *
+     * @param found true if the matcher found a match in the buffer
+     * @return false if nothing could be dropped
+     */
+    private boolean skip(boolean found) {
+
+        if (found && matcher.start() == 0 && matcher.group(TokenType.WHITESPACE.name()) != null) {
+            head += matcher.end();
+            return true;
+        }
+
+        int start = head;
+
+        while (head < tail) {
+            char c = ring[head & mask];
+            if (c < STARTS_TOKEN.length && STARTS_TOKEN[c]) {
+                break;
+            }
+            head++;
+        }
+
+        return head > start;
+    }
+
+    /**
+     * Read as much input as fits into the free part of the buffer
+     */
+    private void fill() {
+
+        int free = ring.length - (tail - head);
+        int offset = tail & mask;
+        int length = Math.min(free, ring.length - offset);
+
+        try {
+
+            int read = reader.read(ring, offset, length);
+
+            if (read < 0) {
+                eof = true;
+                reader.close();
+            } else {
+                tail += read;
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Buffered unconsumed input seen by the matcher
+     */
+    private final class Window implements CharSequence {
+
+        @Override
+        public int length() {
+            return tail - head;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return ring[(head + index) & mask];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+
+            char[] chars = new char[end - start];
+
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = ring[(head + start + i) & mask];
+            }
+
+            return new String(chars);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.csci.lexer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * Compact tokens of a UTF-8 source, kept as byte ranges of the source. Token text is only decoded when it is
+ * asked for. Positions are byte offsets into the source.
+ */
+public class TokenArray {
+
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final MemorySegment source;
+
+    private byte[] types = new byte[1024];
+    private int[] starts = new int[1024];
+    private int[] lengths = new int[1024];
+    private int size;
+
+    /**
+     * @param source UTF-8 source the tokens point into, has to stay alive while tokens are read
+     */
+    public TokenArray(MemorySegment source) {
+        this.source = source;
+    }
+
+    void add(TokenType type, int start, int length) {
+
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        size++;
+    }
+
+    /**
+     * @return number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    /**
+     * @param index token index
+     * @return byte offset of the token in the source
+     */
+    public int start(int index) {
+        return starts[index];
+    }
+
+    /**
+     * @param index token index
+     * @return length of the token in bytes
+     */
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * Decode token text
+     *
+     * @param index token index
+     * @return token text
+     */
+    public String text(int index) {
+        byte[] bytes = source.asSlice(starts[index], lengths[index]).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index token index
+     * @return token whose text is decoded on first use
+     */
+    public Token token(int index) {
+        return new LazyToken(index);
+    }
+
+    /**
+     * @return all tokens as a list accepted by {@link com.csci.parser.Parser#Parser(LinkedList)}
+     */
+    public LinkedList<Token> toList() {
+
+        LinkedList<Token> tokens = new LinkedList<>();
+
+        for (int i = 0; i < size; i++) {
+            tokens.add(token(i));
+        }
+
+        return tokens;
+    }
+
+    /**
+     * @return token source over this array, tokens are created as the parser reaches them
+     */
+    public TokenSource source() {
+
+        return new TokenSource() {
+
+            private int next;
+
+            @Override
+            public Token peek(int offset) {
+                return next + offset < size ? token(next + offset) : null;
+            }
+
+            @Override
+            public void pop() {
+                next++;
+            }
+        };
+    }
+
+    /**
+     * Token decoding its text from the source on first use
+     */
+    private final class LazyToken extends Token {
+
+        private final int index;
+        private String data;
+
+        LazyToken(int index) {
+            super(type(index), null, starts[index]);
+            this.index = index;
+        }
+
+        @Override
+        public String getData() {
+            if (data == null) {
+                data = text(index);
+            }
+            return data;
+        }
+    }
+}
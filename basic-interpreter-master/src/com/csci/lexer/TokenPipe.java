@@ -0,0 +1,169 @@
+package com.csci.lexer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Bounded hand-off of tokens from a lexer thread to a parser thread. Tokens travel in chunks so the
+ * threads synchronize once per chunk instead of once per token. The lexer blocks while the queue is
+ * full, so at most {@code capacity * CHUNK} tokens are in flight.
+ */
+public class TokenPipe implements Consumer<Token>, TokenSource {
+
+    /**
+     * Tokens per chunk
+     */
+    public static final int CHUNK = 512;
+
+    /**
+     * Empty chunk marking the end of the tokens
+     */
+    private static final Token[] END = new Token[0];
+
+    private final BlockingQueue<Token[]> queue;
+
+    /**
+     * Chunk being filled by the lexer
+     */
+    private Token[] chunk = new Token[CHUNK];
+    private int filled;
+
+    private long count;
+
+    /**
+     * Tokens taken by the parser but not popped yet
+     */
+    private final ArrayDeque<Token> buffer = new ArrayDeque<>();
+    private boolean ended;
+
+    /**
+     * Failure of the lexer, published to the parser by the end chunk
+     */
+    private Throwable failure;
+
+    /**
+     * @param capacity number of chunks the queue holds
+     */
+    public TokenPipe(int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Add token, called by the lexer thread
+     *
+     * @param token next token
+     */
+    @Override
+    public void accept(Token token) {
+
+        chunk[filled++] = token;
+        count++;
+
+        if (filled == CHUNK) {
+            send(chunk);
+            chunk = new Token[CHUNK];
+            filled = 0;
+        }
+    }
+
+    /**
+     * Flush the last chunk and mark the end of the tokens, called by the lexer thread
+     */
+    public void close() {
+
+        if (filled > 0) {
+            Token[] last = new Token[filled];
+            System.arraycopy(chunk, 0, last, 0, filled);
+            send(last);
+            filled = 0;
+        }
+
+        send(END);
+    }
+
+    /**
+     * Mark the end of the tokens after the lexer failed, the parser fails once it reaches the end
+     *
+     * @param failure lexer failure
+     */
+    public void fail(Throwable failure) {
+        this.failure = failure;
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of tokens added so far, read by the lexer thread or after {@link #close()}
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public Token peek(int offset) {
+
+        while (buffer.size() <= offset && !ended) {
+
+            Token[] next = take();
+
+            if (next == END) {
+                ended = true;
+                if (failure != null) {
+                    throw new IllegalStateException("Lexer failed: " + failure, failure);
+                }
+            }
+
+            for (Token token : next) {
+                buffer.addLast(token);
+            }
+        }
+
+        if (buffer.size() <= offset) {
+            return null;
+        }
+
+        if (offset == 0) {
+            return buffer.peekFirst();
+        }
+
+        int i = 0;
+
+        for (Token token : buffer) {
+            if (i++ == offset) {
+                return token;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void pop() {
+        if (peek(0) != null) {
+            buffer.pollFirst();
+        }
+    }
+
+    private void send(Token[] tokens) {
+        try {
+            queue.put(tokens);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while passing tokens", e);
+        }
+    }
+
+    private Token[] take() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tokens", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.csci.lexer;
+
+/**
+ * Tokens consumed by the parser front to back, the current token is at offset 0
+ */
+public interface TokenSource {
+
+    /**
+     * @param offset distance from the current token
+     * @return token at offset or null past the last token
+     */
+    Token peek(int offset);
+
+    /**
+     * Drop the current token
+     */
+    void pop();
+}
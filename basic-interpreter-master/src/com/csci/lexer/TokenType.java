@@ -11,6 +11,7 @@ public enum TokenType {
     BRAEND("\\)"),
     ARRSTART("\\["),
     ARREND("\\]"),
+    DOT("\\."),
     // type patterns
     FLOAT("-?[0-9]+\\.[0-9]+"),
     INT("-?[0-9]+"),
@@ -33,6 +34,7 @@ public enum TokenType {
     OR("\\|\\|"),
     ASSIGNMENT("="),
     SEMICOLON(";"),
+    COMMA(","),
     WHITESPACE("[\t\f\n\r]+"),
     // type name patterns
     TYPEINT("int"),
@@ -41,6 +43,7 @@ public enum TokenType {
     TYPECHAR("char"),
     TYPEBOOL("bool"),
     TYPEVOID("void"),
+    TYPEMAP("map(?![A-Za-z0-9_])"),
     TRUE("true"),
     FALSE("false"),
     // keywords
@@ -51,6 +54,8 @@ public enum TokenType {
     RETURN("return"),
     BREAK("break"),
     CONTINUE("continue"),
+    // newer keywords only match whole words, see Lexer.WORD_END
+    OFFHEAP("offheap(?![A-Za-z0-9_])"),
     // ident (varable or function name)
     IDENT("[a-zA-Z0-9_]+"),
     EOF("EOF");
@@ -0,0 +1,112 @@
+package com.csci.lexer;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Byte scanner classifying a whole vector of bytes per step with the incubating vector API. The bytes
+ * after the last full vector are left to the scalar scanner.
+ */
+class VectorByteScanner implements ByteScanner {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    private final ScalarByteScanner tail = new ScalarByteScanner();
+
+    @Override
+    public int skipWhitespace(MemorySegment source, int p, int length) {
+
+        int q = p;
+
+        for (; q + SPECIES.length() <= length; q += SPECIES.length()) {
+
+            ByteVector v = ByteVector.fromMemorySegment(SPECIES, source, q, ORDER);
+
+            VectorMask<Byte> other = v.compare(VectorOperators.NE, '\t')
+                    .and(v.compare(VectorOperators.NE, '\f'))
+                    .and(v.compare(VectorOperators.NE, '\n'))
+                    .and(v.compare(VectorOperators.NE, '\r'));
+
+            if (other.anyTrue()) {
+                return q + other.firstTrue();
+            }
+        }
+
+        return tail.skipWhitespace(source, q, length);
+    }
+
+    @Override
+    public int skipWord(MemorySegment source, int p, int length) {
+
+        int q = p;
+
+        for (; q + SPECIES.length() <= length; q += SPECIES.length()) {
+
+            ByteVector v = ByteVector.fromMemorySegment(SPECIES, source, q, ORDER);
+
+            // setting bit 5 folds upper case letters onto lower case ones
+            ByteVector lower = v.or((byte) 0x20);
+
+            VectorMask<Byte> word = lower.compare(VectorOperators.GE, 'a').and(lower.compare(VectorOperators.LE, 'z'))
+                    .or(v.compare(VectorOperators.GE, '0').and(v.compare(VectorOperators.LE, '9')))
+                    .or(v.compare(VectorOperators.EQ, '_'));
+
+            VectorMask<Byte> other = word.not();
+
+            if (other.anyTrue()) {
+                return q + other.firstTrue();
+            }
+        }
+
+        return tail.skipWord(source, q, length);
+    }
+
+    @Override
+    public int skipDigits(MemorySegment source, int p, int length) {
+
+        int q = p;
+
+        for (; q + SPECIES.length() <= length; q += SPECIES.length()) {
+
+            ByteVector v = ByteVector.fromMemorySegment(SPECIES, source, q, ORDER);
+
+            VectorMask<Byte> other = v.compare(VectorOperators.LT, '0').or(v.compare(VectorOperators.GT, '9'));
+
+            if (other.anyTrue()) {
+                return q + other.firstTrue();
+            }
+        }
+
+        return tail.skipDigits(source, q, length);
+    }
+
+    @Override
+    public int findStop(MemorySegment source, int p, int length, byte stop) {
+
+        int q = p;
+
+        for (; q + SPECIES.length() <= length; q += SPECIES.length()) {
+
+            ByteVector v = ByteVector.fromMemorySegment(SPECIES, source, q, ORDER);
+
+            // non-ASCII bytes are negative
+            VectorMask<Byte> found = v.compare(VectorOperators.EQ, stop)
+                    .or(v.compare(VectorOperators.EQ, '\n'))
+                    .or(v.compare(VectorOperators.EQ, '\r'))
+                    .or(v.compare(VectorOperators.LT, 0));
+
+            if (found.anyTrue()) {
+                return q + found.firstTrue();
+            }
+        }
+
+        return tail.findStop(source, q, length, stop);
+    }
+}
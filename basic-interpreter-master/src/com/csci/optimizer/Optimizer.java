@@ -0,0 +1,800 @@
+package com.csci.optimizer;
+
+import com.csci.grammar.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Optimizer {
+
+    /**
+     * Estimated printed length of an integer operand
+     */
+    private static final int INT_WIDTH = 11;
+
+    /**
+     * Estimated printed length of a boolean operand
+     */
+    private static final int BOOL_WIDTH = 5;
+
+    /**
+     * Estimated length of a string variable operand
+     */
+    private static final int STRING_WIDTH = 16;
+
+    /**
+     * Declared variable types, the evaluator keeps every variable in one flat scope
+     */
+    private Map<String, Type> declared;
+
+    /**
+     * Declarations so far in order with their type names, equal states give equal rewrites of a definition
+     */
+    private List<Map.Entry<String, String>> state;
+
+    /**
+     * Declarations made by the definition being optimized, collected for {@link #skip(List)}
+     */
+    private List<Map.Entry<String, Type>> declarations;
+
+    /**
+     * Induction variables of enclosing specialized for loops mapped to their slot
+     */
+    private Map<String, Integer> loopVars;
+
+    /**
+     * Nesting depth of specialized for loops
+     */
+    private int loopDepth;
+
+    /**
+     * Arrays whose length bounds an enclosing counted loop, mapped to the slot of the loop variable
+     */
+    private Map<String, Integer> inRange;
+
+    public Optimizer() {
+        reset();
+    }
+
+    /**
+     * Optimize program, the parsed tree is left untouched and a rewritten copy is returned
+     *
+     * @param program parsed program
+     * @return optimized program
+     */
+    public Program optimize(Program program) {
+
+        reset();
+
+        ListDef listDef = new ListDef();
+
+        for (Def def : ((PDefs) program).listdef_) {
+            listDef.add(optimize(def));
+        }
+
+        return new PDefs(listDef, ((PDefs) program).symbols_);
+    }
+
+    /**
+     * Forget variables declared by previously optimized definitions
+     */
+    private void reset() {
+        declared = new HashMap<>();
+        state = new ArrayList<>();
+        loopVars = new HashMap<>();
+        loopDepth = 0;
+        inRange = new HashMap<>();
+    }
+
+    /**
+     * Optimize single definition. Definitions of one program share their variables, so they have to be
+     * passed in program order to the same optimizer.
+     *
+     * @param def definition
+     * @return optimized definition
+     */
+    public Def optimize(Def def) {
+
+        if (def instanceof DFun) {
+            DFun dFun = (DFun) def;
+            ListStm listStm = dFun.statements();
+
+            if (listStm == null) {
+                // optimized on its own once parsed, variables of other definitions are unknown then
+                return new DFun(dFun.type_, dFun.id_, dFun.listarg_, () -> new Optimizer().rewrite(dFun.body()));
+            }
+
+            return new DFun(dFun.type_, dFun.id_, dFun.listarg_, rewrite(listStm));
+        }
+
+        return def;
+    }
+
+    /**
+     * Optimize single definition and collect the variables it declares
+     *
+     * @param def          definition
+     * @param declarations receives the declarations in order, to pass to {@link #skip(List)} later
+     * @return optimized definition
+     */
+    public Def optimize(Def def, List<Map.Entry<String, Type>> declarations) {
+
+        this.declarations = declarations;
+
+        try {
+            return optimize(def);
+        } finally {
+            this.declarations = null;
+        }
+    }
+
+    /**
+     * Continue after a definition optimized earlier in the same state instead of rewriting it again
+     *
+     * @param declarations declarations collected when the definition was optimized
+     */
+    public void skip(List<Map.Entry<String, Type>> declarations) {
+        for (Map.Entry<String, Type> declaration : declarations) {
+            declare(declaration.getKey(), declaration.getValue());
+        }
+    }
+
+    /**
+     * @return declarations seen so far in order with their type names, growing with later declarations. A
+     * definition optimized after equal declarations is rewritten equally.
+     */
+    public List<Map.Entry<String, String>> state() {
+        return Collections.unmodifiableList(state);
+    }
+
+    private void declare(String id, Type type) {
+
+        declared.put(id, type);
+        state.add(Map.entry(id, type.toString()));
+
+        if (declarations != null) {
+            declarations.add(Map.entry(id, type));
+        }
+    }
+
+    /**
+     * Rewrite statement list
+     *
+     * @param listStm statements
+     * @return rewritten statements
+     */
+    private ListStm rewrite(ListStm listStm) {
+
+        ListStm res = new ListStm();
+
+        for (Stm stm : listStm) {
+            res.add(rewrite(stm));
+        }
+
+        return res;
+    }
+
+    /**
+     * Rewrite single statement
+     *
+     * @param stm statement
+     * @return rewritten statement
+     */
+    private Stm rewrite(Stm stm) {
+
+        if (stm instanceof SExp) {
+
+            return new SExp(rewrite(((SExp) stm).exp_));
+
+        } else if (stm instanceof SDecls) {
+
+            SDecls sDecls = (SDecls) stm;
+            declare(sDecls.id_, sDecls.type_);
+            return sDecls;
+
+        } else if (stm instanceof SInit) {
+
+            SInit sInit = (SInit) stm;
+            Exp exp = rewrite(sInit.exp_);
+            declare(sInit.id_, sInit.type_);
+            return new SInit(sInit.type_, sInit.id_, sInit.symbol_, exp);
+
+        } else if (stm instanceof SAss) {
+
+            SAss sAss = (SAss) stm;
+            return new SAss(sAss.id, sAss.symbol, rewrite(sAss.exp));
+
+        } else if (stm instanceof SIndexAss) {
+
+            SIndexAss sIndexAss = (SIndexAss) stm;
+            return new SIndexAss(sIndexAss.id_, sIndexAss.symbol_, rewrite(sIndexAss.exp_1), rewrite(sIndexAss.exp_2));
+
+        } else if (stm instanceof SReturn) {
+
+            return new SReturn(rewrite(((SReturn) stm).exp_));
+
+        } else if (stm instanceof SIfElse) {
+
+            SIfElse sIfElse = (SIfElse) stm;
+            return new SIfElse(rewrite(sIfElse.exp_), rewrite(sIfElse.stm_1), rewrite(sIfElse.stm_2));
+
+        } else if (stm instanceof SWhile) {
+
+            SWhile sWhile = (SWhile) stm;
+            return new SWhile(rewrite(sWhile.exp_), rewrite(sWhile.stm_));
+
+        } else if (stm instanceof SFor) {
+
+            return rewrite((SFor) stm);
+
+        }
+
+        return stm;
+    }
+
+    /**
+     * Rewrite for loop. An integer loop variable that the body never assigns or redeclares
+     * is moved to a primitive slot, indexed by the nesting depth of specialized loops.
+     * If the loop counts up from a non negative constant while below the length of an array
+     * that the body neither reassigns nor steps the loop variable in, indexing that array with the loop variable is left unchecked.
+     *
+     * @param sFor loop statement
+     * @return rewritten loop
+     */
+    private Stm rewrite(SFor sFor) {
+
+        if (sFor.stm_ instanceof SInit
+                && ((SInit) sFor.stm_).type_ instanceof TypeInt
+                && !assigns(sFor.liststm_, ((SInit) sFor.stm_).id_)) {
+
+            SInit sInit = (SInit) sFor.stm_;
+            Exp start = rewrite(sInit.exp_);
+
+            int slot = loopDepth++;
+            Integer shadowed = loopVars.put(sInit.id_, slot);
+
+            Exp condition = rewrite(sFor.exp_1);
+            Exp step = rewrite(sFor.exp_2);
+
+            String bounded = boundedArray(sFor, start);
+            Integer enclosing = bounded != null ? inRange.put(bounded, slot) : null;
+
+            ListStm body = rewrite(sFor.liststm_);
+
+            restore(bounded, enclosing);
+
+            loopDepth--;
+
+            if (shadowed != null) {
+                loopVars.put(sInit.id_, shadowed);
+            } else {
+                loopVars.remove(sInit.id_);
+            }
+
+            return new SFor(new SInit(sInit.type_, sInit.id_, sInit.symbol_, start), condition, step, body, slot);
+        }
+
+        Stm init = rewrite(sFor.stm_);
+
+        return new SFor(init, rewrite(sFor.exp_1), rewrite(sFor.exp_2), rewrite(sFor.liststm_));
+    }
+
+    /**
+     * Restore range binding of array shadowed by a nested loop
+     *
+     * @param array     array bounding the loop or null
+     * @param enclosing slot of enclosing loop bounded by the same array or null
+     */
+    private void restore(String array, Integer enclosing) {
+        if (enclosing != null) {
+            inRange.put(array, enclosing);
+        } else if (array != null) {
+            inRange.remove(array);
+        }
+    }
+
+    /**
+     * Match {@code for (int i = <constant >= 0>; i < xs.length; i++)} whose body neither reassigns the array nor
+     * steps the loop variable
+     *
+     * @param sFor  loop statement
+     * @param start rewritten initial value
+     * @return name of array bounding the loop or null
+     */
+    private String boundedArray(SFor sFor, Exp start) {
+
+        String id = ((SInit) sFor.stm_).id_;
+
+        if (!(start instanceof EInt) || ((EInt) start).integer_ < 0) {
+            return null;
+        }
+
+        if (!(sFor.exp_2 instanceof EIncr && isId(((EIncr) sFor.exp_2).exp_, id))) {
+            return null;
+        }
+
+        if (!(sFor.exp_1 instanceof ELt && isId(((ELt) sFor.exp_1).exp_1, id))) {
+            return null;
+        }
+
+        Exp bound = ((ELt) sFor.exp_1).exp_2;
+
+        if (!(bound instanceof ELength && ((ELength) bound).exp_ instanceof EId)) {
+            return null;
+        }
+
+        String array = ((EId) ((ELength) bound).exp_).id_;
+
+        return assigns(sFor.liststm_, array) || steps(sFor.liststm_, id) ? null : array;
+    }
+
+    /**
+     * @param exp expression
+     * @param id  variable name
+     * @return true if expression is a reference to the variable
+     */
+    private boolean isId(Exp exp, String id) {
+        return exp instanceof EId && ((EId) exp).id_.equals(id);
+    }
+
+    /**
+     * @param listStm statements
+     * @param id      variable name
+     * @return true if any statement assigns or declares the variable
+     */
+    private boolean assigns(ListStm listStm, String id) {
+
+        for (Stm stm : listStm) {
+
+            if (stm instanceof SAss && ((SAss) stm).id.equals(id)) {
+                return true;
+            } else if (stm instanceof SInit && ((SInit) stm).id_.equals(id)) {
+                return true;
+            } else if (stm instanceof SDecls && ((SDecls) stm).id_.equals(id)) {
+                return true;
+            } else if (stm instanceof SIfElse
+                    && (assigns(((SIfElse) stm).stm_1, id) || assigns(((SIfElse) stm).stm_2, id))) {
+                return true;
+            } else if (stm instanceof SWhile && assigns(((SWhile) stm).stm_, id)) {
+                return true;
+            } else if (stm instanceof SFor
+                    && (assigns(((SFor) stm).liststm_, id) || assigns(singleton(((SFor) stm).stm_), id))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param listStm statements
+     * @param id      variable name
+     * @return true if any statement, nested ones included, increments or decrements the variable
+     */
+    private boolean steps(ListStm listStm, String id) {
+
+        for (Stm stm : listStm) {
+            if (steps(stm, id)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean steps(Stm stm, String id) {
+
+        if (stm instanceof SExp) {
+            return steps(((SExp) stm).exp_, id);
+        } else if (stm instanceof SInit) {
+            return steps(((SInit) stm).exp_, id);
+        } else if (stm instanceof SAss) {
+            return steps(((SAss) stm).exp, id);
+        } else if (stm instanceof SIndexAss) {
+            return steps(((SIndexAss) stm).exp_1, id) || steps(((SIndexAss) stm).exp_2, id);
+        } else if (stm instanceof SReturn) {
+            return steps(((SReturn) stm).exp_, id);
+        } else if (stm instanceof SIfElse) {
+            SIfElse sIfElse = (SIfElse) stm;
+            return steps(sIfElse.exp_, id) || steps(sIfElse.stm_1, id) || steps(sIfElse.stm_2, id);
+        } else if (stm instanceof SWhile) {
+            return steps(((SWhile) stm).exp_, id) || steps(((SWhile) stm).stm_, id);
+        } else if (stm instanceof SFor) {
+            SFor sFor = (SFor) stm;
+            return steps(sFor.stm_, id) || steps(sFor.exp_1, id) || steps(sFor.exp_2, id) || steps(sFor.liststm_, id);
+        }
+
+        return false;
+    }
+
+    private boolean steps(Exp exp, String id) {
+
+        if (exp instanceof EIncr) {
+            return isId(((EIncr) exp).exp_, id) || steps(((EIncr) exp).exp_, id);
+        } else if (exp instanceof EDecr) {
+            return isId(((EDecr) exp).exp_, id) || steps(((EDecr) exp).exp_, id);
+        } else if (exp instanceof EPIncr) {
+            return isId(((EPIncr) exp).exp_, id) || steps(((EPIncr) exp).exp_, id);
+        } else if (exp instanceof EPDecr) {
+            return isId(((EPDecr) exp).exp_, id) || steps(((EPDecr) exp).exp_, id);
+        } else if (exp instanceof EApp) {
+            for (Exp argument : ((EApp) exp).listexp_) {
+                if (steps(argument, id)) {
+                    return true;
+                }
+            }
+            return false;
+        } else if (exp instanceof EPlus) {
+            return steps(((EPlus) exp).exp_1, id) || steps(((EPlus) exp).exp_2, id);
+        } else if (exp instanceof EMinus) {
+            return steps(((EMinus) exp).exp_1, id) || steps(((EMinus) exp).exp_2, id);
+        } else if (exp instanceof ETimes) {
+            return steps(((ETimes) exp).exp_1, id) || steps(((ETimes) exp).exp_2, id);
+        } else if (exp instanceof EDiv) {
+            return steps(((EDiv) exp).exp_1, id) || steps(((EDiv) exp).exp_2, id);
+        } else if (exp instanceof EEq) {
+            return steps(((EEq) exp).exp_1, id) || steps(((EEq) exp).exp_2, id);
+        } else if (exp instanceof ENEq) {
+            return steps(((ENEq) exp).exp_1, id) || steps(((ENEq) exp).exp_2, id);
+        } else if (exp instanceof EGt) {
+            return steps(((EGt) exp).exp_1, id) || steps(((EGt) exp).exp_2, id);
+        } else if (exp instanceof EGtEq) {
+            return steps(((EGtEq) exp).exp_1, id) || steps(((EGtEq) exp).exp_2, id);
+        } else if (exp instanceof ELt) {
+            return steps(((ELt) exp).exp_1, id) || steps(((ELt) exp).exp_2, id);
+        } else if (exp instanceof ELtEq) {
+            return steps(((ELtEq) exp).exp_1, id) || steps(((ELtEq) exp).exp_2, id);
+        } else if (exp instanceof EAnd) {
+            return steps(((EAnd) exp).exp_1, id) || steps(((EAnd) exp).exp_2, id);
+        } else if (exp instanceof EOr) {
+            return steps(((EOr) exp).exp_1, id) || steps(((EOr) exp).exp_2, id);
+        } else if (exp instanceof EAss) {
+            return steps(((EAss) exp).exp_1, id) || steps(((EAss) exp).exp_2, id);
+        } else if (exp instanceof EIndex) {
+            return steps(((EIndex) exp).exp_1, id) || steps(((EIndex) exp).exp_2, id);
+        } else if (exp instanceof EContains) {
+            return steps(((EContains) exp).exp_1, id) || steps(((EContains) exp).exp_2, id);
+        } else if (exp instanceof ENewArray) {
+            return steps(((ENewArray) exp).exp_, id);
+        } else if (exp instanceof ELength) {
+            return steps(((ELength) exp).exp_, id);
+        }
+
+        return false;
+    }
+
+    /**
+     * @param stm statement
+     * @return list containing the statement
+     */
+    private ListStm singleton(Stm stm) {
+        ListStm listStm = new ListStm();
+        listStm.add(stm);
+        return listStm;
+    }
+
+    /**
+     * Rewrite expression
+     *
+     * @param exp expression
+     * @return rewritten expression
+     */
+    private Exp rewrite(Exp exp) {
+
+        if (exp instanceof EPlus) {
+
+            EPlus ePlus = (EPlus) exp;
+            return fuse(rewrite(ePlus.exp_1), rewrite(ePlus.exp_2));
+
+        } else if (exp instanceof EMinus) {
+
+            EMinus eMinus = (EMinus) exp;
+            return new EMinus(rewrite(eMinus.exp_1), rewrite(eMinus.exp_2));
+
+        } else if (exp instanceof ETimes) {
+
+            ETimes eTimes = (ETimes) exp;
+            return new ETimes(rewrite(eTimes.exp_1), rewrite(eTimes.exp_2));
+
+        } else if (exp instanceof EDiv) {
+
+            EDiv eDiv = (EDiv) exp;
+            return new EDiv(rewrite(eDiv.exp_1), rewrite(eDiv.exp_2));
+
+        } else if (exp instanceof EEq) {
+
+            EEq eEq = (EEq) exp;
+            return new EEq(rewrite(eEq.exp_1), rewrite(eEq.exp_2));
+
+        } else if (exp instanceof ENEq) {
+
+            ENEq enEq = (ENEq) exp;
+            return new ENEq(rewrite(enEq.exp_1), rewrite(enEq.exp_2));
+
+        } else if (exp instanceof EGt) {
+
+            EGt eGt = (EGt) exp;
+            return new EGt(rewrite(eGt.exp_1), rewrite(eGt.exp_2));
+
+        } else if (exp instanceof EGtEq) {
+
+            EGtEq eGtEq = (EGtEq) exp;
+            return new EGtEq(rewrite(eGtEq.exp_1), rewrite(eGtEq.exp_2));
+
+        } else if (exp instanceof ELt) {
+
+            ELt eLt = (ELt) exp;
+            return new ELt(rewrite(eLt.exp_1), rewrite(eLt.exp_2));
+
+        } else if (exp instanceof ELtEq) {
+
+            ELtEq eLtEq = (ELtEq) exp;
+            return new ELtEq(rewrite(eLtEq.exp_1), rewrite(eLtEq.exp_2));
+
+        } else if (exp instanceof EAnd) {
+
+            EAnd eAnd = (EAnd) exp;
+            return new EAnd(rewrite(eAnd.exp_1), rewrite(eAnd.exp_2));
+
+        } else if (exp instanceof EOr) {
+
+            EOr eOr = (EOr) exp;
+            return new EOr(rewrite(eOr.exp_1), rewrite(eOr.exp_2));
+
+        } else if (exp instanceof EAss) {
+
+            EAss eAss = (EAss) exp;
+            return new EAss(rewrite(eAss.exp_1), rewrite(eAss.exp_2));
+
+        } else if (exp instanceof EIncr) {
+
+            return new EIncr(rewrite(((EIncr) exp).exp_));
+
+        } else if (exp instanceof EDecr) {
+
+            return new EDecr(rewrite(((EDecr) exp).exp_));
+
+        } else if (exp instanceof ENewArray) {
+
+            ENewArray eNewArray = (ENewArray) exp;
+            return new ENewArray(eNewArray.type_, rewrite(eNewArray.exp_), eNewArray.offHeap_);
+
+        } else if (exp instanceof EIndex) {
+
+            return rewrite((EIndex) exp);
+
+        } else if (exp instanceof ELength) {
+
+            return new ELength(rewrite(((ELength) exp).exp_));
+
+        } else if (exp instanceof EContains) {
+
+            EContains eContains = (EContains) exp;
+            return new EContains(rewrite(eContains.exp_1), rewrite(eContains.exp_2));
+
+        } else if (exp instanceof EId && loopVars.containsKey(((EId) exp).id_)) {
+
+            return new ELoopVar(((EId) exp).id_, loopVars.get(((EId) exp).id_));
+
+        }
+
+        return exp;
+    }
+
+    /**
+     * Rewrite array access, indexing an array that bounds the enclosing loop with its induction variable is unchecked
+     *
+     * @param eIndex array access
+     * @return rewritten access
+     */
+    private Exp rewrite(EIndex eIndex) {
+
+        Exp array = rewrite(eIndex.exp_1);
+        Exp index = rewrite(eIndex.exp_2);
+
+        if (array instanceof EId && index instanceof ELoopVar) {
+
+            Integer slot = inRange.get(((EId) array).id_);
+
+            if (slot != null && slot == ((ELoopVar) index).slot_) {
+                return new EIndex(array, index, false);
+            }
+        }
+
+        return new EIndex(array, index, eIndex.checked_);
+    }
+
+
+    /**
+     * Fuse string typed addition into a single concatenation. Addition is evaluated right to left and
+     * a double operand would be added numerically, so only string, integer and boolean operands are fused.
+     *
+     * @param exp1 left operand
+     * @param exp2 right operand
+     * @return concatenation or plain addition
+     */
+    private Exp fuse(Exp exp1, Exp exp2) {
+
+        Type type1 = typeOf(exp1);
+        Type type2 = typeOf(exp2);
+
+        if (!(type1 instanceof TypeString || type2 instanceof TypeString)
+                || !isConcatenable(type1)
+                || !isConcatenable(type2)) {
+            return new EPlus(exp1, exp2);
+        }
+
+        List<Object> operands = new ArrayList<>();
+        addOperands(exp1, operands);
+        addOperands(exp2, operands);
+
+        return concat(operands);
+    }
+
+    /**
+     * Collect concatenation operands, literals are added as strings
+     *
+     * @param exp      operand expression
+     * @param operands operand list
+     */
+    private void addOperands(Exp exp, List<Object> operands) {
+
+        if (exp instanceof EConcat) {
+
+            EConcat eConcat = (EConcat) exp;
+
+            for (int i = 0; i < eConcat.exps_.length; i++) {
+                operands.add(eConcat.literals_[i] != null ? eConcat.literals_[i] : eConcat.exps_[i]);
+            }
+
+        } else if (exp instanceof EString) {
+
+            operands.add(((EString) exp).string_.replace("\"", ""));
+
+        } else {
+
+            operands.add(exp);
+
+        }
+    }
+
+    /**
+     * Build concatenation node, adjacent literals are merged
+     *
+     * @param operands literal strings and expressions
+     * @return concatenation node or a folded string literal
+     */
+    private Exp concat(List<Object> operands) {
+
+        List<Object> merged = new ArrayList<>();
+
+        for (Object operand : operands) {
+            int last = merged.size() - 1;
+            if (operand instanceof String && last >= 0 && merged.get(last) instanceof String) {
+                merged.set(last, merged.get(last) + (String) operand);
+            } else {
+                merged.add(operand);
+            }
+        }
+
+        if (merged.size() == 1 && merged.get(0) instanceof String) {
+            return new EString("\"" + merged.get(0) + "\"");
+        }
+
+        Exp[] exps = new Exp[merged.size()];
+        String[] literals = new String[merged.size()];
+        int capacity = 0;
+
+        for (int i = 0; i < merged.size(); i++) {
+
+            Object operand = merged.get(i);
+
+            if (operand instanceof String) {
+                literals[i] = (String) operand;
+                capacity += literals[i].length();
+            } else {
+                exps[i] = (Exp) operand;
+                Type type = typeOf(exps[i]);
+                capacity += type instanceof TypeInt ? INT_WIDTH : type instanceof TypeBool ? BOOL_WIDTH : STRING_WIDTH;
+            }
+        }
+
+        return new EConcat(exps, literals, capacity);
+    }
+
+    /**
+     * @param type static type
+     * @return true if values of the type are appended as text by addition with a string
+     */
+    private boolean isConcatenable(Type type) {
+        return type instanceof TypeString || type instanceof TypeInt || type instanceof TypeBool;
+    }
+
+    /**
+     * Static type of expression
+     *
+     * @param exp expression
+     * @return type or null if it is not known before evaluation
+     */
+    private Type typeOf(Exp exp) {
+
+        if (exp instanceof EString || exp instanceof EConcat) {
+
+            return new TypeString();
+
+        } else if (exp instanceof EInt || exp instanceof ELoopVar || exp instanceof ELength) {
+
+            return new TypeInt();
+
+        } else if (exp instanceof EDouble) {
+
+            return new TypeDouble();
+
+        } else if (exp instanceof ETrue || exp instanceof EFalse
+                || exp instanceof EEq || exp instanceof ENEq
+                || exp instanceof EGt || exp instanceof EGtEq
+                || exp instanceof ELt || exp instanceof ELtEq
+                || exp instanceof EAnd || exp instanceof EOr || exp instanceof EContains) {
+
+            return new TypeBool();
+
+        } else if (exp instanceof EId) {
+
+            return declared.get(((EId) exp).id_);
+
+        } else if (exp instanceof ENewArray) {
+
+            return new TypeArray(((ENewArray) exp).type_);
+
+        } else if (exp instanceof EIndex) {
+
+            Type type = typeOf(((EIndex) exp).exp_1);
+
+            if (type instanceof TypeMap) {
+                return ((TypeMap) type).value_;
+            }
+
+            return type instanceof TypeArray ? ((TypeArray) type).type_ : null;
+
+        } else if (exp instanceof ENewMap) {
+
+            return ((ENewMap) exp).type_;
+
+        } else if (exp instanceof EPlus) {
+
+            return arithmeticType(((EPlus) exp).exp_1, ((EPlus) exp).exp_2);
+
+        } else if (exp instanceof EMinus) {
+
+            return arithmeticType(((EMinus) exp).exp_1, ((EMinus) exp).exp_2);
+
+        } else if (exp instanceof ETimes) {
+
+            return arithmeticType(((ETimes) exp).exp_1, ((ETimes) exp).exp_2);
+
+        } else if (exp instanceof EDiv) {
+
+            return arithmeticType(((EDiv) exp).exp_1, ((EDiv) exp).exp_2);
+
+        }
+
+        return null;
+    }
+
+    /**
+     * @param exp1 left operand
+     * @param exp2 right operand
+     * @return integer if both operands are integers, otherwise unknown
+     */
+    private Type arithmeticType(Exp exp1, Exp exp2) {
+
+        if (typeOf(exp1) instanceof TypeInt && typeOf(exp2) instanceof TypeInt) {
+            return new TypeInt();
+        }
+
+        return null;
+    }
+}
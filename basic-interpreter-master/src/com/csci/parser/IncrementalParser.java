@@ -0,0 +1,440 @@
+package com.csci.parser;
+
+import com.csci.grammar.*;
+import com.csci.lexer.IncrementalLexer;
+import com.csci.lexer.ListTokenSource;
+import com.csci.lexer.Token;
+import com.csci.lexer.TokenSource;
+import com.csci.lexer.TokenType;
+import com.csci.optimizer.Optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser of an edited document reusing the definitions an edit did not touch. Every top level definition is
+ * kept with its source span and a hash of its tokens. A parse splits the tokens into definitions by matching
+ * braces, keeps definitions whose span no re-lexed range intersected and parses only the others. A parsed
+ * definition with the same tokens as an earlier one, e.g. after an edit of whitespace, keeps the earlier tree,
+ * tokens are looked up by hash and compared on a hit. Optimized definitions are reused while the variables
+ * declared before them are those declared before them in the last optimization.
+ * <p>
+ * Programs the definitions can not be split out of are parsed as a whole, so results and errors are those
+ * of {@link Parser#parseProgram()}.
+ */
+public class IncrementalParser {
+
+    /**
+     * Edits collected before definition spans are moved along with them
+     */
+    private static final int MAX_EDITS = 1024;
+
+    private final IncrementalLexer lexer;
+
+    /**
+     * Symbols of the document, reused definitions keep the symbols they were parsed with
+     */
+    private final Symbols symbols = new Symbols();
+
+    /**
+     * Definitions of the last parse in program order
+     */
+    private List<Definition> definitions = new ArrayList<>();
+
+    /**
+     * Edits since the last parse as offset, removed and inserted length, and the re-lexed range
+     */
+    private final List<int[]> edits = new ArrayList<>();
+
+    /**
+     * Declarations in the order the last optimization saw them
+     */
+    private List<Map.Entry<String, String>> declarations = List.of();
+
+    private int parsed;
+    private int optimized;
+
+    /**
+     * @param lexer tokens of the document, edited only through {@link #edit(int, int, String)} from now on
+     */
+    public IncrementalParser(IncrementalLexer lexer) {
+        this.lexer = lexer;
+    }
+
+    /**
+     * @return tokens of the document
+     */
+    public IncrementalLexer lexer() {
+        return lexer;
+    }
+
+    /**
+     * Apply an edit to the document
+     *
+     * @param offset   position of the edit
+     * @param removed  number of characters removed at the position
+     * @param inserted text inserted at the position
+     */
+    public void edit(int offset, int removed, String inserted) {
+        lexer.edit(offset, removed, inserted);
+        edits.add(new int[]{offset, removed, inserted.length(), lexer.changedStart(), lexer.changedEnd()});
+
+        if (edits.size() == MAX_EDITS) {
+            applyEdits();
+        }
+    }
+
+    /**
+     * Parse the document
+     *
+     * @return program
+     * @throws Exception syntax exception
+     */
+    public PDefs parse() throws Exception {
+
+        applyEdits();
+
+        List<Definition> clean = new ArrayList<>();
+
+        for (Definition definition : definitions) {
+            if (!definition.dirty) {
+                clean.add(definition);
+            }
+        }
+
+        Map<Long, Definition> byHash = null;
+        List<Definition> res = new ArrayList<>();
+        ListDef listDef = new ListDef();
+
+        int size = lexer.size();
+        int old = 0;
+
+        parsed = 0;
+
+        for (int from = 0; from < size; ) {
+
+            int to = closingBrace(from, size);
+
+            if (to < 0) {
+                return parseAll();
+            }
+
+            int start = lexer.start(from);
+            int end = lexer.start(to) + 1;
+
+            while (old < clean.size() && clean.get(old).start < start) {
+                old++;
+            }
+
+            Definition definition = null;
+
+            if (old < clean.size()) {
+                Definition candidate = clean.get(old);
+                if (candidate.start == start && candidate.end == end) {
+                    definition = candidate;
+                }
+            }
+
+            if (definition == null) {
+
+                RangeSource source = new RangeSource(from, to + 1);
+                Def def;
+
+                try {
+                    def = new Parser(source, null, symbols).parseDef();
+                } catch (Exception e) {
+                    // report the error the whole program parse reports
+                    return parseAll();
+                }
+
+                if (def == null || source.next != to) {
+                    return parseAll();
+                }
+
+                parsed++;
+
+                if (byHash == null) {
+                    byHash = new HashMap<>();
+                    for (Definition earlier : definitions) {
+                        if (earlier.start >= 0) {
+                            byHash.put(earlier.hash, earlier);
+                        }
+                    }
+                }
+
+                Token[] tokens = tokens(from, to + 1);
+                long hash = hash(tokens);
+                Definition earlier = byHash.get(hash);
+
+                if (earlier != null && !sameTokens(earlier.tokens, tokens)) {
+                    earlier = null;
+                }
+
+                definition = new Definition(start, end, tokens, hash, earlier != null ? earlier.def : def);
+
+                if (earlier != null) {
+                    definition.optimized = earlier.optimized;
+                    definition.state = earlier.state;
+                    definition.declarations = earlier.declarations;
+                }
+            }
+
+            res.add(definition);
+            listDef.add(definition.def);
+
+            from = to + 1;
+        }
+
+        definitions = res;
+
+        return new PDefs(listDef, symbols);
+    }
+
+    /**
+     * Optimize the definitions of the last parse, definitions unchanged since they were optimized in an
+     * unchanged state are not rewritten again
+     *
+     * @return optimized program
+     */
+    public PDefs optimize() {
+
+        Optimizer optimizer = new Optimizer();
+        List<Map.Entry<String, String>> state = optimizer.state();
+        ListDef listDef = new ListDef();
+
+        // length of the common prefix of the declarations so far and those of the last optimization
+        int matched = 0;
+
+        optimized = 0;
+
+        for (Definition definition : definitions) {
+
+            int before = state.size();
+
+            while (matched < before && matched < declarations.size() && declarations.get(matched).equals(state.get(matched))) {
+                matched++;
+            }
+
+            if (definition.optimized != null && definition.state == before && matched == before) {
+
+                optimizer.skip(definition.declarations);
+
+            } else {
+
+                definition.declarations = new ArrayList<>();
+                definition.optimized = optimizer.optimize(definition.def, definition.declarations);
+                optimized++;
+            }
+
+            definition.state = before;
+            listDef.add(definition.optimized);
+        }
+
+        declarations = state;
+
+        return new PDefs(listDef, symbols);
+    }
+
+    /**
+     * @return number of definitions parsed by the last parse, the others were reused
+     */
+    public int parsedCount() {
+        return parsed;
+    }
+
+    /**
+     * @return number of definitions rewritten by the last optimization, the others were reused
+     */
+    public int optimizedCount() {
+        return optimized;
+    }
+
+    /**
+     * Move definition spans along with the edits and mark definitions a re-lexed range intersects
+     */
+    private void applyEdits() {
+
+        for (int[] edit : edits) {
+
+            int offset = edit[0];
+            int removed = edit[1];
+            int delta = edit[2] - removed;
+
+            // re-lexed range in positions before the edit
+            int changedStart = edit[3];
+            int changedEnd = edit[4] - delta;
+
+            for (Definition definition : definitions) {
+
+                if (definition.dirty) {
+                    continue;
+                }
+
+                if (definition.start < changedEnd && changedStart < definition.end) {
+                    definition.dirty = true;
+                } else if (definition.start >= offset + removed) {
+                    definition.start += delta;
+                    definition.end += delta;
+                }
+            }
+        }
+
+        edits.clear();
+    }
+
+    /**
+     * @param from first token of a definition
+     * @param size number of tokens
+     * @return index of the brace closing the definition or -1 if braces do not match
+     */
+    private int closingBrace(int from, int size) {
+
+        int depth = 0;
+
+        for (int i = from; i < size; i++) {
+
+            TokenType type = lexer.type(i);
+
+            if (type == TokenType.SCOPESTART) {
+                depth++;
+            } else if (type == TokenType.SCOPEEND && --depth <= 0) {
+                return depth == 0 ? i : -1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parse the whole document, its definitions have no span and are not reused by the next parse
+     */
+    private PDefs parseAll() throws Exception {
+
+        definitions = new ArrayList<>();
+
+        PDefs program = (PDefs) new Parser(new ListTokenSource(lexer.tokens()), null, symbols).parseProgram();
+
+        for (Def def : program.listdef_) {
+            Definition definition = new Definition(-1, -1, null, 0, def);
+            definition.dirty = true;
+            definitions.add(definition);
+        }
+
+        parsed = definitions.size();
+
+        return program;
+    }
+
+    /**
+     * @return tokens in {@code [from, to)}
+     */
+    private Token[] tokens(int from, int to) {
+
+        Token[] tokens = new Token[to - from];
+
+        for (int i = from; i < to; i++) {
+            tokens[i - from] = lexer.token(i);
+        }
+
+        return tokens;
+    }
+
+    /**
+     * @return hash of the types and text of the tokens
+     */
+    private static long hash(Token[] tokens) {
+
+        long hash = 1125899906842597L;
+
+        for (Token token : tokens) {
+            hash = 31 * hash + token.getType().ordinal();
+            hash = 31 * hash + token.getData().hashCode();
+        }
+
+        return hash;
+    }
+
+    /**
+     * @return true if the tokens have equal types and text, positions aside
+     */
+    private static boolean sameTokens(Token[] a, Token[] b) {
+
+        if (a.length != b.length) {
+            return false;
+        }
+
+        for (int i = 0; i < a.length; i++) {
+            if (a[i].getType() != b[i].getType() || !a[i].getData().equals(b[i].getData())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Top level definition of the last parse
+     */
+    private static final class Definition {
+
+        /**
+         * Source span from the first token to after the closing brace
+         */
+        int start;
+        int end;
+
+        /**
+         * True once a re-lexed range intersected the span
+         */
+        boolean dirty;
+
+        /**
+         * Tokens of the definition when it was parsed, null for definitions of a whole program parse
+         */
+        final Token[] tokens;
+        final long hash;
+        final Def def;
+
+        /**
+         * Optimized definition, the number of declarations before it in the last optimization and the
+         * variables it declared
+         */
+        Def optimized;
+        int state;
+        List<Map.Entry<String, Type>> declarations;
+
+        Definition(int start, int end, Token[] tokens, long hash, Def def) {
+            this.start = start;
+            this.end = end;
+            this.tokens = tokens;
+            this.hash = hash;
+            this.def = def;
+        }
+    }
+
+    /**
+     * Tokens of one definition
+     */
+    private final class RangeSource implements TokenSource {
+
+        private int next;
+        private final int to;
+
+        RangeSource(int from, int to) {
+            this.next = from;
+            this.to = to;
+        }
+
+        @Override
+        public Token peek(int offset) {
+            return next + offset < to ? lexer.token(next + offset) : null;
+        }
+
+        @Override
+        public void pop() {
+            next++;
+        }
+    }
+}
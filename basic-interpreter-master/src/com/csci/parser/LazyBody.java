@@ -0,0 +1,38 @@
+package com.csci.parser;
+
+import com.csci.grammar.DFun;
+import com.csci.grammar.ListStm;
+import com.csci.grammar.Symbols;
+import com.csci.lexer.Lexer;
+import com.csci.lexer.ListTokenSource;
+
+/**
+ * Function body kept as its range of the source until it is used, then lexed and parsed on its own
+ */
+final class LazyBody implements DFun.Body {
+
+    private final String source;
+
+    /**
+     * Positions of the opening brace and after the closing brace
+     */
+    private final int start;
+    private final int end;
+
+    /**
+     * Symbols of the program the body belongs to
+     */
+    private final Symbols symbols;
+
+    LazyBody(String source, int start, int end, Symbols symbols) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.symbols = symbols;
+    }
+
+    @Override
+    public ListStm parse() throws Exception {
+        return new Parser(new ListTokenSource(new Lexer().lex(source, start, end)), null, symbols).parseBody();
+    }
+}
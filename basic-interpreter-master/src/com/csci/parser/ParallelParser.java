@@ -0,0 +1,199 @@
+package com.csci.parser;
+
+import com.csci.grammar.Def;
+import com.csci.grammar.ListDef;
+import com.csci.grammar.PDefs;
+import com.csci.grammar.Symbols;
+import com.csci.lexer.ArrayTokenSource;
+import com.csci.lexer.Token;
+import com.csci.lexer.TokenType;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parser of programs with many top level definitions, parsing the definitions in parallel on the common
+ * fork/join pool. A linear scan matching braces over the tokens finds where every definition ends, the
+ * definitions are then parsed independently and collected in program order.
+ * <p>
+ * Programs the definitions can not be split out of, or with a definition that does not parse on its own, are
+ * parsed sequentially, so results and errors are those of {@link Parser#parseProgram()}.
+ */
+public class ParallelParser {
+
+    /**
+     * Default number of tokens parsed by a leaf task
+     */
+    public static final int DEFAULT_GRAIN = 1 << 12;
+
+    private final int grain;
+
+    public ParallelParser() {
+        this(DEFAULT_GRAIN);
+    }
+
+    /**
+     * @param grain number of tokens below which a range of definitions is parsed by one task
+     */
+    public ParallelParser(int grain) {
+        this.grain = Math.max(grain, 1);
+    }
+
+    /**
+     * @param tokens tokens of the program, consumed only by the sequential fallback
+     * @return program, identical to that of the sequential parser
+     * @throws Exception syntax exception
+     */
+    public PDefs parse(LinkedList<Token> tokens) throws Exception {
+
+        // with a single worker splitting only adds the pre-scan
+        if (ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return (PDefs) new Parser(tokens).parseProgram();
+        }
+
+        Token[] array = tokens.toArray(new Token[0]);
+        int[] ends = split(array);
+
+        if (ends == null) {
+            return (PDefs) new Parser(tokens).parseProgram();
+        }
+
+        Def[] defs = new Def[ends.length];
+        Symbols symbols = new Symbols();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        if (array.length <= grain) {
+            parseRange(array, ends, defs, symbols, failed, 0, ends.length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new DefTask(array, ends, defs, symbols, failed, grain, 0, ends.length));
+        }
+
+        if (failed.get()) {
+            return (PDefs) new Parser(tokens).parseProgram();
+        }
+
+        ListDef listDef = new ListDef();
+        listDef.addAll(Arrays.asList(defs));
+
+        return new PDefs(listDef, symbols);
+    }
+
+    /**
+     * Match braces to find the closing brace of every definition
+     *
+     * @param tokens tokens of the program
+     * @return index of the closing brace of every definition or null if braces do not match or the definitions
+     * do not cover every token
+     */
+    private static int[] split(Token[] tokens) {
+
+        int[] ends = new int[16];
+        int count = 0;
+        int depth = 0;
+
+        for (int i = 0; i < tokens.length; i++) {
+
+            TokenType type = tokens[i].getType();
+
+            if (type == TokenType.SCOPESTART) {
+                depth++;
+            } else if (type == TokenType.SCOPEEND) {
+
+                if (--depth < 0) {
+                    return null;
+                }
+
+                if (depth == 0) {
+                    if (count == ends.length) {
+                        ends = Arrays.copyOf(ends, count * 2);
+                    }
+                    ends[count++] = i;
+                }
+            }
+        }
+
+        // the last definition has to end with the last token, tokens after it or without braces are no definition
+        if (depth != 0 || (count > 0 ? ends[count - 1] != tokens.length - 1 : tokens.length > 0)) {
+            return null;
+        }
+
+        return Arrays.copyOf(ends, count);
+    }
+
+    /**
+     * Parse definitions {@code [from, to)} each on its own
+     */
+    private static void parseRange(Token[] tokens, int[] ends, Def[] defs, Symbols symbols, AtomicBoolean failed,
+                                   int from, int to) {
+
+        for (int d = from; d < to && !failed.get(); d++) {
+
+            int start = d > 0 ? ends[d - 1] + 1 : 0;
+            ArrayTokenSource source = new ArrayTokenSource(tokens, start, ends[d] + 1);
+
+            try {
+                defs[d] = new Parser(source, null, symbols).parseDef();
+            } catch (Exception e) {
+                // the sequential parse reports the error
+                failed.set(true);
+                return;
+            }
+
+            if (defs[d] == null || source.position() != ends[d]) {
+                failed.set(true);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parses a range of definitions, ranges are split in halves until they are a single definition or at most
+     * {@code grain} tokens
+     */
+    private static final class DefTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // tasks only live within one parse call and are never serialized
+        private final transient Token[] tokens;
+        private final int[] ends;
+        private final transient Def[] defs;
+        private final transient Symbols symbols;
+        private final AtomicBoolean failed;
+        private final int grain;
+        private final int from;
+        private final int to;
+
+        DefTask(Token[] tokens, int[] ends, Def[] defs, Symbols symbols, AtomicBoolean failed, int grain, int from,
+                int to) {
+            this.tokens = tokens;
+            this.ends = ends;
+            this.defs = defs;
+            this.symbols = symbols;
+            this.failed = failed;
+            this.grain = grain;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            int first = from > 0 ? ends[from - 1] + 1 : 0;
+
+            if (to - from > 1 && ends[to - 1] + 1 - first > grain) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new DefTask(tokens, ends, defs, symbols, failed, grain, from, middle),
+                        new DefTask(tokens, ends, defs, symbols, failed, grain, middle, to)
+                );
+                return;
+            }
+
+            parseRange(tokens, ends, defs, symbols, failed, from, to);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.csci.parser;
 
 import com.csci.grammar.*;
+import com.csci.lexer.ListTokenSource;
 import com.csci.lexer.Token;
+import com.csci.lexer.TokenSource;
 import com.csci.lexer.TokenType;
 
 import java.util.LinkedList;
@@ -9,9 +11,19 @@ import java.util.LinkedList;
 public class Parser implements ParserInterface {
 
     /**
-     * Token list
+     * Token source
      */
-    private LinkedList<Token> tokenList;
+    private final TokenSource tokens;
+
+    /**
+     * Source of the tokens if function bodies are parsed lazily, else null
+     */
+    private final String source;
+
+    /**
+     * Symbols of the program, shared with the parsers of its other definitions and lazy bodies
+     */
+    private final Symbols symbols;
 
     /**
      * lookahead token
@@ -24,16 +36,59 @@ public class Parser implements ParserInterface {
      * @param tokenList token list
      */
     public Parser(LinkedList<Token> tokenList) {
-        this.tokenList = tokenList;
-        lookahead = this.tokenList.getFirst();
+        this(new ListTokenSource(tokenList));
+    }
+
+    /**
+     * Parser constructor
+     *
+     * @param tokens token source, e.g. fed by a lexer running on another thread
+     */
+    public Parser(TokenSource tokens) {
+        this(tokens, null);
+    }
+
+    /**
+     * Parser constructor for lazy parsing, function bodies are only matched for braces and parsed from the
+     * source on their first use. Syntax errors of a body are reported by its first use.
+     *
+     * @param tokenList token list
+     * @param source    source the tokens were lexed from
+     */
+    public Parser(LinkedList<Token> tokenList, String source) {
+        this(new ListTokenSource(tokenList), source);
+    }
+
+    /**
+     * Parser constructor
+     *
+     * @param tokens token source
+     * @param source source the tokens were lexed from to parse function bodies lazily, or null
+     */
+    public Parser(TokenSource tokens, String source) {
+        this(tokens, source, new Symbols());
+    }
+
+    /**
+     * Parser constructor for a part of a program parsed on its own
+     *
+     * @param tokens  token source
+     * @param source  source the tokens were lexed from to parse function bodies lazily, or null
+     * @param symbols symbols of the program
+     */
+    public Parser(TokenSource tokens, String source, Symbols symbols) {
+        this.tokens = tokens;
+        this.source = source;
+        this.symbols = symbols;
+        lookahead = tokens.peek(0);
     }
 
     /**
      * Pop and get first token
      */
     private void nextToken() {
-        tokenList.pop();
-        lookahead = tokenList.getFirst();
+        tokens.pop();
+        lookahead = tokens.peek(0);
     }
 
     /**
@@ -41,12 +96,28 @@ public class Parser implements ParserInterface {
      * @return token at index
      */
     private Token lookahead(Integer index) {
-        if (tokenList.size() > index) {
-            return tokenList.get(index);
+        Token token = tokens.peek(index);
+        if (token != null) {
+            return token;
         }
         return new Token(TokenType.WHITESPACE, "", 0);
     }
 
+    /**
+     * @return symbol of the identifier in the lookahead
+     */
+    private int symbol() {
+        return symbols.intern(lookahead.getData());
+    }
+
+    /**
+     * @return variable of the identifier in the lookahead
+     */
+    private EId eId() {
+        int symbol = symbol();
+        return new EId(symbols.name(symbol), symbol);
+    }
+
     /**
      * Check expected token
      *
@@ -54,11 +125,11 @@ public class Parser implements ParserInterface {
      * @throws Exception syntax exception
      */
     private void expect(TokenType expected) throws Exception {
-        tokenList.pop();
-        if (tokenList.isEmpty()) {
+        tokens.pop();
+        lookahead = tokens.peek(0);
+        if (lookahead == null) {
             throw new Exception(String.format("Parse error: %s expected", expected.name()));
         } else {
-            lookahead = tokenList.getFirst();
             if (lookahead.getType() != expected) {
                 throw new Exception(
                         String.format(
@@ -81,7 +152,7 @@ public class Parser implements ParserInterface {
     @Override
     public Program parseProgram() throws Exception {
         ListDef listDef = parseListDef();
-        return new PDefs(listDef);
+        return new PDefs(listDef, symbols);
     }
 
     /**
@@ -95,16 +166,36 @@ public class Parser implements ParserInterface {
 
         ListDef listDef = new ListDef();
 
-        Def def = parseDef();
+        Def def;
 
-        if (def != null) {
+        while ((def = parseNextDef()) != null) {
             listDef.add(def);
-            listDef.addAll(parseListDef());
         }
 
         return listDef;
     }
 
+    /**
+     * Parse next definition and step over its closing brace, so definitions can be parsed one at a time
+     *
+     * @return Def or null after the last definition
+     * @throws Exception syntax exception
+     */
+    public Def parseNextDef() throws Exception {
+
+        if (lookahead == null) {
+            return null;
+        }
+
+        Def def = parseDef();
+
+        if (def != null && tokens.peek(1) != null) {
+            nextToken();
+        }
+
+        return def;
+    }
+
     /**
      * Parse single definition
      *
@@ -122,10 +213,8 @@ public class Parser implements ParserInterface {
             ListArg listArg = parseListArg();
             expect(TokenType.BRAEND);
             expect(TokenType.SCOPESTART);
-            ListStm listStm = parseListStm();
-            expect(TokenType.SCOPEEND);
 
-            return new DFun(typeInt, functionName, listArg, listStm);
+            return parseFunction(typeInt, functionName, listArg);
 
         } else if (lookahead.is(TokenType.TYPEBOOL)) {
 
@@ -136,10 +225,8 @@ public class Parser implements ParserInterface {
             ListArg listArg = parseListArg();
             expect(TokenType.BRAEND);
             expect(TokenType.SCOPESTART);
-            ListStm listStm = parseListStm();
-            expect(TokenType.SCOPEEND);
 
-            return new DFun(typeBool, functionName, listArg, listStm);
+            return parseFunction(typeBool, functionName, listArg);
 
         } else if (lookahead.is(TokenType.TYPESTRING)) {
 
@@ -150,10 +237,8 @@ public class Parser implements ParserInterface {
             ListArg listArg = parseListArg();
             expect(TokenType.BRAEND);
             expect(TokenType.SCOPESTART);
-            ListStm listStm = parseListStm();
-            expect(TokenType.SCOPEEND);
 
-            return new DFun(typeString, functionName, listArg, listStm);
+            return parseFunction(typeString, functionName, listArg);
 
         } else if (lookahead.is(TokenType.TYPEVOID)) {
 
@@ -164,14 +249,71 @@ public class Parser implements ParserInterface {
             ListArg listArg = parseListArg();
             expect(TokenType.BRAEND);
             expect(TokenType.SCOPESTART);
+
+            return parseFunction(typeVoid, functionName, listArg);
+
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse function body, the lookahead is on its opening brace and is left on its closing brace
+     *
+     * @param type         return type
+     * @param functionName function name
+     * @param listArg      arguments
+     * @return DFun
+     * @throws Exception syntax exception
+     */
+    private DFun parseFunction(Type type, String functionName, ListArg listArg) throws Exception {
+
+        if (source == null) {
             ListStm listStm = parseListStm();
             expect(TokenType.SCOPEEND);
+            return new DFun(type, functionName, listArg, listStm);
+        }
+
+        int start = lookahead.getPosition();
+        int depth = 0;
 
-            return new DFun(typeVoid, functionName, listArg, listStm);
+        while (true) {
 
+            if (lookahead.is(TokenType.SCOPESTART)) {
+                depth++;
+            } else if (lookahead.is(TokenType.SCOPEEND) && --depth == 0) {
+                break;
+            }
+
+            nextToken();
+
+            if (lookahead == null) {
+                throw new Exception(String.format("Parse error: %s expected", TokenType.SCOPEEND.name()));
+            }
         }
 
-        return null;
+        return new DFun(type, functionName, listArg, new LazyBody(source, start, lookahead.getPosition() + 1, symbols));
+    }
+
+    /**
+     * Parse a function body lexed on its own, from its opening to its closing brace
+     *
+     * @return ListStm
+     * @throws Exception syntax exception
+     */
+    ListStm parseBody() throws Exception {
+
+        ListStm listStm = parseListStm();
+        expect(TokenType.SCOPEEND);
+
+        Token next = tokens.peek(1);
+
+        if (next != null) {
+            throw new Exception(String.format("Parse error: Unexpected token \"%s\" at position %d. %s expected.",
+                    next.getData(), next.getPosition(), TokenType.SCOPEEND.name()));
+        }
+
+        return listStm;
     }
 
     /**
@@ -211,7 +353,7 @@ public class Parser implements ParserInterface {
         if (first.is(TokenType.IDENT) && second.is(TokenType.GREATER)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp2 = parseExp();
 
@@ -220,7 +362,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.GREATEROREQUALS)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp2 = parseExp();
 
@@ -229,7 +371,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.LESS)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp2 = parseExp();
 
@@ -238,7 +380,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.LESSOREQUALS)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp2 = parseExp();
 
@@ -247,7 +389,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.EQUALS)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp2 = parseExp();
 
@@ -256,7 +398,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.NOTEQUAL)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp2 = parseExp();
 
@@ -391,7 +533,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.PLUS)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp = parseExp();
             return new EPlus(eId, exp);
@@ -399,7 +541,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.MINUS)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp = parseExp();
             return new EMinus(eId, exp);
@@ -407,7 +549,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.DIV)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp = parseExp();
             return new EDiv(eId, exp);
@@ -415,7 +557,7 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.PROD)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             Exp exp = parseExp();
             return new ETimes(eId, exp);
@@ -423,14 +565,14 @@ public class Parser implements ParserInterface {
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.INCREMENT)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             return new EIncr(eId);
 
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.DECREMENT)) {
 
             nextToken();
-            EId eId = new EId(lookahead.getData());
+            EId eId = eId();
             nextToken();
             return new EDecr(eId);
 
@@ -566,10 +708,64 @@ public class Parser implements ParserInterface {
             Exp exp = parseExp();
             return new EOr(eFalse, exp);
 
+        } else if (basicType(first) != null && second.is(TokenType.ARRSTART)) {
+
+            nextToken();
+            Type type = basicType(lookahead);
+            nextToken();
+            Exp size = parseExp();
+            expect(TokenType.ARREND);
+
+            return parseOperator(new ENewArray(type, size));
+
+        } else if (first.is(TokenType.TYPEMAP)) {
+
+            TypeMap type = parseMapType();
+            expect(TokenType.BRASTART);
+            expect(TokenType.BRAEND);
+
+            return parseOperator(new ENewMap(type));
+
+        } else if (first.is(TokenType.IDENT) && second.is(TokenType.ARRSTART)) {
+
+            nextToken();
+            EId eId = eId();
+            nextToken();
+            Exp index = parseExp();
+            expect(TokenType.ARREND);
+
+            return parseOperator(new EIndex(eId, index));
+
+        } else if (first.is(TokenType.IDENT) && second.is(TokenType.DOT)) {
+
+            nextToken();
+            EId eId = eId();
+            nextToken();
+            expect(TokenType.IDENT);
+            if (lookahead.getData().equals("contains")) {
+
+                expect(TokenType.BRASTART);
+                Exp key = parseExp();
+                expect(TokenType.BRAEND);
+
+                return parseOperator(new EContains(eId, key));
+
+            } else if (!lookahead.getData().equals("length")) {
+                throw new Exception(
+                        String.format(
+                                "Parse error: Unknown property \"%s\" at position %d.",
+                                lookahead.getData(),
+                                lookahead.getPosition()
+                        )
+                );
+            }
+
+            return parseOperator(new ELength(eId));
+
         } else if (first.is(TokenType.IDENT)) {
 
             nextToken();
-            return new EId(lookahead.getData());
+            return eId();
 
         } else if (first.is(TokenType.TRUE)) {
 
@@ -603,6 +799,101 @@ public class Parser implements ParserInterface {
         }
     }
 
+    /**
+     * Parse binary operator following an already parsed operand
+     *
+     * @param exp1 left operand
+     * @return binary expression or the operand itself
+     * @throws Exception syntax exception
+     */
+    private Exp parseOperator(Exp exp1) throws Exception {
+
+        Token first = lookahead(1);
+
+        if (first.is(TokenType.GREATER)) {
+            nextToken();
+            return new EGt(exp1, parseExp());
+        } else if (first.is(TokenType.GREATEROREQUALS)) {
+            nextToken();
+            return new EGtEq(exp1, parseExp());
+        } else if (first.is(TokenType.LESS)) {
+            nextToken();
+            return new ELt(exp1, parseExp());
+        } else if (first.is(TokenType.LESSOREQUALS)) {
+            nextToken();
+            return new ELtEq(exp1, parseExp());
+        } else if (first.is(TokenType.EQUALS)) {
+            nextToken();
+            return new EEq(exp1, parseExp());
+        } else if (first.is(TokenType.NOTEQUAL)) {
+            nextToken();
+            return new ENEq(exp1, parseExp());
+        } else if (first.is(TokenType.PLUS)) {
+            nextToken();
+            return new EPlus(exp1, parseExp());
+        } else if (first.is(TokenType.MINUS)) {
+            nextToken();
+            return new EMinus(exp1, parseExp());
+        } else if (first.is(TokenType.DIV)) {
+            nextToken();
+            return new EDiv(exp1, parseExp());
+        } else if (first.is(TokenType.PROD)) {
+            nextToken();
+            return new ETimes(exp1, parseExp());
+        } else if (first.is(TokenType.AND)) {
+            nextToken();
+            return new EAnd(exp1, parseExp());
+        } else if (first.is(TokenType.OR)) {
+            nextToken();
+            return new EOr(exp1, parseExp());
+        }
+
+        return exp1;
+    }
+
+    /**
+     * Parse map type {@code map<K,V>} with scalar key and value types
+     *
+     * @return TypeMap
+     * @throws Exception syntax exception
+     */
+    private TypeMap parseMapType() throws Exception {
+
+        expect(TokenType.TYPEMAP);
+        expect(TokenType.LESS);
+        nextToken();
+        Type key = basicType(lookahead);
+        expect(TokenType.COMMA);
+        nextToken();
+        Type value = basicType(lookahead);
+        expect(TokenType.GREATER);
+
+        if (key == null || value == null) {
+            throw new Exception("Parse error: Map key and value types expected!");
+        }
+
+        return new TypeMap(key, value);
+    }
+
+    /**
+     * @param token type name token
+     * @return type of scalar values named by token or null
+     */
+    private Type basicType(Token token) {
+
+        if (token.is(TokenType.TYPEINT)) {
+            return new TypeInt();
+        } else if (token.is(TokenType.TYPEFLOAT)) {
+            return new TypeDouble();
+        } else if (token.is(TokenType.TYPEBOOL)) {
+            return new TypeBool();
+        } else if (token.is(TokenType.TYPESTRING)) {
+            return new TypeString();
+        }
+
+        return null;
+    }
+
     /**
      * Parse statement list
      *
@@ -673,17 +964,91 @@ public class Parser implements ParserInterface {
             return new SWhile(condition, stmts);
 
 
+        } else if (first.is(TokenType.FOR)) {
+
+            nextToken();
+            expect(TokenType.BRASTART);
+            Stm init = parseStm();
+            if (init == null) {
+                throw new Exception("Parse error: Loop variable initialization expected!");
+            }
+            Exp condition = parseExp();
+            expect(TokenType.SEMICOLON);
+            Exp step = parseExp();
+            expect(TokenType.BRAEND);
+            expect(TokenType.SCOPESTART);
+            ListStm stmts = parseListStm();
+            expect(TokenType.SCOPEEND);
+
+            return new SFor(init, condition, step, stmts);
+
+
+        } else if (first.is(TokenType.TYPEMAP)) {
+
+            TypeMap typeMap = parseMapType();
+            expect(TokenType.IDENT);
+            int varName = symbol();
+
+            if (lookahead(1).is(TokenType.ASSIGNMENT)) {
+
+                nextToken();
+                Exp exp = parseExp();
+                expect(TokenType.SEMICOLON);
+
+                return new SInit(typeMap, symbols.name(varName), varName, exp);
+            }
+
+            expect(TokenType.SEMICOLON);
+
+            return new SDecls(typeMap, symbols.name(varName), varName);
+
+        } else if (first.is(TokenType.OFFHEAP)) {
+
+            nextToken();
+            Stm stm = parseStm();
+
+            if (!(stm instanceof SInit) || !(((SInit) stm).exp_ instanceof ENewArray)) {
+                throw new Exception("Parse error: offheap requires an array declaration initialized with a new array!");
+            }
+
+            SInit sInit = (SInit) stm;
+            ENewArray eNewArray = (ENewArray) sInit.exp_;
+
+            return new SInit(sInit.type_, sInit.id_, sInit.symbol_, new ENewArray(eNewArray.type_, eNewArray.exp_, true));
+
+        } else if (basicType(first) != null && second.is(TokenType.ARRSTART) && third.is(TokenType.ARREND)) {
+
+            nextToken();
+            TypeArray typeArray = new TypeArray(basicType(lookahead));
+            nextToken();
+            nextToken();
+            expect(TokenType.IDENT);
+            int varName = symbol();
+
+            if (lookahead(1).is(TokenType.ASSIGNMENT)) {
+
+                nextToken();
+                Exp exp = parseExp();
+                expect(TokenType.SEMICOLON);
+
+                return new SInit(typeArray, symbols.name(varName), varName, exp);
+            }
+
+            expect(TokenType.SEMICOLON);
+
+            return new SDecls(typeArray, symbols.name(varName), varName);
+
         } else if (first.is(TokenType.TYPEINT) && second.is(TokenType.IDENT) && third.is(TokenType.ASSIGNMENT)) {
 
             nextToken();
             TypeInt typeInt = new TypeInt();
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
             Exp exp = parseExp();
             expect(TokenType.SEMICOLON);
 
-            return new SInit(typeInt, varName, exp);
+            return new SInit(typeInt, symbols.name(varName), varName, exp);
 
 
         } else if (first.is(TokenType.TYPEBOOL) && second.is(TokenType.IDENT) && third.is(TokenType.ASSIGNMENT)) {
@@ -691,12 +1056,12 @@ public class Parser implements ParserInterface {
             nextToken();
             TypeBool typeBool = new TypeBool();
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
             Exp exp = parseExp();
             expect(TokenType.SEMICOLON);
 
-            return new SInit(typeBool, varName, exp);
+            return new SInit(typeBool, symbols.name(varName), varName, exp);
 
 
         } else if (first.is(TokenType.TYPEFLOAT) && second.is(TokenType.IDENT) && third.is(TokenType.ASSIGNMENT)) {
@@ -704,12 +1069,12 @@ public class Parser implements ParserInterface {
             nextToken();
             TypeDouble typeDouble = new TypeDouble();
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
             Exp exp = parseExp();
             expect(TokenType.SEMICOLON);
 
-            return new SInit(typeDouble, varName, exp);
+            return new SInit(typeDouble, symbols.name(varName), varName, exp);
 
 
         } else if (first.is(TokenType.TYPESTRING) && second.is(TokenType.IDENT) && third.is(TokenType.ASSIGNMENT)) {
@@ -717,22 +1082,22 @@ public class Parser implements ParserInterface {
             nextToken();
             TypeString typeString = new TypeString();
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
             Exp exp = parseExp();
             expect(TokenType.SEMICOLON);
 
-            return new SInit(typeString, varName, exp);
+            return new SInit(typeString, symbols.name(varName), varName, exp);
 
         } else if (first.is(TokenType.TYPEINT) && second.is(TokenType.IDENT) && third.is(TokenType.SEMICOLON)) {
 
             nextToken();
             TypeInt typeInt = new TypeInt();
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
 
-            return new SDecls(typeInt, varName);
+            return new SDecls(typeInt, symbols.name(varName), varName);
 
 
         } else if (first.is(TokenType.TYPEBOOL) && second.is(TokenType.IDENT) && third.is(TokenType.SEMICOLON)) {
@@ -740,10 +1105,10 @@ public class Parser implements ParserInterface {
             nextToken();
             TypeBool typeBool = new TypeBool();
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
 
-            return new SDecls(typeBool, varName);
+            return new SDecls(typeBool, symbols.name(varName), varName);
 
 
         } else if (first.is(TokenType.TYPEFLOAT) && second.is(TokenType.IDENT) && third.is(TokenType.SEMICOLON)) {
@@ -751,10 +1116,10 @@ public class Parser implements ParserInterface {
             nextToken();
             TypeDouble typeDouble = new TypeDouble();
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
 
-            return new SDecls(typeDouble, varName);
+            return new SDecls(typeDouble, symbols.name(varName), varName);
 
 
         } else if (first.is(TokenType.TYPESTRING) && second.is(TokenType.IDENT) && third.is(TokenType.SEMICOLON)) {
@@ -762,20 +1127,42 @@ public class Parser implements ParserInterface {
             nextToken();
             TypeString typeString = new TypeString();
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
 
-            return new SDecls(typeString, varName);
+            return new SDecls(typeString, symbols.name(varName), varName);
+
+        } else if (first.is(TokenType.IDENT) && second.is(TokenType.ARRSTART)) {
+
+            nextToken();
+            int varName = symbol();
+            nextToken();
+            Exp index = parseExp();
+            expect(TokenType.ARREND);
+
+            if (lookahead(1).is(TokenType.ASSIGNMENT)) {
+
+                nextToken();
+                Exp exp = parseExp();
+                expect(TokenType.SEMICOLON);
+
+                return new SIndexAss(symbols.name(varName), varName, index, exp);
+            }
+
+            Exp exp = parseOperator(new EIndex(new EId(symbols.name(varName), varName), index));
+            expect(TokenType.SEMICOLON);
+
+            return new SExp(exp);
 
         } else if (first.is(TokenType.IDENT) && second.is(TokenType.ASSIGNMENT)) {
 
             nextToken();
-            String varName = lookahead.getData();
+            int varName = symbol();
             nextToken();
             Exp exp = parseExp();
             expect(TokenType.SEMICOLON);
 
-            return new SAss(varName, exp);
+            return new SAss(symbols.name(varName), varName, exp);
 
         } else if (first.is(TokenType.IDENT)) {
 
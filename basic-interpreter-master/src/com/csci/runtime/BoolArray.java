@@ -0,0 +1,54 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeBool;
+
+/**
+ * Array backed by a Java {@code boolean[]}
+ */
+public class BoolArray extends ScriptArray {
+
+    private final boolean[] data;
+
+    public BoolArray(int length) {
+        data = new boolean[length];
+    }
+
+    /**
+     * Wrap existing storage without copying, e.g. an input column of a batch
+     *
+     * @param data elements
+     */
+    public BoolArray(boolean[] data) {
+        this.data = data;
+    }
+
+    public boolean getBool(int index) {
+        return data[index];
+    }
+
+    public void setBool(int index, boolean value) {
+        data[index] = value;
+    }
+
+    @Override
+    public Type elementType() {
+        return new TypeBool();
+    }
+
+    @Override
+    public int length() {
+        return data.length;
+    }
+
+    @Override
+    public CustomObject get(int index) {
+        return new CustomObject(new TypeBool(), data[index]);
+    }
+
+    @Override
+    public void set(int index, CustomObject value) {
+        data[index] = (Boolean) value.value;
+    }
+}
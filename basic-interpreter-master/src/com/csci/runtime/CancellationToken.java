@@ -0,0 +1,25 @@
+package com.csci.runtime;
+
+/**
+ * Request to abandon runs from another thread. Evaluators poll the token at loop back edges and function
+ * entries, so a cancelled run stops within a bounded number of iterations without interrupting its thread.
+ * One token may be shared by any number of runs.
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Cancel all runs observing this token, they fail with {@link EvaluationCancelledException}
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true once {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,54 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeDouble;
+
+/**
+ * Array backed by a Java {@code double[]}
+ */
+public class DoubleArray extends ScriptArray {
+
+    private final double[] data;
+
+    public DoubleArray(int length) {
+        data = new double[length];
+    }
+
+    /**
+     * Wrap existing storage without copying, e.g. an input column of a batch
+     *
+     * @param data elements
+     */
+    public DoubleArray(double[] data) {
+        this.data = data;
+    }
+
+    public double getDouble(int index) {
+        return data[index];
+    }
+
+    public void setDouble(int index, double value) {
+        data[index] = value;
+    }
+
+    @Override
+    public Type elementType() {
+        return new TypeDouble();
+    }
+
+    @Override
+    public int length() {
+        return data.length;
+    }
+
+    @Override
+    public CustomObject get(int index) {
+        return new CustomObject(new TypeDouble(), data[index]);
+    }
+
+    @Override
+    public void set(int index, CustomObject value) {
+        data[index] = (Double) value.value;
+    }
+}
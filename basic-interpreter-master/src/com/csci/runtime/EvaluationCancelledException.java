@@ -0,0 +1,17 @@
+package com.csci.runtime;
+
+/**
+ * Thrown when a run is abandoned because its {@link CancellationToken} was cancelled
+ */
+public class EvaluationCancelledException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public EvaluationCancelledException() {
+        super("Evaluation cancelled!");
+    }
+
+    protected EvaluationCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.csci.runtime;
+
+/**
+ * Thrown when a run has burnt all of its fuel
+ */
+public class FuelExhaustedException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long consumed;
+
+    public FuelExhaustedException(long consumed) {
+        super("Fuel exhausted after " + consumed + " units!");
+        this.consumed = consumed;
+    }
+
+    /**
+     * @return fuel burnt by the run
+     */
+    public long consumed() {
+        return consumed;
+    }
+}
@@ -0,0 +1,54 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeInt;
+
+/**
+ * Array backed by a Java {@code int[]}
+ */
+public class IntArray extends ScriptArray {
+
+    private final int[] data;
+
+    public IntArray(int length) {
+        data = new int[length];
+    }
+
+    /**
+     * Wrap existing storage without copying, e.g. an input column of a batch
+     *
+     * @param data elements
+     */
+    public IntArray(int[] data) {
+        this.data = data;
+    }
+
+    public int getInt(int index) {
+        return data[index];
+    }
+
+    public void setInt(int index, int value) {
+        data[index] = value;
+    }
+
+    @Override
+    public Type elementType() {
+        return new TypeInt();
+    }
+
+    @Override
+    public int length() {
+        return data.length;
+    }
+
+    @Override
+    public CustomObject get(int index) {
+        return new CustomObject(new TypeInt(), data[index]);
+    }
+
+    @Override
+    public void set(int index, CustomObject value) {
+        data[index] = (Integer) value.value;
+    }
+}
@@ -0,0 +1,232 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeInt;
+
+/**
+ * Map with {@code int} keys kept unboxed in an {@code int[]}
+ */
+public class IntKeyMap extends ScriptMap {
+
+    private Table table;
+
+    /**
+     * Table being drained into {@code table} during a resize, null otherwise
+     */
+    private Table old;
+
+    private int migrated;
+
+    private int size;
+
+    public IntKeyMap(Type valueType) {
+        super(new TypeInt(), valueType);
+        table = new Table(INITIAL_CAPACITY, objectValues);
+    }
+
+    /**
+     * @param key key
+     * @return value or null if the key is absent
+     */
+    public CustomObject getInt(int key) {
+
+        migrate();
+
+        int slot = table.find(key);
+
+        if (slot >= 0) {
+            return load(table, slot);
+        }
+
+        if (old != null && (slot = old.find(key)) >= 0) {
+            return load(old, slot);
+        }
+
+        return null;
+    }
+
+    /**
+     * @param key key
+     * @return true if the map holds the key
+     */
+    public boolean containsInt(int key) {
+
+        migrate();
+
+        return table.find(key) >= 0 || (old != null && old.find(key) >= 0);
+    }
+
+    /**
+     * @param key   key
+     * @param value value of matching type
+     */
+    public void putInt(int key, CustomObject value) {
+
+        migrate();
+
+        int slot = table.find(key);
+
+        if (slot >= 0) {
+            store(table, slot, value);
+            return;
+        }
+
+        if (old != null) {
+
+            int oldSlot = old.find(key);
+
+            if (oldSlot >= 0) {
+                store(old, oldSlot, value);
+                return;
+            }
+        }
+
+        slot = -slot - 1;
+        table.keys[slot] = key;
+        table.states[slot] = FULL;
+        store(table, slot, value);
+        size++;
+
+        if (old == null && size > table.threshold) {
+            old = table;
+            table = new Table(old.keys.length * 2, objectValues);
+            migrated = 0;
+        }
+    }
+
+    private CustomObject load(Table source, int slot) {
+        return objectValues ? value(0, source.objects[slot]) : value(source.values[slot], null);
+    }
+
+    private void store(Table target, int slot, CustomObject value) {
+        if (objectValues) {
+            target.objects[slot] = value.value;
+        } else {
+            target.values[slot] = bits(value);
+        }
+    }
+
+    /**
+     * Move the next {@link #MIGRATE_STEP} slots of the old table, if any
+     */
+    private void migrate() {
+
+        if (old == null) {
+            return;
+        }
+
+        int end = Math.min(migrated + MIGRATE_STEP, old.keys.length);
+
+        for (; migrated < end; migrated++) {
+
+            if (old.states[migrated] != FULL) {
+                continue;
+            }
+
+            int slot = -table.find(old.keys[migrated]) - 1;
+            table.keys[slot] = old.keys[migrated];
+            table.states[slot] = FULL;
+            if (objectValues) {
+                table.objects[slot] = old.objects[migrated];
+            } else {
+                table.values[slot] = old.values[migrated];
+            }
+            old.states[migrated] = MOVED;
+        }
+
+        if (migrated == old.keys.length) {
+            old = null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public CustomObject get(CustomObject key) {
+        return getInt((Integer) key.value);
+    }
+
+    @Override
+    public boolean contains(CustomObject key) {
+        return containsInt((Integer) key.value);
+    }
+
+    @Override
+    public void put(CustomObject key, CustomObject value) {
+        putInt((Integer) key.value, value);
+    }
+
+    @Override
+    protected void appendEntries(StringBuilder builder) {
+
+        boolean first = true;
+
+        for (Table source : new Table[]{table, old}) {
+
+            if (source == null) {
+                continue;
+            }
+
+            for (int i = 0; i < source.keys.length; i++) {
+
+                if (source.states[i] != FULL) {
+                    continue;
+                }
+
+                if (!first) {
+                    builder.append(", ");
+                }
+                first = false;
+
+                builder.append(source.keys[i]).append('=')
+                        .append(load(source, i).value);
+            }
+        }
+    }
+
+    /**
+     * Linear probing table, capacity is a power of two
+     */
+    private static final class Table {
+
+        final int[] keys;
+        final byte[] states;
+        final long[] values;
+        final Object[] objects;
+        final int mask;
+        final int threshold;
+
+        Table(int capacity, boolean objectValues) {
+            keys = new int[capacity];
+            states = new byte[capacity];
+            values = objectValues ? null : new long[capacity];
+            objects = objectValues ? new Object[capacity] : null;
+            mask = capacity - 1;
+            threshold = capacity / 4 * 3;
+        }
+
+        /**
+         * @param key key
+         * @return slot holding the key, or {@code -slot - 1} of the empty slot ending the probe sequence
+         */
+        int find(int key) {
+
+            int slot = mix(key) & mask;
+
+            while (states[slot] != EMPTY) {
+
+                if (states[slot] == FULL && keys[slot] == key) {
+                    return slot;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            return -slot - 1;
+        }
+    }
+}
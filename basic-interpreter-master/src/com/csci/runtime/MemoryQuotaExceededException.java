@@ -0,0 +1,23 @@
+package com.csci.runtime;
+
+/**
+ * Thrown when a run allocates more than its memory quota
+ */
+public class MemoryQuotaExceededException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long allocated;
+
+    public MemoryQuotaExceededException(long quota, long allocated) {
+        super("Memory quota of " + quota + " bytes exceeded, allocated " + allocated + " bytes!");
+        this.allocated = allocated;
+    }
+
+    /**
+     * @return bytes allocated by the run including the failed allocation
+     */
+    public long allocated() {
+        return allocated;
+    }
+}
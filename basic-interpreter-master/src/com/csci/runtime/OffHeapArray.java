@@ -0,0 +1,82 @@
+package com.csci.runtime;
+
+import com.csci.grammar.*;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Array stored outside the Java heap in a {@link MemorySegment}. The segment is owned by the
+ * {@link Arena} of the evaluation that created it and is freed when that arena is closed.
+ */
+public abstract class OffHeapArray extends ScriptArray {
+
+    protected final MemorySegment segment;
+    private final int length;
+
+    protected OffHeapArray(MemorySegment segment, int length) {
+        this.segment = segment;
+        this.length = length;
+    }
+
+    /**
+     * Allocate zero filled off-heap array of given element type
+     *
+     * @param elementType element type
+     * @param length      number of elements
+     * @param arena       arena owning the memory
+     * @return array filled with default values
+     * @throws Exception if the element type can not be stored off-heap
+     */
+    public static OffHeapArray allocate(Type elementType, int length, Arena arena) throws Exception {
+
+        if (elementType instanceof TypeInt) {
+            return new OffHeapIntArray(allocate(ValueLayout.JAVA_INT, length, arena), length);
+        } else if (elementType instanceof TypeDouble) {
+            return new OffHeapDoubleArray(allocate(ValueLayout.JAVA_DOUBLE, length, arena), length);
+        } else if (elementType instanceof TypeBool) {
+            return new OffHeapBoolArray(allocate(ValueLayout.JAVA_BYTE, length, arena), length);
+        }
+
+        throw new Exception("Type error: " + elementType + " arrays can not be stored off-heap");
+    }
+
+    private static MemorySegment allocate(ValueLayout layout, int length, Arena arena) {
+        return arena.allocate(layout.byteSize() * length, layout.byteAlignment());
+    }
+
+    /**
+     * @return true until the owning arena is closed
+     */
+    public boolean isAlive() {
+        return segment.scope().isAlive();
+    }
+
+    /**
+     * Copy elements into on-heap storage, used for values that outlive the evaluation
+     *
+     * @return on-heap copy
+     * @throws Exception if the element type can not be stored in an array
+     */
+    public ScriptArray toHeap() throws Exception {
+
+        ScriptArray heap = ScriptArray.allocate(elementType(), length);
+
+        for (int i = 0; i < length; i++) {
+            heap.set(i, get(i));
+        }
+
+        return heap;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return isAlive() ? super.toString() : "[freed]";
+    }
+}
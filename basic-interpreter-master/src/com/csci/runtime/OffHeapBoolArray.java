@@ -0,0 +1,41 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeBool;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Off-heap array of booleans stored as one byte each
+ */
+public class OffHeapBoolArray extends OffHeapArray {
+
+    public OffHeapBoolArray(MemorySegment segment, int length) {
+        super(segment, length);
+    }
+
+    public boolean getBool(int index) {
+        return segment.getAtIndex(ValueLayout.JAVA_BYTE, index) != 0;
+    }
+
+    public void setBool(int index, boolean value) {
+        segment.setAtIndex(ValueLayout.JAVA_BYTE, index, (byte) (value ? 1 : 0));
+    }
+
+    @Override
+    public Type elementType() {
+        return new TypeBool();
+    }
+
+    @Override
+    public CustomObject get(int index) {
+        return new CustomObject(new TypeBool(), getBool(index));
+    }
+
+    @Override
+    public void set(int index, CustomObject value) {
+        setBool(index, (Boolean) value.value);
+    }
+}
@@ -0,0 +1,41 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeDouble;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Off-heap array of native {@code double} elements
+ */
+public class OffHeapDoubleArray extends OffHeapArray {
+
+    public OffHeapDoubleArray(MemorySegment segment, int length) {
+        super(segment, length);
+    }
+
+    public double getDouble(int index) {
+        return segment.getAtIndex(ValueLayout.JAVA_DOUBLE, index);
+    }
+
+    public void setDouble(int index, double value) {
+        segment.setAtIndex(ValueLayout.JAVA_DOUBLE, index, value);
+    }
+
+    @Override
+    public Type elementType() {
+        return new TypeDouble();
+    }
+
+    @Override
+    public CustomObject get(int index) {
+        return new CustomObject(new TypeDouble(), getDouble(index));
+    }
+
+    @Override
+    public void set(int index, CustomObject value) {
+        setDouble(index, (Double) value.value);
+    }
+}
@@ -0,0 +1,41 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeInt;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Off-heap array of native {@code int} elements
+ */
+public class OffHeapIntArray extends OffHeapArray {
+
+    public OffHeapIntArray(MemorySegment segment, int length) {
+        super(segment, length);
+    }
+
+    public int getInt(int index) {
+        return segment.getAtIndex(ValueLayout.JAVA_INT, index);
+    }
+
+    public void setInt(int index, int value) {
+        segment.setAtIndex(ValueLayout.JAVA_INT, index, value);
+    }
+
+    @Override
+    public Type elementType() {
+        return new TypeInt();
+    }
+
+    @Override
+    public CustomObject get(int index) {
+        return new CustomObject(new TypeInt(), getInt(index));
+    }
+
+    @Override
+    public void set(int index, CustomObject value) {
+        setInt(index, (Integer) value.value);
+    }
+}
@@ -0,0 +1,82 @@
+package com.csci.runtime;
+
+import com.csci.grammar.*;
+
+/**
+ * Script array value. Elements are kept in primitive storage and only boxed
+ * into {@link CustomObject} when they are read by the evaluator.
+ */
+public abstract class ScriptArray {
+
+    /**
+     * Allocate array of given element type
+     *
+     * @param elementType element type
+     * @param length      number of elements
+     * @return array filled with default values
+     * @throws Exception if the element type can not be stored in an array
+     */
+    public static ScriptArray allocate(Type elementType, int length) throws Exception {
+
+        if (elementType instanceof TypeInt) {
+            return new IntArray(length);
+        } else if (elementType instanceof TypeDouble) {
+            return new DoubleArray(length);
+        } else if (elementType instanceof TypeBool) {
+            return new BoolArray(length);
+        } else if (elementType instanceof TypeString) {
+            return new StringArray(length);
+        }
+
+        throw new Exception("Type error: " + elementType + " arrays are not supported");
+    }
+
+    /**
+     * @return element type
+     */
+    public abstract Type elementType();
+
+    /**
+     * @return number of elements
+     */
+    public abstract int length();
+
+    /**
+     * Read element without range check, the backing storage still traps invalid indices
+     *
+     * @param index element index
+     * @return element value
+     */
+    public abstract CustomObject get(int index);
+
+    /**
+     * Write element without range check, value type has to match the element type
+     *
+     * @param index element index
+     * @param value element value
+     */
+    public abstract void set(int index, CustomObject value);
+
+    /**
+     * @param type value type
+     * @return true if values of the type can be stored in this array
+     */
+    public boolean accepts(Type type) {
+        return type != null && type.getClass() == elementType().getClass();
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder builder = new StringBuilder("[");
+
+        for (int i = 0; i < length(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(get(i).value);
+        }
+
+        return builder.append("]").toString();
+    }
+}
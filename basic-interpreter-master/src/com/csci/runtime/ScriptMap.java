@@ -0,0 +1,174 @@
+package com.csci.runtime;
+
+import com.csci.grammar.*;
+
+/**
+ * Script map value. Entries live in open addressing hash tables specialized by key type,
+ * scalar values are stored as raw {@code long} bits and only boxed into {@link CustomObject} when read.
+ * Growing the table is spread over the following operations instead of rehashing all entries at once.
+ */
+public abstract class ScriptMap {
+
+    protected static final byte EMPTY = 0;
+    protected static final byte FULL = 1;
+    protected static final byte MOVED = 2;
+
+    protected static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Slots of the old table migrated per operation while a resize is in progress
+     */
+    protected static final int MIGRATE_STEP = 16;
+
+    private final Type keyType;
+    private final Type valueType;
+
+    protected final boolean objectValues;
+
+    protected ScriptMap(Type keyType, Type valueType) {
+        this.keyType = keyType;
+        this.valueType = valueType;
+        this.objectValues = valueType instanceof TypeString;
+    }
+
+    /**
+     * Allocate empty map
+     *
+     * @param keyType   key type
+     * @param valueType value type
+     * @return empty map
+     * @throws Exception if keys or values of the given types can not be stored
+     */
+    public static ScriptMap allocate(Type keyType, Type valueType) throws Exception {
+
+        if (!(valueType instanceof TypeInt || valueType instanceof TypeDouble
+                || valueType instanceof TypeBool || valueType instanceof TypeString)) {
+            throw new Exception("Type error: " + valueType + " map values are not supported");
+        }
+
+        if (keyType instanceof TypeInt) {
+            return new IntKeyMap(valueType);
+        } else if (keyType instanceof TypeString) {
+            return new StringKeyMap(valueType);
+        }
+
+        throw new Exception("Type error: " + keyType + " map keys are not supported");
+    }
+
+    public Type keyType() {
+        return keyType;
+    }
+
+    public Type valueType() {
+        return valueType;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public abstract int size();
+
+    /**
+     * @param key key of matching type
+     * @return value or null if the key is absent
+     */
+    public abstract CustomObject get(CustomObject key);
+
+    /**
+     * @param key key of matching type
+     * @return true if the map holds the key
+     */
+    public abstract boolean contains(CustomObject key);
+
+    /**
+     * Insert or replace entry, key and value types have to match the map
+     *
+     * @param key   key
+     * @param value value
+     */
+    public abstract void put(CustomObject key, CustomObject value);
+
+    /**
+     * Append {@code key=value} pairs separated by commas
+     *
+     * @param builder target
+     */
+    protected abstract void appendEntries(StringBuilder builder);
+
+    /**
+     * @param type map type
+     * @return true if this map can be stored in a variable of the type
+     */
+    public boolean accepts(TypeMap type) {
+        return type.key_.getClass() == keyType.getClass() && type.value_.getClass() == valueType.getClass();
+    }
+
+    /**
+     * @param type key type
+     * @return true if keys of the type can be looked up
+     */
+    public boolean acceptsKey(Type type) {
+        return type != null && type.getClass() == keyType.getClass();
+    }
+
+    /**
+     * @param type value type
+     * @return true if values of the type can be stored
+     */
+    public boolean acceptsValue(Type type) {
+        return type != null && type.getClass() == valueType.getClass();
+    }
+
+    /**
+     * @param value scalar value
+     * @return raw bits of value
+     */
+    protected long bits(CustomObject value) {
+
+        if (valueType instanceof TypeDouble) {
+            return Double.doubleToRawLongBits((Double) value.value);
+        } else if (valueType instanceof TypeBool) {
+            return (Boolean) value.value ? 1 : 0;
+        }
+
+        return (Integer) value.value;
+    }
+
+    /**
+     * @param bits   raw bits of scalar value
+     * @param object string value
+     * @return boxed value
+     */
+    protected CustomObject value(long bits, Object object) {
+
+        if (objectValues) {
+            return new CustomObject(new TypeString(), object);
+        } else if (valueType instanceof TypeDouble) {
+            return new CustomObject(new TypeDouble(), Double.longBitsToDouble(bits));
+        } else if (valueType instanceof TypeBool) {
+            return new CustomObject(new TypeBool(), bits != 0);
+        }
+
+        return new CustomObject(new TypeInt(), (int) bits);
+    }
+
+    /**
+     * Spread hash bits over the low bits used for slot selection
+     *
+     * @param hash hash code
+     * @return mixed hash
+     */
+    protected static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder builder = new StringBuilder("{");
+        appendEntries(builder);
+
+        return builder.append("}").toString();
+    }
+}
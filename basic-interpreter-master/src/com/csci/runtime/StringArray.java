@@ -0,0 +1,57 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeString;
+
+import java.util.Arrays;
+
+/**
+ * Array backed by a Java {@code String[]}, elements start out as empty strings
+ */
+public class StringArray extends ScriptArray {
+
+    private final String[] data;
+
+    public StringArray(int length) {
+        data = new String[length];
+        Arrays.fill(data, "");
+    }
+
+    /**
+     * Wrap existing storage without copying, e.g. an input column of a batch
+     *
+     * @param data elements, none of them null
+     */
+    public StringArray(String[] data) {
+        this.data = data;
+    }
+
+    public String getString(int index) {
+        return data[index];
+    }
+
+    public void setString(int index, String value) {
+        data[index] = value;
+    }
+
+    @Override
+    public Type elementType() {
+        return new TypeString();
+    }
+
+    @Override
+    public int length() {
+        return data.length;
+    }
+
+    @Override
+    public CustomObject get(int index) {
+        return new CustomObject(new TypeString(), data[index]);
+    }
+
+    @Override
+    public void set(int index, CustomObject value) {
+        data[index] = value.value.toString();
+    }
+}
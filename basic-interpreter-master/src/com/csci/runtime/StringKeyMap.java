@@ -0,0 +1,241 @@
+package com.csci.runtime;
+
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeString;
+
+/**
+ * Map with {@code string} keys, their hash codes are cached next to them to skip most comparisons
+ */
+public class StringKeyMap extends ScriptMap {
+
+    private Table table;
+
+    /**
+     * Table being drained into {@code table} during a resize, null otherwise
+     */
+    private Table old;
+
+    private int migrated;
+
+    private int size;
+
+    public StringKeyMap(Type valueType) {
+        super(new TypeString(), valueType);
+        table = new Table(INITIAL_CAPACITY, objectValues);
+    }
+
+    /**
+     * @param key key
+     * @return value or null if the key is absent
+     */
+    public CustomObject getString(String key) {
+
+        migrate();
+
+        int hash = mix(key.hashCode());
+        int slot = table.find(key, hash);
+
+        if (slot >= 0) {
+            return load(table, slot);
+        }
+
+        if (old != null && (slot = old.find(key, hash)) >= 0) {
+            return load(old, slot);
+        }
+
+        return null;
+    }
+
+    /**
+     * @param key key
+     * @return true if the map holds the key
+     */
+    public boolean containsString(String key) {
+
+        migrate();
+
+        int hash = mix(key.hashCode());
+
+        return table.find(key, hash) >= 0 || (old != null && old.find(key, hash) >= 0);
+    }
+
+    /**
+     * @param key   key
+     * @param value value of matching type
+     */
+    public void putString(String key, CustomObject value) {
+
+        migrate();
+
+        int hash = mix(key.hashCode());
+        int slot = table.find(key, hash);
+
+        if (slot >= 0) {
+            store(table, slot, value);
+            return;
+        }
+
+        if (old != null) {
+
+            int oldSlot = old.find(key, hash);
+
+            if (oldSlot >= 0) {
+                store(old, oldSlot, value);
+                return;
+            }
+        }
+
+        slot = -slot - 1;
+        table.keys[slot] = key;
+        table.hashes[slot] = hash;
+        table.states[slot] = FULL;
+        store(table, slot, value);
+        size++;
+
+        if (old == null && size > table.threshold) {
+            old = table;
+            table = new Table(old.keys.length * 2, objectValues);
+            migrated = 0;
+        }
+    }
+
+    private CustomObject load(Table source, int slot) {
+        return objectValues ? value(0, source.objects[slot]) : value(source.values[slot], null);
+    }
+
+    private void store(Table target, int slot, CustomObject value) {
+        if (objectValues) {
+            target.objects[slot] = value.value;
+        } else {
+            target.values[slot] = bits(value);
+        }
+    }
+
+    /**
+     * Move the next {@link #MIGRATE_STEP} slots of the old table, if any
+     */
+    private void migrate() {
+
+        if (old == null) {
+            return;
+        }
+
+        int end = Math.min(migrated + MIGRATE_STEP, old.keys.length);
+
+        for (; migrated < end; migrated++) {
+
+            if (old.states[migrated] != FULL) {
+                continue;
+            }
+
+            int slot = -table.find(old.keys[migrated], old.hashes[migrated]) - 1;
+            table.keys[slot] = old.keys[migrated];
+            table.hashes[slot] = old.hashes[migrated];
+            table.states[slot] = FULL;
+            if (objectValues) {
+                table.objects[slot] = old.objects[migrated];
+            } else {
+                table.values[slot] = old.values[migrated];
+            }
+            old.states[migrated] = MOVED;
+        }
+
+        if (migrated == old.keys.length) {
+            old = null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public CustomObject get(CustomObject key) {
+        return getString((String) key.value);
+    }
+
+    @Override
+    public boolean contains(CustomObject key) {
+        return containsString((String) key.value);
+    }
+
+    @Override
+    public void put(CustomObject key, CustomObject value) {
+        putString((String) key.value, value);
+    }
+
+    @Override
+    protected void appendEntries(StringBuilder builder) {
+
+        boolean first = true;
+
+        for (Table source : new Table[]{table, old}) {
+
+            if (source == null) {
+                continue;
+            }
+
+            for (int i = 0; i < source.keys.length; i++) {
+
+                if (source.states[i] != FULL) {
+                    continue;
+                }
+
+                if (!first) {
+                    builder.append(", ");
+                }
+                first = false;
+
+                builder.append(source.keys[i]).append('=')
+                        .append(load(source, i).value);
+            }
+        }
+    }
+
+    /**
+     * Linear probing table, capacity is a power of two
+     */
+    private static final class Table {
+
+        final String[] keys;
+        final int[] hashes;
+        final byte[] states;
+        final long[] values;
+        final Object[] objects;
+        final int mask;
+        final int threshold;
+
+        Table(int capacity, boolean objectValues) {
+            keys = new String[capacity];
+            hashes = new int[capacity];
+            states = new byte[capacity];
+            values = objectValues ? null : new long[capacity];
+            objects = objectValues ? new Object[capacity] : null;
+            mask = capacity - 1;
+            threshold = capacity / 4 * 3;
+        }
+
+        /**
+         * @param key  key
+         * @param hash mixed hash code of key
+         * @return slot holding the key, or {@code -slot - 1} of the empty slot ending the probe sequence
+         */
+        int find(String key, int hash) {
+
+            int slot = hash & mask;
+
+            while (states[slot] != EMPTY) {
+
+                if (states[slot] == FULL && hashes[slot] == hash && keys[slot].equals(key)) {
+                    return slot;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            return -slot - 1;
+        }
+    }
+}
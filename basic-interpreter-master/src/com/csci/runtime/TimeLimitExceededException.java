@@ -0,0 +1,13 @@
+package com.csci.runtime;
+
+/**
+ * Thrown when a run is still going at its deadline
+ */
+public class TimeLimitExceededException extends EvaluationCancelledException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TimeLimitExceededException() {
+        super("Time limit exceeded!");
+    }
+}
@@ -0,0 +1,70 @@
+package com.csci.script;
+
+import com.csci.engine.CompiledProgram;
+import com.csci.visitor.Evaluator;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+/**
+ * Script compiled once by {@link BasicScriptEngine#compile(String)}. Every evaluation runs in its own
+ * evaluator, so one instance can be evaluated by any number of threads at once. Evaluations of one context
+ * run one at a time as they store into its engine scope, concurrent evaluations pass their own bindings,
+ * e.g. to {@link #eval(javax.script.Bindings)}.
+ */
+public class BasicCompiledScript extends CompiledScript {
+
+    private final BasicScriptEngine engine;
+    private final CompiledProgram program;
+
+    BasicCompiledScript(BasicScriptEngine engine, CompiledProgram program) {
+        this.engine = engine;
+        this.program = program;
+    }
+
+    /**
+     * @return compiled program
+     */
+    public CompiledProgram program() {
+        return program;
+    }
+
+    /**
+     * Evaluate program with variables of the context, reassigned engine scope variables are stored back.
+     * Holds the lock of the context while evaluating, so another evaluation of it waits.
+     *
+     * @param context script context
+     * @return value of the program converted to Java
+     * @throws ScriptException evaluation exception
+     */
+    @Override
+    public Object eval(ScriptContext context) throws ScriptException {
+
+        synchronized (context) {
+
+            Evaluator evaluator = new Evaluator();
+            ScriptValues.bind(context, evaluator);
+
+            Object res;
+
+            try {
+                res = ScriptValues.toJava(program.run(evaluator));
+            } catch (Exception e) {
+                throw ScriptValues.wrap(e);
+            } catch (StackOverflowError e) {
+                throw new ScriptException("Stack overflow");
+            }
+
+            ScriptValues.store(evaluator, context);
+
+            return res;
+        }
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return engine;
+    }
+}
@@ -0,0 +1,184 @@
+package com.csci.script;
+
+import com.csci.engine.CompiledProgram;
+import com.csci.grammar.CustomObject;
+import com.csci.visitor.Evaluator;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code javax.script} engine of the language. {@link #eval(String, ScriptContext)} compiles its source on
+ * every call, {@link #compile(String)} returns a script that can be evaluated many times. Functions of the
+ * last evaluated or compiled program can be invoked through {@link Invocable}.
+ */
+public class BasicScriptEngine extends AbstractScriptEngine implements Compilable, Invocable {
+
+    private final BasicScriptEngineFactory factory;
+
+    private volatile CompiledProgram last;
+
+    BasicScriptEngine(BasicScriptEngineFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        return compile(script).eval(context);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        return eval(read(reader), context);
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+
+        CompiledProgram program;
+
+        try {
+            program = CompiledProgram.compile(script);
+        } catch (Exception e) {
+            throw ScriptValues.wrap(e);
+        }
+
+        last = program;
+
+        return new BasicCompiledScript(this, program);
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        return compile(read(script));
+    }
+
+    /**
+     * Evaluate one function of the last evaluated or compiled program with variables of the engine context.
+     * Nothing is stored back, so the context is only locked while its variables are bound.
+     *
+     * @param name function name
+     * @param args arguments bound to the function parameters by position
+     * @return value of the function converted to Java
+     * @throws ScriptException       evaluation exception
+     * @throws NoSuchMethodException if the function is not defined
+     */
+    @Override
+    public Object invokeFunction(String name, Object... args) throws ScriptException, NoSuchMethodException {
+
+        CompiledProgram program = last;
+
+        if (program == null || !program.defines(name)) {
+            throw new NoSuchMethodException("Function " + name + " is not defined!");
+        }
+
+        List<CustomObject> values = new ArrayList<>(args.length);
+
+        for (Object arg : args) {
+
+            CustomObject value = ScriptValues.toScript(arg);
+
+            if (value == null) {
+                throw new ScriptException("Argument " + arg + " has no script type");
+            }
+
+            values.add(value);
+        }
+
+        Evaluator evaluator = new Evaluator();
+
+        synchronized (context) {
+            ScriptValues.bind(context, evaluator);
+        }
+
+        try {
+            return ScriptValues.toJava(program.invoke(name, values, evaluator));
+        } catch (Exception e) {
+            throw ScriptValues.wrap(e);
+        } catch (StackOverflowError e) {
+            throw new ScriptException("Stack overflow");
+        }
+    }
+
+    /**
+     * Scripts do not create objects, so there are no methods to invoke
+     */
+    @Override
+    public Object invokeMethod(Object thiz, String name, Object... args) {
+        throw new IllegalArgumentException("Scripts do not create objects");
+    }
+
+    /**
+     * @param type interface whose methods are functions of the last evaluated or compiled program
+     * @return implementation of the interface or null if the program misses one of its methods
+     */
+    @Override
+    public <T> T getInterface(Class<T> type) {
+
+        CompiledProgram program = last;
+
+        if (type == null || !type.isInterface()) {
+            throw new IllegalArgumentException("Interface expected");
+        }
+
+        if (program == null) {
+            return null;
+        }
+
+        for (Method method : type.getMethods()) {
+            if (!program.defines(method.getName())) {
+                return null;
+            }
+        }
+
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> invokeFunction(method.getName(), args == null ? new Object[0] : args));
+
+        return type.cast(proxy);
+    }
+
+    /**
+     * Scripts do not create objects, so there are no interfaces to implement
+     */
+    @Override
+    public <T> T getInterface(Object thiz, Class<T> type) {
+        throw new IllegalArgumentException("Scripts do not create objects");
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    private static String read(Reader reader) throws ScriptException {
+
+        StringWriter writer = new StringWriter();
+
+        try {
+            reader.transferTo(writer);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+
+        return writer.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package com.csci.script;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * Factory of {@link BasicScriptEngine}, registered through {@code META-INF/services}.
+ * Engines are found by {@code new ScriptEngineManager().getEngineByName("basic")}.
+ */
+public class BasicScriptEngineFactory implements ScriptEngineFactory {
+
+    private static final List<String> NAMES = List.of("basic", "csci");
+
+    @Override
+    public String getEngineName() {
+        return "Basic Interpreter";
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return "1.0";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of();
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return List.of();
+    }
+
+    @Override
+    public List<String> getNames() {
+        return NAMES;
+    }
+
+    @Override
+    public String getLanguageName() {
+        return "basic";
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return "1.0";
+    }
+
+    /**
+     * Engines keep no state between evaluations besides their bindings, compiled scripts may be
+     * evaluated concurrently
+     */
+    @Override
+    public Object getParameter(String key) {
+        switch (key) {
+            case ScriptEngine.ENGINE:
+                return getEngineName();
+            case ScriptEngine.ENGINE_VERSION:
+                return getEngineVersion();
+            case ScriptEngine.NAME:
+                return NAMES.get(0);
+            case ScriptEngine.LANGUAGE:
+                return getLanguageName();
+            case ScriptEngine.LANGUAGE_VERSION:
+                return getLanguageVersion();
+            case "THREADING":
+                return "MULTITHREADED";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Scripts have no objects, the call is a plain function call
+     *
+     * @param obj  ignored
+     * @param m    function name
+     * @param args argument expressions
+     * @return function call expression
+     */
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        return m + "(" + String.join(", ", args) + ")";
+    }
+
+    /**
+     * @param toDisplay text
+     * @return statement returning the text
+     * @throws IllegalArgumentException if the text contains a quote or line break, string literals have no escapes
+     */
+    @Override
+    public String getOutputStatement(String toDisplay) {
+
+        if (toDisplay.indexOf('"') >= 0 || toDisplay.indexOf('\n') >= 0 || toDisplay.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("String literals can not contain quotes or line breaks: " + toDisplay);
+        }
+
+        return "return \"" + toDisplay + "\";";
+    }
+
+    @Override
+    public String getProgram(String... statements) {
+
+        StringBuilder builder = new StringBuilder("int main() {\n");
+
+        for (String statement : statements) {
+            builder.append("  ").append(statement).append('\n');
+        }
+
+        return builder.append("}\n").toString();
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new BasicScriptEngine(this);
+    }
+}
@@ -0,0 +1,147 @@
+package com.csci.script;
+
+import com.csci.grammar.*;
+import com.csci.runtime.OffHeapArray;
+import com.csci.runtime.ScriptArray;
+import com.csci.runtime.ScriptMap;
+import com.csci.visitor.Evaluator;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+import java.util.Map;
+
+/**
+ * Conversion between Java values of {@link Bindings} and script values. Arrays and maps are shared,
+ * never copied.
+ */
+final class ScriptValues {
+
+    private ScriptValues() { }
+
+    /**
+     * @param value Java value
+     * @return script value or null if the value has no script type
+     */
+    static CustomObject toScript(Object value) {
+
+        if (value instanceof CustomObject) {
+            return (CustomObject) value;
+        } else if (value instanceof Integer) {
+            return new CustomObject(new TypeInt(), value);
+        } else if (value instanceof Double) {
+            return new CustomObject(new TypeDouble(), value);
+        } else if (value instanceof Boolean) {
+            return new CustomObject(new TypeBool(), value);
+        } else if (value instanceof String) {
+            return new CustomObject(new TypeString(), value);
+        } else if (value instanceof ScriptArray) {
+            return new CustomObject(new TypeArray(((ScriptArray) value).elementType()), value);
+        } else if (value instanceof ScriptMap) {
+            ScriptMap map = (ScriptMap) value;
+            return new CustomObject(new TypeMap(map.keyType(), map.valueType()), value);
+        }
+
+        return null;
+    }
+
+    /**
+     * @param value script value, may be null
+     * @return Java value
+     */
+    static Object toJava(CustomObject value) {
+        return value == null ? null : value.value;
+    }
+
+    /**
+     * Bind global then engine scope variables, engine scope wins. Names that are not identifiers,
+     * like {@link javax.script.ScriptEngine#FILENAME}, are skipped.
+     *
+     * @param context   script context
+     * @param evaluator unused evaluator
+     * @throws ScriptException if a variable has no script type
+     */
+    static void bind(ScriptContext context, Evaluator evaluator) throws ScriptException {
+
+        for (int scope : new int[]{ScriptContext.GLOBAL_SCOPE, ScriptContext.ENGINE_SCOPE}) {
+
+            Bindings bindings = context.getBindings(scope);
+
+            if (bindings == null) {
+                continue;
+            }
+
+            for (Map.Entry<String, Object> entry : bindings.entrySet()) {
+
+                if (!isIdentifier(entry.getKey()) || entry.getValue() == null) {
+                    continue;
+                }
+
+                CustomObject value = toScript(entry.getValue());
+
+                if (value == null) {
+                    throw new ScriptException("Variable " + entry.getKey() + " of " + entry.getValue().getClass().getName()
+                            + " has no script type");
+                }
+
+                evaluator.bind(entry.getKey(), value);
+            }
+        }
+    }
+
+    /**
+     * Store values of engine scope variables reassigned by a finished run. Locals of the run are not
+     * stored, so the same context can be evaluated again. Freed off-heap arrays are left out. The caller holds
+     * the lock of the context, entries of shared bindings are not safe to set from several evaluations.
+     *
+     * @param evaluator finished evaluator
+     * @param context   script context
+     */
+    static void store(Evaluator evaluator, ScriptContext context) {
+
+        Bindings bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+        Map<String, CustomObject> variables = evaluator.variables();
+
+        for (Map.Entry<String, Object> entry : bindings.entrySet()) {
+
+            Object value = toJava(variables.get(entry.getKey()));
+
+            if (value == null || (value instanceof OffHeapArray && !((OffHeapArray) value).isAlive())) {
+                continue;
+            }
+
+            entry.setValue(value);
+        }
+    }
+
+    /**
+     * @param e evaluation exception
+     * @return script exception with the same message
+     */
+    static ScriptException wrap(Exception e) {
+
+        if (e instanceof ScriptException) {
+            return (ScriptException) e;
+        }
+
+        ScriptException scriptException = new ScriptException(e.getMessage());
+        scriptException.initCause(e);
+
+        return scriptException;
+    }
+
+    private static boolean isIdentifier(String name) {
+
+        if (name.isEmpty() || !Character.isLetter(name.charAt(0))) {
+            return false;
+        }
+
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isLetterOrDigit(name.charAt(i)) && name.charAt(i) != '_') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,291 @@
+package com.csci.server;
+
+import com.csci.engine.CompiledProgram;
+import com.csci.engine.ProgramCache;
+import com.csci.grammar.CustomObject;
+import com.csci.runtime.CancellationToken;
+import com.csci.runtime.EvaluationCancelledException;
+import com.csci.runtime.FuelExhaustedException;
+import com.csci.runtime.MemoryQuotaExceededException;
+import com.csci.runtime.TimeLimitExceededException;
+import com.csci.visitor.Evaluator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local evaluation server speaking {@link Protocol} over a loopback TCP or Unix domain socket.
+ * Every connection is served by its own virtual thread, requests on one connection are answered in order.
+ * Compiled programs are shared between connections through a {@link ProgramCache}.
+ */
+public class EvaluationServer implements AutoCloseable {
+
+    /**
+     * Time limit of requests that do not set one
+     */
+    public static final int DEFAULT_TIME_LIMIT_MS = 1000;
+
+    private static final int BACKLOG = 16384;
+
+    private final SocketAddress address;
+    private final ProgramCache programs;
+    private final int defaultTimeLimitMs;
+
+    /**
+     * Fuel of requests that do not set one, 0 for unmetered
+     */
+    private long defaultFuel;
+
+    /**
+     * Bytes every request may allocate, 0 for unlimited
+     */
+    private long memoryQuota;
+
+    /**
+     * Cancelled on close so runs in progress stop at their next safepoint
+     */
+    private final CancellationToken shutdown = new CancellationToken();
+
+    private ServerSocketChannel server;
+    private ExecutorService connections;
+    private Thread acceptor;
+
+    /**
+     * @param address            loopback {@link InetSocketAddress} or {@link UnixDomainSocketAddress}
+     * @param programs           shared compiled programs
+     * @param defaultTimeLimitMs time limit of requests that do not set one
+     */
+    public EvaluationServer(SocketAddress address, ProgramCache programs, int defaultTimeLimitMs) {
+
+        if (address instanceof InetSocketAddress && !((InetSocketAddress) address).getAddress().isLoopbackAddress()) {
+            throw new IllegalArgumentException("Server only listens on loopback addresses");
+        }
+
+        this.address = address;
+        this.programs = programs;
+        this.defaultTimeLimitMs = defaultTimeLimitMs;
+    }
+
+    /**
+     * @param defaultFuel fuel of requests that do not set one, 0 for unmetered
+     */
+    public void setDefaultFuel(long defaultFuel) {
+        this.defaultFuel = defaultFuel;
+    }
+
+    /**
+     * @param memoryQuota bytes every request may allocate, 0 for unlimited
+     */
+    public void setMemoryQuota(long memoryQuota) {
+        this.memoryQuota = memoryQuota;
+    }
+
+    /**
+     * Bind socket and start accepting connections
+     *
+     * @throws IOException if the socket can not be bound
+     */
+    public void start() throws IOException {
+
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+        }
+
+        server.bind(address, BACKLOG);
+
+        connections = Executors.newVirtualThreadPerTaskExecutor();
+        acceptor = Thread.ofPlatform().name("evaluation-server-acceptor").start(this::accept);
+    }
+
+    /**
+     * @return bound address, useful when listening on port 0
+     * @throws IOException if the socket is closed
+     */
+    public SocketAddress localAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    private void accept() {
+        try {
+            while (server.isOpen()) {
+                SocketChannel channel = server.accept();
+                connections.execute(() -> serve(channel));
+            }
+        } catch (IOException e) {
+            // server closed
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+
+        try (channel) {
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+            Protocol.Request request;
+
+            while ((request = Protocol.readRequest(in)) != null) {
+                Protocol.writeResponse(out, handle(request));
+            }
+
+        } catch (IOException e) {
+            // connection dropped or sent a malformed frame
+        }
+    }
+
+    /**
+     * Evaluate request
+     *
+     * @param request request
+     * @return response carrying the result or a diagnostic
+     */
+    public Protocol.Response handle(Protocol.Request request) {
+
+        String id = request.kind == Protocol.PROGRAM_ID ? request.program : ProgramCache.hash(request.program);
+
+        CompiledProgram program;
+
+        try {
+
+            if (request.kind == Protocol.PROGRAM_ID) {
+
+                program = programs.peek(id);
+
+                if (program == null) {
+                    return new Protocol.Response(Protocol.UNKNOWN_PROGRAM, id, "Program " + id + " is not cached, send its source");
+                }
+
+            } else {
+                program = programs.get(id, request.program);
+            }
+
+        } catch (Exception e) {
+            return new Protocol.Response(Protocol.ERROR, id, e.getMessage());
+        }
+
+        int timeLimitMs = request.timeLimitMs > 0 ? request.timeLimitMs : defaultTimeLimitMs;
+        long fuel = request.fuel > 0 ? request.fuel : defaultFuel;
+
+        try {
+
+            Evaluator evaluator = new Evaluator();
+
+            for (Map.Entry<String, CustomObject> input : request.inputs.entrySet()) {
+                evaluator.bind(input.getKey(), input.getValue());
+            }
+
+            evaluator.setTimeLimit(timeLimitMs);
+            evaluator.setCancellationToken(shutdown);
+
+            if (fuel > 0) {
+                evaluator.setFuel(fuel);
+            }
+
+            if (memoryQuota > 0) {
+                evaluator.setMemoryQuota(memoryQuota);
+            }
+
+            CustomObject res = program.run(evaluator);
+
+            return new Protocol.Response(Protocol.OK, id, res == null ? "" : res.toString());
+
+        } catch (Exception e) {
+
+            byte status = e instanceof TimeLimitExceededException ? Protocol.TIMEOUT
+                    : e instanceof EvaluationCancelledException ? Protocol.CANCELLED
+                    : e instanceof FuelExhaustedException ? Protocol.FUEL_EXHAUSTED
+                    : e instanceof MemoryQuotaExceededException ? Protocol.MEMORY_EXCEEDED
+                    : Protocol.ERROR;
+
+            return new Protocol.Response(status, id, e.getMessage());
+
+        } catch (StackOverflowError e) {
+            return new Protocol.Response(Protocol.ERROR, id, "Stack overflow");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        shutdown.cancel();
+
+        if (server != null) {
+            server.close();
+        }
+
+        if (connections != null) {
+            connections.shutdownNow();
+        }
+
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    /**
+     * Run server until the process is stopped
+     * <p>
+     * Usage: {@code EvaluationServer [--port <port> | --socket <path>] [--time-limit <ms>] [--fuel <units>] [--memory-quota <bytes>]}
+     *
+     * @param args command line arguments
+     * @throws Exception if the server can not start
+     */
+    public static void main(String[] args) throws Exception {
+
+        SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 7777);
+        int timeLimitMs = DEFAULT_TIME_LIMIT_MS;
+        long fuel = 0;
+        long memoryQuota = 0;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[i + 1]));
+                    break;
+                case "--socket":
+                    address = UnixDomainSocketAddress.of(Path.of(args[i + 1]));
+                    break;
+                case "--time-limit":
+                    timeLimitMs = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--fuel":
+                    fuel = Long.parseLong(args[i + 1]);
+                    break;
+                case "--memory-quota":
+                    memoryQuota = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        EvaluationServer server = new EvaluationServer(address, new ProgramCache(), timeLimitMs);
+        server.setDefaultFuel(fuel);
+        server.setMemoryQuota(memoryQuota);
+        server.start();
+
+        System.out.println("Listening on " + server.localAddress());
+
+        server.acceptor.join();
+    }
+}
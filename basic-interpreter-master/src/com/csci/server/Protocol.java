@@ -0,0 +1,257 @@
+package com.csci.server;
+
+import com.csci.grammar.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wire format of the evaluation server. Every message is a frame of a 4 byte big endian length followed
+ * by its payload, strings are a 4 byte length followed by UTF-8 bytes.
+ * <p>
+ * Request: kind ({@link #SOURCE} or {@link #PROGRAM_ID}), source or program id, time limit in milliseconds
+ * (0 for the server default), fuel (0 for the server default), number of inputs, then per input its name, a type tag and the value.
+ * <p>
+ * Response: status, program id, then the result value or a diagnostic.
+ */
+public final class Protocol {
+
+    public static final byte SOURCE = 0;
+    public static final byte PROGRAM_ID = 1;
+
+    public static final byte OK = 0;
+    public static final byte ERROR = 1;
+    public static final byte TIMEOUT = 2;
+    public static final byte UNKNOWN_PROGRAM = 3;
+    public static final byte FUEL_EXHAUSTED = 4;
+    public static final byte CANCELLED = 5;
+    public static final byte MEMORY_EXCEEDED = 6;
+
+    private static final byte INT = 1;
+    private static final byte FLOAT = 2;
+    private static final byte BOOL = 3;
+    private static final byte STRING = 4;
+
+    /**
+     * Largest accepted frame
+     */
+    public static final int MAX_FRAME = 16 << 20;
+
+    private Protocol() { }
+
+    /**
+     * Evaluation request
+     */
+    public static final class Request {
+
+        public final byte kind;
+        public final String program;
+        public final int timeLimitMs;
+        public final long fuel;
+        public final Map<String, CustomObject> inputs;
+
+        public Request(byte kind, String program, int timeLimitMs, Map<String, CustomObject> inputs) {
+            this(kind, program, timeLimitMs, 0, inputs);
+        }
+
+        public Request(byte kind, String program, int timeLimitMs, long fuel, Map<String, CustomObject> inputs) {
+            this.kind = kind;
+            this.program = program;
+            this.timeLimitMs = timeLimitMs;
+            this.fuel = fuel;
+            this.inputs = inputs;
+        }
+    }
+
+    /**
+     * Evaluation response
+     */
+    public static final class Response {
+
+        public final byte status;
+        public final String programId;
+        public final String message;
+
+        public Response(byte status, String programId, String message) {
+            this.status = status;
+            this.programId = programId;
+            this.message = message;
+        }
+    }
+
+    /**
+     * @param out     output
+     * @param request request
+     * @throws IOException if an input can not be encoded or the stream fails
+     */
+    public static void writeRequest(DataOutputStream out, Request request) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream frame = new DataOutputStream(bytes);
+
+        frame.writeByte(request.kind);
+        writeString(frame, request.program);
+        frame.writeInt(request.timeLimitMs);
+        frame.writeLong(request.fuel);
+        frame.writeInt(request.inputs.size());
+
+        for (Map.Entry<String, CustomObject> input : request.inputs.entrySet()) {
+            writeString(frame, input.getKey());
+            writeValue(frame, input.getValue());
+        }
+
+        writeFrame(out, bytes.toByteArray());
+    }
+
+    /**
+     * @param in input
+     * @return request or null at end of stream
+     * @throws IOException if the frame is malformed
+     */
+    public static Request readRequest(DataInputStream in) throws IOException {
+
+        DataInputStream frame = readFrame(in);
+
+        if (frame == null) {
+            return null;
+        }
+
+        byte kind = frame.readByte();
+        String program = readString(frame);
+        int timeLimitMs = frame.readInt();
+        long fuel = frame.readLong();
+        int count = frame.readInt();
+
+        Map<String, CustomObject> inputs = new LinkedHashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            inputs.put(readString(frame), readValue(frame));
+        }
+
+        return new Request(kind, program, timeLimitMs, fuel, inputs);
+    }
+
+    /**
+     * @param out      output
+     * @param response response
+     * @throws IOException if the stream fails
+     */
+    public static void writeResponse(DataOutputStream out, Response response) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream frame = new DataOutputStream(bytes);
+
+        frame.writeByte(response.status);
+        writeString(frame, response.programId);
+        writeString(frame, response.message);
+
+        writeFrame(out, bytes.toByteArray());
+    }
+
+    /**
+     * @param in input
+     * @return response or null at end of stream
+     * @throws IOException if the frame is malformed
+     */
+    public static Response readResponse(DataInputStream in) throws IOException {
+
+        DataInputStream frame = readFrame(in);
+
+        if (frame == null) {
+            return null;
+        }
+
+        return new Response(frame.readByte(), readString(frame), readString(frame));
+    }
+
+    private static void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    private static DataInputStream readFrame(DataInputStream in) throws IOException {
+
+        int length;
+
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+
+        if (length < 0 || length > MAX_FRAME) {
+            throw new IOException("Frame of " + length + " bytes rejected");
+        }
+
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    private static void writeValue(DataOutputStream out, CustomObject value) throws IOException {
+
+        if (value.type instanceof TypeInt) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value.value);
+        } else if (value.type instanceof TypeDouble) {
+            out.writeByte(FLOAT);
+            out.writeDouble((Double) value.value);
+        } else if (value.type instanceof TypeBool) {
+            out.writeByte(BOOL);
+            out.writeBoolean((Boolean) value.value);
+        } else if (value.type instanceof TypeString) {
+            out.writeByte(STRING);
+            writeString(out, (String) value.value);
+        } else {
+            throw new IOException("Unsupported input type " + value.type);
+        }
+    }
+
+    private static CustomObject readValue(DataInputStream in) throws IOException {
+
+        byte tag = in.readByte();
+
+        switch (tag) {
+            case INT:
+                return new CustomObject(new TypeInt(), in.readInt());
+            case FLOAT:
+                return new CustomObject(new TypeDouble(), in.readDouble());
+            case BOOL:
+                return new CustomObject(new TypeBool(), in.readBoolean());
+            case STRING:
+                return new CustomObject(new TypeString(), readString(in));
+            default:
+                throw new IOException("Unknown input type " + tag);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+
+        byte[] bytes = (string == null ? "" : string).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+
+        int length = in.readInt();
+
+        if (length < 0 || length > in.available()) {
+            throw new IOException("String of " + length + " bytes rejected");
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
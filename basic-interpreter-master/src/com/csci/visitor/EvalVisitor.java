@@ -25,8 +25,14 @@ public interface EvalVisitor {
 
     CustomObject visit(SWhile sWhile) throws Exception;
 
+    CustomObject visit(SFor sFor) throws Exception;
+
+    CustomObject visit(SIndexAss sIndexAss) throws Exception;
+
     CustomObject visit(EId eId) throws Exception;
 
+    CustomObject visit(ELoopVar eLoopVar) throws Exception;
+
     CustomObject visit(EIncr eIncr) throws Exception;
 
     CustomObject visit(EPIncr epIncr) throws Exception;
@@ -73,6 +79,18 @@ public interface EvalVisitor {
 
     CustomObject visit(ETimes eTimes) throws Exception;
 
+    CustomObject visit(EConcat eConcat) throws Exception;
+
+    CustomObject visit(ENewArray eNewArray) throws Exception;
+
+    CustomObject visit(EIndex eIndex) throws Exception;
+
+    CustomObject visit(ELength eLength) throws Exception;
+
+    CustomObject visit(ENewMap eNewMap) throws Exception;
+
+    CustomObject visit(EContains eContains) throws Exception;
+
     CustomObject visit(TypeBool typeBool) throws Exception;
 
     CustomObject visit(TypeInt typeInt) throws Exception;
@@ -83,4 +101,8 @@ public interface EvalVisitor {
 
     CustomObject visit(TypeVoid typeVoid) throws Exception;
 
+    CustomObject visit(TypeArray typeArray) throws Exception;
+
+    CustomObject visit(TypeMap typeMap) throws Exception;
+
 }
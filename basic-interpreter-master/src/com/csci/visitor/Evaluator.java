@@ -1,36 +1,355 @@
 package com.csci.visitor;
 
 import com.csci.grammar.*;
-
-import java.util.HashMap;
+import com.csci.runtime.CancellationToken;
+import com.csci.runtime.EvaluationCancelledException;
+import com.csci.runtime.FuelExhaustedException;
+import com.csci.runtime.IntKeyMap;
+import com.csci.runtime.MemoryQuotaExceededException;
+import com.csci.runtime.OffHeapArray;
+import com.csci.runtime.ScriptArray;
+import com.csci.runtime.ScriptMap;
+import com.csci.runtime.TimeLimitExceededException;
+
+import java.lang.foreign.Arena;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation state of a single run. Programs are never modified during evaluation, so one program
+ * can be evaluated concurrently by any number of evaluators, each used by one thread at a time.
+ */
+public class Evaluator implements EvalVisitor, AutoCloseable {
+
+    /**
+     * Arrays with at least this many elements are allocated off-heap unless configured otherwise
+     */
+    public static final int DEFAULT_OFF_HEAP_THRESHOLD = Integer.getInteger("csci.offheap.threshold", 1 << 24);
+
+    /**
+     * Safepoints passed between two polls of the clock and the cancellation token
+     */
+    private static final int POLL_INTERVAL = 256;
+
+    /**
+     * Estimated sizes of script visible allocations charged to the memory quota, in bytes
+     */
+    private static final long STRING_BYTES = 40;
+    private static final long ARRAY_BYTES = 16;
+    private static final long MAP_BYTES = 64;
+    private static final long MAP_ENTRY_BYTES = 16;
+    private static final long VARIABLE_BYTES = 64;
+
+    /**
+     * Symbols of the program run last, null before the first run
+     */
+    private Symbols symbols;
+
+    /**
+     * Variables indexed by symbol of the program, null where no variable is declared. Sized to the symbols of
+     * the program, grown only by symbols of lazy function bodies parsed during the run.
+     */
+    private CustomObject[] frame;
+
+    /**
+     * Bound variables the program does not use, or bound before the first run, by name
+     */
+    private final Map<String, CustomObject> unresolved = new LinkedHashMap<>();
+
+    /**
+     * Symbols of declared variables in declaration order, so they can be listed and cleared
+     */
+    private int[] declared;
+    private int declaredCount;
+
+    /**
+     * Primitive slots of for loop induction variables, indexed by loop nesting depth
+     */
+    private int[] loopSlots;
+
+    /**
+     * Owner of off-heap arrays, opened on first use and closed when the run ends
+     */
+    private Arena arena;
+
+    private int offHeapThreshold;
+
+    /**
+     * Time limit of the run in {@link System#nanoTime()} units, checked at loop back edges and function entries
+     */
+    private long deadline;
+    private boolean timed;
+
+    private CancellationToken token;
+
+    /**
+     * Safepoints left until the next poll of the deadline and the token
+     */
+    private int poll;
+
+    /**
+     * Fuel budget of the run and what is left of it, one unit is burnt per loop iteration and function entry
+     */
+    private long fuelLimit;
+    private long fuel;
+    private boolean metered;
+
+    /**
+     * Bytes the run may allocate and bytes allocated so far, counted at allocation sites and never freed
+     */
+    private long memoryQuota;
+    private long allocated;
 
-public class Evaluator implements EvalVisitor {
+    public Evaluator() {
+        frame = new CustomObject[0];
+        declared = new int[16];
+        loopSlots = new int[8];
+        offHeapThreshold = DEFAULT_OFF_HEAP_THRESHOLD;
+        memoryQuota = Long.MAX_VALUE;
+    }
 
-    public Map<String, CustomObject> GLOBAL_SCOPE;
+    /**
+     * @return read only copy of variables of this run in declaration order
+     */
+    public Map<String, CustomObject> variables() {
 
-    public Evaluator() {
-        GLOBAL_SCOPE = new HashMap<>();
+        Map<String, CustomObject> variables = new LinkedHashMap<>(unresolved);
+
+        for (int i = 0; i < declaredCount; i++) {
+            variables.put(symbols.name(declared[i]), frame[declared[i]]);
+        }
+
+        return Collections.unmodifiableMap(variables);
+    }
+
+    /**
+     * Bind input variable visible to the program
+     *
+     * @param name  variable name
+     * @param value variable value
+     */
+    public void bind(String name, CustomObject value) {
+
+        CustomObject variable = new CustomObject(value.type, value.value);
+        int symbol = symbols != null ? symbols.find(name) : -1;
+
+        if (symbol >= 0) {
+            declare(symbol, variable);
+        } else {
+            unresolved.put(name, variable);
+        }
+    }
+
+    /**
+     * Forget all variables and refill the fuel so the evaluator, its frame and loop slots can be reused for another run
+     */
+    public void reset() {
+        close();
+        for (int i = 0; i < declaredCount; i++) {
+            frame[declared[i]] = null;
+        }
+        declaredCount = 0;
+        unresolved.clear();
+        fuel = fuelLimit;
+        allocated = 0;
+    }
+
+    /**
+     * @param millis time the run may take from now, abandoned with an exception once exceeded
+     */
+    public void setTimeLimit(long millis) {
+        setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * @param deadline {@link System#nanoTime()} after which the run is abandoned with an exception
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+        timed = true;
     }
 
+    /**
+     * @param token token whose cancellation abandons the run with an exception, null for none
+     */
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * @param fuel number of loop iterations and function entries the run may perform, abandoned with an
+     *             exception once exhausted
+     */
+    public void setFuel(long fuel) {
+        this.fuelLimit = fuel;
+        this.fuel = fuel;
+        metered = true;
+    }
+
+    /**
+     * @return fuel burnt so far, 0 if the run is not metered
+     */
+    public long fuelConsumed() {
+        return metered ? fuelLimit - Math.max(fuel, 0) : 0;
+    }
+
+    /**
+     * @param bytes bytes of strings, arrays, maps and variables the run may allocate, abandoned with an
+     *              exception once exceeded
+     */
+    public void setMemoryQuota(long bytes) {
+        memoryQuota = bytes;
+    }
+
+    /**
+     * @return estimated bytes allocated by the run so far
+     */
+    public long allocatedBytes() {
+        return allocated;
+    }
+
+    /**
+     * @param offHeapThreshold minimum number of elements of arrays allocated off-heap
+     */
+    public void setOffHeapThreshold(int offHeapThreshold) {
+        this.offHeapThreshold = offHeapThreshold;
+    }
+
+    /**
+     * Evaluate program. Off-heap arrays are freed before returning, a returned off-heap array is copied to the heap.
+     */
     @Override
     public CustomObject visit(PDefs pDefs) throws Exception {
 
+        use(pDefs.symbols_);
+
         CustomObject res = null;
 
-        for (Def def : pDefs.listdef_) {
-            res = def.eval(this);
+        try {
+
+            for (Def def : pDefs.listdef_) {
+                res = def.eval(this);
+            }
+
+            if (res != null && res.value instanceof OffHeapArray) {
+                res = new CustomObject(res.type, ((OffHeapArray) res.value).toHeap());
+            }
+
+        } finally {
+            close();
         }
 
         return res;
     }
 
+    /**
+     * Switch to the symbols of a program, variables are carried over by name
+     *
+     * @param program symbols of the program about to run
+     */
+    private void use(Symbols program) {
+
+        if (program == symbols) {
+            return;
+        }
+
+        for (int i = 0; i < declaredCount; i++) {
+            unresolved.put(symbols.name(declared[i]), frame[declared[i]]);
+        }
+
+        symbols = program;
+        frame = new CustomObject[program.count()];
+        declaredCount = 0;
+
+        for (Iterator<Map.Entry<String, CustomObject>> it = unresolved.entrySet().iterator(); it.hasNext(); ) {
+
+            Map.Entry<String, CustomObject> variable = it.next();
+            int symbol = program.find(variable.getKey());
+
+            if (symbol >= 0) {
+                declare(symbol, variable.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @param symbol variable symbol
+     * @return variable or null if it is not declared
+     */
+    private CustomObject lookup(int symbol) {
+        return symbol < frame.length ? frame[symbol] : null;
+    }
+
+    /**
+     * Set variable, growing the frame to the symbol if needed
+     *
+     * @param symbol variable symbol
+     * @param value  variable
+     */
+    private void declare(int symbol, CustomObject value) {
+
+        if (symbol >= frame.length) {
+            frame = Arrays.copyOf(frame, Math.max(symbol + 1, symbols.count()));
+        }
+
+        if (frame[symbol] == null) {
+
+            if (declaredCount == declared.length) {
+                declared = Arrays.copyOf(declared, declaredCount * 2);
+            }
+
+            declared[declaredCount++] = symbol;
+        }
+
+        frame[symbol] = value;
+    }
+
+    /**
+     * Remove variable, usually the last one declared
+     *
+     * @param symbol variable symbol
+     */
+    private void undeclare(int symbol) {
+
+        if (lookup(symbol) == null) {
+            return;
+        }
+
+        frame[symbol] = null;
+
+        for (int i = declaredCount - 1; i >= 0; i--) {
+            if (declared[i] == symbol) {
+                System.arraycopy(declared, i + 1, declared, i, declaredCount - i - 1);
+                declaredCount--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Free all off-heap arrays allocated by this evaluator
+     */
+    @Override
+    public void close() {
+        if (arena != null) {
+            arena.close();
+            arena = null;
+        }
+    }
+
     @Override
     public CustomObject visit(DFun dFun) throws Exception {
 
+        safepoint();
+
         CustomObject res = null;
 
-        for (Stm stm : dFun.liststm_) {
+        for (Stm stm : dFun.body()) {
             res = stm.eval(this);
         }
 
@@ -44,10 +363,10 @@ public class Evaluator implements EvalVisitor {
 
     @Override
     public CustomObject visit(SDecls sDecls) throws Exception {
-        if (!GLOBAL_SCOPE.containsKey(sDecls.id_)) {
-            String variable = sDecls.id_;
+        if (lookup(sDecls.symbol_) == null) {
             Type type = sDecls.type_;
-            GLOBAL_SCOPE.put(variable, new CustomObject(type, null));
+            charge(VARIABLE_BYTES);
+            declare(sDecls.symbol_, new CustomObject(type, null));
         } else {
             throw new Exception("Variable " + sDecls.id_ + " already exist in this scope!");
         }
@@ -62,9 +381,7 @@ public class Evaluator implements EvalVisitor {
     @Override
     public CustomObject visit(SInit sInit) throws Exception {
 
-        if (!GLOBAL_SCOPE.containsKey(sInit.id_)) {
-
-            String variable = sInit.id_;
+        if (lookup(sInit.symbol_) == null) {
 
             CustomObject value = sInit.exp_.eval(this);
 
@@ -78,11 +395,18 @@ public class Evaluator implements EvalVisitor {
 
             } else if (value.type instanceof TypeString && type instanceof TypeString) {
 
+            } else if (value.type instanceof TypeArray && type instanceof TypeArray
+                    && ((ScriptArray) value.value).accepts(((TypeArray) type).type_)) {
+
+            } else if (value.type instanceof TypeMap && type instanceof TypeMap
+                    && ((ScriptMap) value.value).accepts((TypeMap) type)) {
+
             } else {
                 throw new Exception("Type error: Trying to assign " + value.type + " to " + type);
             }
 
-            GLOBAL_SCOPE.put(variable, new CustomObject(type, value));
+            charge(VARIABLE_BYTES);
+            declare(sInit.symbol_, new CustomObject(type, value.value));
 
         } else {
             throw new Exception("Variable " + sInit.id_ + " already exist in this scope!");
@@ -95,13 +419,11 @@ public class Evaluator implements EvalVisitor {
     @Override
     public CustomObject visit(SAss sAss) throws Exception {
 
-        if (GLOBAL_SCOPE.containsKey(sAss.id)) {
-
-            String variable = sAss.id;
+        if (lookup(sAss.symbol) != null) {
 
             CustomObject value = sAss.exp.eval(this);
 
-            Type type = GLOBAL_SCOPE.get(variable).type;
+            Type type = frame[sAss.symbol].type;
 
             if (value.type instanceof TypeBool && type instanceof TypeBool) {
 
@@ -111,11 +433,17 @@ public class Evaluator implements EvalVisitor {
 
             } else if (value.type instanceof TypeString && type instanceof TypeString) {
 
+            } else if (value.type instanceof TypeArray && type instanceof TypeArray
+                    && ((ScriptArray) value.value).accepts(((TypeArray) type).type_)) {
+
+            } else if (value.type instanceof TypeMap && type instanceof TypeMap
+                    && ((ScriptMap) value.value).accepts((TypeMap) type)) {
+
             } else {
                 throw new Exception("Type error: Trying to assign " + value.type.getClass().getName() + " to " + type.getClass().getName());
             }
 
-            GLOBAL_SCOPE.put(variable, new CustomObject(type, value));
+            frame[sAss.symbol] = new CustomObject(type, value.value);
 
         } else {
             throw new Exception("Variable " + sAss.id + " has not beed declared in this scope!");
@@ -156,29 +484,302 @@ public class Evaluator implements EvalVisitor {
     @Override
     public CustomObject visit(SWhile sWhile) throws Exception {
 
-        CustomObject condition = sWhile.exp_.eval(this);
-
         CustomObject res = null;
 
-        if (!(condition.type instanceof TypeBool))
-            throw new Exception("Type error: condition is not boolean");
+        while (true) {
+
+            CustomObject condition = sWhile.exp_.eval(this);
+
+            if (!(condition.type instanceof TypeBool))
+                throw new Exception("Type error: condition is not boolean");
+
+            if (!Boolean.parseBoolean(condition.value.toString())) {
+                return res;
+            }
 
-        if (Boolean.parseBoolean(condition.value.toString())) {
             for (Stm stm : sWhile.stm_) {
                 res = stm.eval(this);
             }
-            sWhile.eval(this);
+
+            safepoint();
+        }
+    }
+
+    @Override
+    public CustomObject visit(SFor sFor) throws Exception {
+
+        if (sFor.slot_ < 0) {
+            return forLoop(sFor);
+        }
+
+        SInit sInit = (SInit) sFor.stm_;
+
+        if (lookup(sInit.symbol_) != null)
+            throw new Exception("Variable " + sInit.id_ + " already exist in this scope!");
+
+        CustomObject start = sInit.exp_.eval(this);
+
+        if (!(start.type instanceof TypeInt))
+            throw new Exception("Type error: Trying to assign " + start.type + " to " + sInit.type_);
+
+        int slot = sFor.slot_;
+
+        if (slot >= loopSlots.length) {
+            loopSlots = Arrays.copyOf(loopSlots, slot * 2);
+        }
+
+        loopSlots[slot] = (Integer) start.value;
+
+        CustomObject res = null;
+
+        while (loopCondition(sFor)) {
+
+            for (Stm stm : sFor.liststm_) {
+                res = stm.eval(this);
+            }
+
+            loopStep(sFor);
+            safepoint();
+        }
+
+        return res;
+    }
+
+    /**
+     * Check limits of the run at loop back edges and function entries
+     *
+     * @throws Exception if the run exhausted its fuel, exceeded its time limit or was cancelled
+     */
+    private void safepoint() throws Exception {
+
+        if (metered && --fuel < 0) {
+            throw new FuelExhaustedException(fuelLimit);
+        }
+
+        if (--poll >= 0) {
+            return;
+        }
+
+        poll = POLL_INTERVAL;
+
+        if (token != null && token.isCancelled()) {
+            throw new EvaluationCancelledException();
+        }
+        if (timed && System.nanoTime() - deadline > 0) {
+            throw new TimeLimitExceededException();
+        }
+    }
+
+    /**
+     * Count allocation against the memory quota
+     *
+     * @param bytes estimated size of the allocation
+     * @throws MemoryQuotaExceededException if the run exceeded its quota
+     */
+    private void charge(long bytes) throws MemoryQuotaExceededException {
+        allocated += bytes;
+        if (allocated > memoryQuota) {
+            throw new MemoryQuotaExceededException(memoryQuota, allocated);
+        }
+    }
+
+    /**
+     * @param elementType array element type
+     * @return bytes of one element, string elements count their reference only
+     */
+    private static long elementBytes(Type elementType) {
+        if (elementType instanceof TypeBool) {
+            return 1;
+        } else if (elementType instanceof TypeInt) {
+            return 4;
+        }
+        return 8;
+    }
+
+    /**
+     * For loop whose variable lives in the frame, the variable is removed when the loop ends
+     *
+     * @param sFor loop statement
+     * @return result of last evaluated statement
+     * @throws Exception evaluation exception
+     */
+    private CustomObject forLoop(SFor sFor) throws Exception {
+
+        CustomObject res = null;
+
+        sFor.stm_.eval(this);
+
+        try {
+
+            while (true) {
+
+                CustomObject condition = sFor.exp_1.eval(this);
+
+                if (!(condition.type instanceof TypeBool))
+                    throw new Exception("Type error: condition is not boolean");
+
+                if (!(Boolean) condition.value)
+                    break;
+
+                for (Stm stm : sFor.liststm_) {
+                    res = stm.eval(this);
+                }
+
+                sFor.exp_2.eval(this);
+                safepoint();
+            }
+
+        } finally {
+            if (sFor.stm_ instanceof SInit) {
+                undeclare(((SInit) sFor.stm_).symbol_);
+            }
         }
 
         return res;
     }
 
+    /**
+     * Evaluate loop condition, comparisons of the induction variable with a bound
+     * are done on the primitive slot
+     *
+     * @param sFor loop statement
+     * @return true if loop should continue
+     * @throws Exception evaluation exception
+     */
+    private boolean loopCondition(SFor sFor) throws Exception {
+
+        Exp exp = sFor.exp_1;
+        int value = loopSlots[sFor.slot_];
+
+        if (exp instanceof ELt && isInduction(((ELt) exp).exp_1, sFor)) {
+
+            return value < bound(((ELt) exp).exp_2);
+
+        } else if (exp instanceof ELtEq && isInduction(((ELtEq) exp).exp_1, sFor)) {
+
+            return value <= bound(((ELtEq) exp).exp_2);
+
+        } else if (exp instanceof EGt && isInduction(((EGt) exp).exp_1, sFor)) {
+
+            return value > bound(((EGt) exp).exp_2);
+
+        } else if (exp instanceof EGtEq && isInduction(((EGtEq) exp).exp_1, sFor)) {
+
+            return value >= bound(((EGtEq) exp).exp_2);
+
+        }
+
+        CustomObject condition = exp.eval(this);
+
+        if (!(condition.type instanceof TypeBool))
+            throw new Exception("Type error: condition is not boolean");
+
+        return (Boolean) condition.value;
+    }
+
+    /**
+     * Evaluate loop step, increment and decrement of the induction variable update the slot directly
+     *
+     * @param sFor loop statement
+     * @throws Exception evaluation exception
+     */
+    private void loopStep(SFor sFor) throws Exception {
+
+        Exp exp = sFor.exp_2;
+
+        if (exp instanceof EIncr && isInduction(((EIncr) exp).exp_, sFor)) {
+            loopSlots[sFor.slot_]++;
+        } else if (exp instanceof EDecr && isInduction(((EDecr) exp).exp_, sFor)) {
+            loopSlots[sFor.slot_]--;
+        } else {
+            exp.eval(this);
+        }
+    }
+
+    /**
+     * @param exp  expression
+     * @param sFor loop statement
+     * @return true if expression is the induction variable of the loop
+     */
+    private boolean isInduction(Exp exp, SFor sFor) {
+        return exp instanceof ELoopVar && ((ELoopVar) exp).slot_ == sFor.slot_;
+    }
+
+    /**
+     * @param exp loop bound
+     * @return numeric value of bound
+     * @throws Exception evaluation exception
+     */
+    private double bound(Exp exp) throws Exception {
+
+        if (exp instanceof EInt) {
+            return ((EInt) exp).integer_;
+        } else if (exp instanceof ELength) {
+            return array(((ELength) exp).exp_.eval(this)).length();
+        }
+
+        CustomObject value = exp.eval(this);
+
+        if (value.type instanceof TypeBool || value.type instanceof TypeString)
+            throw new Exception("Type error: Only integers or doubles can be compared!");
+
+        return value.value instanceof Integer
+                ? (Integer) value.value
+                : Double.parseDouble(value.value.toString());
+    }
+
+    @Override
+    public CustomObject visit(SIndexAss sIndexAss) throws Exception {
+
+        CustomObject target = lookup(sIndexAss.symbol_);
+
+        if (target == null)
+            throw new Exception("Variable " + sIndexAss.id_ + " has not beed declared in this scope!");
+
+        if (target.type instanceof TypeMap) {
+
+            ScriptMap map = map(target);
+
+            CustomObject key = key(sIndexAss.exp_1, map);
+
+            CustomObject value = sIndexAss.exp_2.eval(this);
+
+            if (!map.acceptsValue(value.type))
+                throw new Exception("Type error: Trying to assign " + value.type + " to value of " + target.type);
+
+            int size = map.size();
+
+            map.put(key, value);
+
+            if (map.size() > size) {
+                charge(MAP_ENTRY_BYTES);
+            }
+
+            return null;
+        }
+
+        ScriptArray array = array(target);
+
+        int index = index(sIndexAss.exp_1, array, true);
+
+        CustomObject value = sIndexAss.exp_2.eval(this);
+
+        if (!array.accepts(value.type))
+            throw new Exception("Type error: Trying to assign " + value.type + " to element of " + array.elementType() + " array");
+
+        array.set(index, value);
+
+        return null;
+    }
+
     @Override
     public CustomObject visit(EId eId) throws Exception {
 
-        if (GLOBAL_SCOPE.containsKey(eId.id_) && GLOBAL_SCOPE.get(eId.id_).value != null) {
-            return GLOBAL_SCOPE.get(eId.id_);
-        } else if (GLOBAL_SCOPE.containsKey(eId.id_) && GLOBAL_SCOPE.get(eId.id_).value == null) {
+        CustomObject variable = lookup(eId.symbol_);
+
+        if (variable != null && variable.value != null) {
+            return variable;
+        } else if (variable != null) {
             throw new Exception("Variable " + eId.id_ + " has never been initialized!");
         } else {
             throw new Exception("Variable " + eId.id_ + " does not exist in this scope!");
@@ -186,19 +787,29 @@ public class Evaluator implements EvalVisitor {
 
     }
 
+    @Override
+    public CustomObject visit(ELoopVar eLoopVar) throws Exception {
+        return new CustomObject(new TypeInt(), loopSlots[eLoopVar.slot_]);
+    }
+
     @Override
     public CustomObject visit(EIncr eIncr) throws Exception {
 
+        if (eIncr.exp_ instanceof ELoopVar) {
+            loopSlots[((ELoopVar) eIncr.exp_).slot_]++;
+            return null;
+        }
+
         CustomObject value = eIncr.exp_.eval(this);
 
         if (value.type instanceof TypeInt) {
 
-            value.value = Integer.parseInt(value.value.toString()) + 1;
+            CustomObject res = new CustomObject(value.type, (Integer) value.value + 1);
             if (eIncr.exp_ instanceof EId) {
-                GLOBAL_SCOPE.put(((EId) eIncr.exp_).id_, value);
+                frame[((EId) eIncr.exp_).symbol_] = res;
                 return null;
             }
-            return value;
+            return res;
 
         } else {
             throw new Exception("Type error: Integer or Float expected!");
@@ -213,16 +824,21 @@ public class Evaluator implements EvalVisitor {
     @Override
     public CustomObject visit(EDecr eDecr) throws Exception {
 
+        if (eDecr.exp_ instanceof ELoopVar) {
+            loopSlots[((ELoopVar) eDecr.exp_).slot_]--;
+            return null;
+        }
+
         CustomObject value = eDecr.exp_.eval(this);
 
         if (value.type instanceof TypeInt) {
 
-            value.value = Integer.parseInt(value.value.toString()) - 1;
+            CustomObject res = new CustomObject(value.type, (Integer) value.value - 1);
             if (eDecr.exp_ instanceof EId) {
-                GLOBAL_SCOPE.put(((EId) eDecr.exp_).id_, value);
+                frame[((EId) eDecr.exp_).symbol_] = res;
                 return null;
             }
-            return value;
+            return res;
 
         } else {
             throw new Exception("Type error: Integer or Double expected!");
@@ -464,9 +1080,13 @@ public class Evaluator implements EvalVisitor {
 
         } else if (exp1.type instanceof TypeString || exp2.type instanceof TypeString) {
 
-            String prod = exp1.value.toString() + exp2.value.toString();
+            String left = exp1.value.toString();
+            String right = exp2.value.toString();
+
+            // charge before the result is allocated, as for arrays
+            charge(STRING_BYTES + 2L * (left.length() + right.length()));
 
-            res = new CustomObject(new TypeString(), prod);
+            res = new CustomObject(new TypeString(), left + right);
 
         } else {
 
@@ -564,6 +1184,208 @@ public class Evaluator implements EvalVisitor {
         return res;
     }
 
+    @Override
+    public CustomObject visit(EConcat eConcat) throws Exception {
+
+        // charge before the result is allocated, as for arrays, string operands are charged as they are appended
+        charge(STRING_BYTES + 2L * eConcat.capacity_);
+
+        StringBuilder builder = new StringBuilder(eConcat.capacity_);
+
+        for (int i = 0; i < eConcat.exps_.length; i++) {
+
+            if (eConcat.literals_[i] != null) {
+                builder.append(eConcat.literals_[i]);
+                continue;
+            }
+
+            Object value = eConcat.exps_[i].eval(this).value;
+
+            if (value instanceof Integer) {
+                builder.append(((Integer) value).intValue());
+            } else if (value instanceof Double) {
+                builder.append(((Double) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                builder.append(((Boolean) value).booleanValue());
+            } else {
+                String string = String.valueOf(value);
+                charge(2L * string.length());
+                builder.append(string);
+            }
+        }
+
+        return new CustomObject(new TypeString(), builder.toString());
+    }
+
+    @Override
+    public CustomObject visit(ENewArray eNewArray) throws Exception {
+
+        CustomObject size = eNewArray.exp_.eval(this);
+
+        if (!(size.type instanceof TypeInt))
+            throw new Exception("Type error: Array size must be an integer!");
+
+        int length = (Integer) size.value;
+
+        if (length < 0)
+            throw new Exception("Negative array size " + length);
+
+        charge(ARRAY_BYTES + elementBytes(eNewArray.type_) * length);
+
+        ScriptArray array;
+
+        if (eNewArray.offHeap_ || (length >= offHeapThreshold && !(eNewArray.type_ instanceof TypeString))) {
+
+            if (arena == null) {
+                arena = Arena.ofConfined();
+            }
+
+            array = OffHeapArray.allocate(eNewArray.type_, length, arena);
+
+        } else {
+            array = ScriptArray.allocate(eNewArray.type_, length);
+        }
+
+        return new CustomObject(new TypeArray(eNewArray.type_), array);
+    }
+
+    @Override
+    public CustomObject visit(EIndex eIndex) throws Exception {
+
+        CustomObject target = eIndex.exp_1.eval(this);
+
+        if (target.type instanceof TypeMap) {
+
+            ScriptMap map = map(target);
+
+            CustomObject value;
+
+            if (eIndex.exp_2 instanceof ELoopVar && map instanceof IntKeyMap) {
+                value = ((IntKeyMap) map).getInt(loopSlots[((ELoopVar) eIndex.exp_2).slot_]);
+            } else {
+                value = map.get(key(eIndex.exp_2, map));
+            }
+
+            if (value == null)
+                throw new Exception("Key not found in " + target.type + "!");
+
+            return value;
+        }
+
+        ScriptArray array = array(target);
+
+        return array.get(index(eIndex.exp_2, array, eIndex.checked_));
+    }
+
+    @Override
+    public CustomObject visit(ELength eLength) throws Exception {
+
+        CustomObject target = eLength.exp_.eval(this);
+
+        if (target.type instanceof TypeMap) {
+            return new CustomObject(new TypeInt(), map(target).size());
+        }
+
+        return new CustomObject(new TypeInt(), array(target).length());
+    }
+
+    @Override
+    public CustomObject visit(ENewMap eNewMap) throws Exception {
+
+        charge(MAP_BYTES);
+
+        return new CustomObject(eNewMap.type_, ScriptMap.allocate(eNewMap.type_.key_, eNewMap.type_.value_));
+    }
+
+    @Override
+    public CustomObject visit(EContains eContains) throws Exception {
+
+        ScriptMap map = map(eContains.exp_1.eval(this));
+
+        return new CustomObject(new TypeBool(), map.contains(key(eContains.exp_2, map)));
+    }
+
+    /**
+     * @param value evaluated value
+     * @return map held by value
+     * @throws Exception if value is not a map
+     */
+    private ScriptMap map(CustomObject value) throws Exception {
+
+        if (!(value.type instanceof TypeMap))
+            throw new Exception("Type error: " + value.type + " is not a map!");
+
+        if (value.value == null)
+            throw new Exception("Map has never been initialized!");
+
+        return (ScriptMap) value.value;
+    }
+
+    /**
+     * @param exp key expression
+     * @param map looked up map
+     * @return key
+     * @throws Exception if key type does not match the map
+     */
+    private CustomObject key(Exp exp, ScriptMap map) throws Exception {
+
+        CustomObject key = exp.eval(this);
+
+        if (!map.acceptsKey(key.type))
+            throw new Exception("Type error: " + key.type + " key used with " + map.keyType() + " keys!");
+
+        return key;
+    }
+
+    /**
+     * @param value evaluated value
+     * @return array held by value
+     * @throws Exception if value is not an array
+     */
+    private ScriptArray array(CustomObject value) throws Exception {
+
+        if (!(value.type instanceof TypeArray))
+            throw new Exception("Type error: " + value.type + " is not an array!");
+
+        if (value.value == null)
+            throw new Exception("Array has never been initialized!");
+
+        return (ScriptArray) value.value;
+    }
+
+    /**
+     * Evaluate array index, induction variables are read from their slot without boxing
+     *
+     * @param exp     index expression
+     * @param array   indexed array
+     * @param checked false if the optimizer proved the index to be in range
+     * @return index
+     * @throws Exception if index is not an integer or out of range
+     */
+    private int index(Exp exp, ScriptArray array, boolean checked) throws Exception {
+
+        int index;
+
+        if (exp instanceof ELoopVar) {
+
+            index = loopSlots[((ELoopVar) exp).slot_];
+
+        } else {
+
+            CustomObject value = exp.eval(this);
+
+            if (!(value.type instanceof TypeInt))
+                throw new Exception("Type error: Array index must be an integer!");
+
+            index = (Integer) value.value;
+        }
+
+        if (checked && (index < 0 || index >= array.length()))
+            throw new Exception("Index " + index + " out of bounds for length " + array.length());
+
+        return index;
+    }
+
     @Override
     public CustomObject visit(TypeBool typeBool) throws Exception {
         return null;
@@ -588,4 +1410,14 @@ public class Evaluator implements EvalVisitor {
     public CustomObject visit(TypeVoid typeVoid) throws Exception {
         return null;
     }
+
+    @Override
+    public CustomObject visit(TypeArray typeArray) throws Exception {
+        return null;
+    }
+
+    @Override
+    public CustomObject visit(TypeMap typeMap) throws Exception {
+        return null;
+    }
 }
@@ -25,8 +25,14 @@ public interface PrintVisitor {
 
     String visit(SWhile sWhile);
 
+    String visit(SFor sFor);
+
+    String visit(SIndexAss sIndexAss);
+
     String visit(EId eId);
 
+    String visit(ELoopVar eLoopVar);
+
     String visit(EIncr eIncr);
 
     String visit(EPIncr epIncr);
@@ -73,6 +79,18 @@ public interface PrintVisitor {
 
     String visit(ETimes eTimes);
 
+    String visit(EConcat eConcat);
+
+    String visit(ENewArray eNewArray);
+
+    String visit(EIndex eIndex);
+
+    String visit(ELength eLength);
+
+    String visit(ENewMap eNewMap);
+
+    String visit(EContains eContains);
+
     String visit(TypeBool typeBool);
 
     String visit(TypeInt typeInt);
@@ -83,4 +101,8 @@ public interface PrintVisitor {
 
     String visit(TypeVoid typeVoid);
 
+    String visit(TypeArray typeArray);
+
+    String visit(TypeMap typeMap);
+
 }
@@ -25,8 +25,12 @@ public class Printer implements PrintVisitor {
 
         builder.append("DFun: ");
 
-        for (Stm stm : dFun.liststm_) {
-            builder.append(stm.accept(this));
+        try {
+            for (Stm stm : dFun.body()) {
+                builder.append(stm.accept(this));
+            }
+        } catch (Exception e) {
+            builder.append(e.getMessage());
         }
 
         return builder.toString();
@@ -114,11 +118,44 @@ public class Printer implements PrintVisitor {
         return builder.toString();
     }
 
+    @Override
+    public String visit(SFor sFor) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("SFor: ");
+        builder.append(sFor.stm_.accept(this));
+        builder.append(sFor.exp_1.accept(this));
+        builder.append(sFor.exp_2.accept(this));
+
+        for (Stm stm : sFor.liststm_) {
+            builder.append(stm.accept(this));
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String visit(SIndexAss sIndexAss) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("SIndexAss: ");
+        builder.append(sIndexAss.id_);
+        builder.append(sIndexAss.exp_1.accept(this));
+        builder.append(sIndexAss.exp_2.accept(this));
+
+        return builder.toString();
+    }
+
     @Override
     public String visit(EId eId) {
         return "EId: " + eId.id_;
     }
 
+    @Override
+    public String visit(ELoopVar eLoopVar) {
+        return "ELoopVar: " + eLoopVar.id_;
+    }
+
     @Override
     public String visit(EIncr eIncr) {
         return "EIncr: " + eIncr.exp_.accept(this);
@@ -307,6 +344,65 @@ public class Printer implements PrintVisitor {
         return builder.toString();
     }
 
+    @Override
+    public String visit(EConcat eConcat) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("EConcat: ");
+        for (int i = 0; i < eConcat.exps_.length; i++) {
+            if (eConcat.literals_[i] != null) {
+                builder.append("EString: \"").append(eConcat.literals_[i]).append("\"");
+            } else {
+                builder.append(eConcat.exps_[i].accept(this));
+            }
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String visit(ENewArray eNewArray) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("ENewArray: ");
+        builder.append(eNewArray.type_.accept(this));
+        builder.append(eNewArray.exp_.accept(this));
+
+        return builder.toString();
+    }
+
+    @Override
+    public String visit(EIndex eIndex) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("EIndex: ");
+        builder.append(eIndex.exp_1.accept(this));
+        builder.append(eIndex.exp_2.accept(this));
+
+        return builder.toString();
+    }
+
+    @Override
+    public String visit(ELength eLength) {
+        return "ELength: " + eLength.exp_.accept(this);
+    }
+
+    @Override
+    public String visit(ENewMap eNewMap) {
+        return "ENewMap: " + eNewMap.type_.accept(this);
+    }
+
+    @Override
+    public String visit(EContains eContains) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("EContains: ");
+        builder.append(eContains.exp_1.accept(this));
+        builder.append(eContains.exp_2.accept(this));
+
+        return builder.toString();
+    }
+
     @Override
     public String visit(TypeBool typeBool) {
         return "TypeBool";
@@ -331,4 +427,14 @@ public class Printer implements PrintVisitor {
     public String visit(TypeVoid typeVoid) {
         return "TypeVoid";
     }
+
+    @Override
+    public String visit(TypeArray typeArray) {
+        return "TypeArray" + typeArray.type_.accept(this);
+    }
+
+    @Override
+    public String visit(TypeMap typeMap) {
+        return "TypeMap" + typeMap.key_.accept(this) + typeMap.value_.accept(this);
+    }
 }
@@ -0,0 +1,65 @@
+package com.csci;
+
+import com.csci.lexer.Token;
+
+import java.util.List;
+
+/**
+ * Checks shared by the tests. Tests are classes with a main method run by {@code ./build.sh test}, a failed
+ * check throws an {@link AssertionError} naming the input it failed on.
+ */
+public final class Assertions {
+
+    private Assertions() { }
+
+    /**
+     * @param condition checked condition
+     * @param message   description of the failure
+     */
+    public static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * @param expected expected value
+     * @param actual   actual value
+     * @param input    input the values were computed from
+     */
+    public static void equal(Object expected, Object actual, String input) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError("Expected " + expected + " but was " + actual + " for " + printable(input));
+        }
+    }
+
+    /**
+     * Compare token types, texts and positions
+     *
+     * @param expected tokens of the sequential lexer
+     * @param actual   tokens to check
+     * @param input    lexed source
+     */
+    public static void sameTokens(List<Token> expected, List<Token> actual, String input) {
+
+        equal(expected.size(), actual.size(), input);
+
+        for (int i = 0; i < expected.size(); i++) {
+
+            Token a = expected.get(i);
+            Token b = actual.get(i);
+
+            if (a.getType() != b.getType() || !a.getData().equals(b.getData()) || !a.getPosition().equals(b.getPosition())) {
+                throw new AssertionError("Token " + i + " is " + b + " instead of " + a + " for " + printable(input));
+            }
+        }
+    }
+
+    /**
+     * @param input source
+     * @return source with line breaks escaped
+     */
+    public static String printable(String input) {
+        return "\"" + input.replace("\n", "\\n").replace("\r", "\\r") + "\"";
+    }
+}
@@ -0,0 +1,84 @@
+package com.csci.engine;
+
+import com.csci.Assertions;
+import com.csci.grammar.PDefs;
+import com.csci.lexer.Lexer;
+import com.csci.optimizer.Optimizer;
+import com.csci.parser.Parser;
+import com.csci.visitor.Evaluator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Converts random parsed and optimized programs to an {@link AstArena} and back. The tree has to encode like the
+ * original, keep its symbols and evaluate to the same value, and a walk of the arena has to visit every node.
+ */
+public class AstArenaTest {
+
+    private static final String[] STATEMENTS = {
+            "int a = 1;", "int b = a + 2 * 3 - 1;", "for (int i = 0; i < 10; i++) { a = a + i; }",
+            "if (a > 2) { b = 3; } else { b = 4; }", "string s = \"x\" + a + \"y\" + 2;", "int[] xs = int[3];",
+            "xs[1] = 4;", "a = xs[1] + xs.length;", "float d = 1.5;", "map<string, int> m = map<string, int>();",
+            "bool t = true && false;", "return a;", "a = b * 2;", "int c;", "while (a < 3) { a++; }",
+            "string u = \"n\" + 1.25 + true;"
+    };
+
+    public static void main(String[] args) throws Exception {
+
+        Random random = new Random(50);
+
+        for (int run = 0; run < 2000; run++) {
+
+            StringBuilder source = new StringBuilder();
+            int definitions = 1 + random.nextInt(5);
+
+            for (int d = 0; d < definitions; d++) {
+
+                source.append("int f").append(d).append("() {\n");
+
+                for (int s = 1 + random.nextInt(6); s > 0; s--) {
+                    source.append("    ").append(STATEMENTS[random.nextInt(STATEMENTS.length)]).append('\n');
+                }
+
+                source.append("}\n");
+            }
+
+            String input = source.toString();
+            PDefs parsed = (PDefs) new Parser(new Lexer().lex(input)).parseProgram();
+
+            roundtrip(parsed, input);
+            roundtrip((PDefs) new Optimizer().optimize(parsed), input);
+        }
+    }
+
+    private static void roundtrip(PDefs program, String input) throws Exception {
+
+        AstArena arena = AstArena.of(program);
+        PDefs tree = arena.toTree();
+
+        Assertions.check(Arrays.equals(AstCodec.encode(program), AstCodec.encode(tree)),
+                "Arena tree differs from " + Assertions.printable(input));
+        Assertions.check(tree.symbols_ == program.symbols_, "Arena tree lost the symbols of " + Assertions.printable(input));
+        Assertions.equal(value(program), value(tree), input);
+
+        int[] visited = new int[1];
+        arena.walk((a, node) -> {
+            visited[0]++;
+            return true;
+        });
+
+        Assertions.equal(arena.size(), visited[0], input);
+    }
+
+    /**
+     * @return printed value or error
+     */
+    private static String value(PDefs program) {
+        try (Evaluator evaluator = new Evaluator()) {
+            return String.valueOf(evaluator.visit(program));
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
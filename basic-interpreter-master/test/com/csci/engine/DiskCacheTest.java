@@ -0,0 +1,101 @@
+package com.csci.engine;
+
+import com.csci.Assertions;
+import com.csci.visitor.Printer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Stores a program in a {@link DiskCache} and reads it back, then damages the entry: a flipped payload byte, a
+ * truncated file and another format version each have to be discarded and the program rebuilt from source.
+ */
+public class DiskCacheTest {
+
+    private static final String SOURCE = """
+            int f() {
+                int a = 1;
+                for (int i = 0; i < 10; i++) {
+                    a = a + i;
+                }
+                string s = "a is " + a;
+                return a;
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+
+        Path directory = Files.createTempDirectory("disk-cache-test");
+
+        try {
+
+            String key = ProgramCache.hash(SOURCE);
+            CompiledProgram expected = CompiledProgram.compile(SOURCE);
+            Path file = directory.resolve(key + ".ast");
+
+            DiskCache cache = new DiskCache(directory);
+            same(expected, cache.compile(key, SOURCE));
+            Assertions.check(Files.exists(file), "Compiled program was not stored");
+
+            DiskCache restarted = new DiskCache(directory);
+            same(expected, restarted.compile(key, SOURCE));
+            Assertions.equal(1L, restarted.loadCount(), "round trip");
+
+            damage(file, bytes -> bytes[bytes.length - 1] ^= 1);
+            rebuilt(directory, key, expected, "flipped payload byte");
+
+            byte[] stored = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(stored, stored.length / 2));
+            rebuilt(directory, key, expected, "truncated file");
+
+            damage(file, bytes -> ByteBuffer.wrap(bytes).putInt(4, AstCodec.FORMAT_VERSION + 1));
+            rebuilt(directory, key, expected, "other format version");
+
+            ProgramCache memory = new ProgramCache();
+            Assertions.equal(1, new DiskCache(directory).warm(memory), "warm up");
+            same(expected, memory.peek(key));
+
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private static void damage(Path file, Consumer<byte[]> damage) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        damage.accept(bytes);
+        Files.write(file, bytes);
+    }
+
+    /**
+     * Check that a damaged entry is discarded, the program compiled from source and stored again
+     */
+    private static void rebuilt(Path directory, String key, CompiledProgram expected, String damage) throws Exception {
+
+        DiskCache cache = new DiskCache(directory);
+
+        same(expected, cache.compile(key, SOURCE));
+        Assertions.equal(0L, cache.loadCount(), damage);
+        Assertions.equal(1L, cache.rebuildCount(), damage);
+
+        DiskCache restarted = new DiskCache(directory);
+
+        same(expected, restarted.compile(key, SOURCE));
+        Assertions.equal(1L, restarted.loadCount(), damage);
+    }
+
+    private static void same(CompiledProgram expected, CompiledProgram actual) throws Exception {
+        Assertions.equal(new Printer().visit(expected.program()), new Printer().visit(actual.program()), SOURCE);
+        Assertions.equal(String.valueOf(expected.run().value), String.valueOf(actual.run().value), SOURCE);
+        Assertions.equal(expected.weight(), actual.weight(), SOURCE);
+    }
+}
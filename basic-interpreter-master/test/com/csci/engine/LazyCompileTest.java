@@ -0,0 +1,172 @@
+package com.csci.engine;
+
+import com.csci.Assertions;
+import com.csci.grammar.DFun;
+import com.csci.grammar.Def;
+import com.csci.grammar.PDefs;
+import com.csci.grammar.Program;
+import com.csci.lexer.Lexer;
+import com.csci.parser.Parser;
+import com.csci.visitor.Evaluator;
+import com.csci.visitor.Printer;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link CompiledProgram#compileLazily(String)} with {@link CompiledProgram#compile(String)} on random
+ * programs: the value of a run and of invoking every function, and the printed trees of the eager and the lazy
+ * parse. Optimized trees differ, a lazy body is optimized without the variables of other definitions. Broken
+ * programs insert stray tokens, the lazy compile has to fail too or print the eager error in the body it is in.
+ * Errors of the lazy compile itself may differ, it only matches the braces of bodies. Invoking one function of a
+ * lazy compile has to parse its body only.
+ */
+public class LazyCompileTest {
+
+    private static final String[] STATEMENTS = {
+            "int a = 1;", "int b = a + 2;", "for (int i = 0; i < 10; i++) { a = a + i; }",
+            "if (a > 2) { b = 3; } else { b = 4; }", "string s = \"x\" + a;", "int[] xs = int[3];", "return a;",
+            "a = b * 2;", "int c;", "/* c\n */", "// x\n", "string t = \"{\";"
+    };
+
+    private static final String[] STRAY = {
+            " ", "}", "{", "int", "x", ";", "(", "a", "= 3;", "\""
+    };
+
+    public static void main(String[] args) throws Exception {
+
+        coldStart();
+
+        Random random = new Random(49);
+
+        for (int run = 0; run < 3000; run++) {
+
+            StringBuilder source = new StringBuilder();
+            int definitions = random.nextInt(6);
+
+            for (int d = 0; d < definitions; d++) {
+
+                source.append("int f").append(d).append("() {\n");
+
+                for (int s = 1 + random.nextInt(4); s > 0; s--) {
+                    source.append("    ").append(STATEMENTS[random.nextInt(STATEMENTS.length)]).append('\n');
+                }
+
+                source.append("}\n");
+            }
+
+            boolean broken = definitions > 0 && random.nextInt(3) == 0;
+
+            if (broken) {
+                source.insert(random.nextInt(source.length()), STRAY[random.nextInt(STRAY.length)]);
+            }
+
+            String input = source.toString();
+
+            if (broken) {
+                sameError(input);
+            } else {
+                same(input, definitions);
+            }
+        }
+    }
+
+    /**
+     * Invoke one function of a lazily compiled program, no other body may be parsed until the program is run
+     */
+    private static void coldStart() throws Exception {
+
+        StringBuilder source = new StringBuilder();
+
+        for (int d = 0; d < 100; d++) {
+            source.append(String.format("int f%1$d() { int a%1$d = %1$d; return a%1$d; }\n", d));
+        }
+
+        String input = source.toString();
+        CompiledProgram lazy = CompiledProgram.compileLazily(input);
+
+        Assertions.equal("7", value(lazy, "f7"), input);
+        Assertions.equal(1, parsed(lazy), input);
+
+        lazy.run();
+        Assertions.equal(100, parsed(lazy), input);
+    }
+
+    /**
+     * @return number of parsed function bodies
+     */
+    private static int parsed(CompiledProgram program) {
+
+        int parsed = 0;
+
+        for (Def def : program.program().listdef_) {
+            if (def instanceof DFun && ((DFun) def).statements() != null) {
+                parsed++;
+            }
+        }
+
+        return parsed;
+    }
+
+    /**
+     * Compare printed trees, the run and every function of a program that parses
+     */
+    private static void same(String input, int definitions) throws Exception {
+
+        Assertions.equal(print(new Parser(new Lexer().lex(input)).parseProgram()),
+                print(new Parser(new Lexer().lex(input), input).parseProgram()), input);
+
+        CompiledProgram eager = CompiledProgram.compile(input);
+        CompiledProgram lazy = CompiledProgram.compileLazily(input);
+
+        Assertions.equal(value(eager, null), value(lazy, null), input);
+
+        for (int d = 0; d < definitions; d++) {
+            Assertions.equal(value(eager, "f" + d), value(lazy, "f" + d), input);
+        }
+    }
+
+    /**
+     * Check that a program the eager compile fails on fails the lazy compile or prints the error of a lazy body
+     */
+    private static void sameError(String input) {
+
+        String error;
+
+        try {
+            CompiledProgram.compile(input);
+            return;
+        } catch (Exception e) {
+            error = e.getMessage();
+        }
+
+        String lazy;
+
+        try {
+            lazy = print(CompiledProgram.compileLazily(input).program());
+        } catch (Exception e) {
+            Assertions.check(e.getMessage().startsWith("Parse error"), "Lazy compile of " + Assertions.printable(input)
+                    + " failed with " + e.getMessage());
+            return;
+        }
+
+        Assertions.check(lazy.contains(error), "Lazy compile of " + Assertions.printable(input) + " printed " + lazy
+                + " instead of " + error);
+    }
+
+    private static String print(Program program) {
+        return new Printer().visit((PDefs) program);
+    }
+
+    /**
+     * @param function function to invoke or null to run the program
+     * @return printed value or error
+     */
+    private static String value(CompiledProgram program, String function) {
+        try {
+            return String.valueOf(function == null ? program.run() : program.invoke(function, List.of(), new Evaluator()));
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
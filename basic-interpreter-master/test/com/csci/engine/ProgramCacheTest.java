@@ -0,0 +1,79 @@
+package com.csci.engine;
+
+import com.csci.Assertions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evicts least recently used programs beyond the weight bound, and compiles a source hit by many threads at
+ * once a single time while the hits of cached programs go on.
+ */
+public class ProgramCacheTest {
+
+    /**
+     * Program of 9 tokens
+     */
+    private static final String PROGRAM = "int f%d() { return 1; }\n";
+
+    public static void main(String[] args) throws Exception {
+
+        AtomicInteger compiled = new AtomicInteger();
+        ProgramCache cache = new ProgramCache(27, (key, source) -> {
+            compiled.incrementAndGet();
+            return CompiledProgram.compile(source);
+        });
+
+        for (int i = 0; i < 3; i++) {
+            cache.get(String.format(PROGRAM, i));
+            Thread.sleep(5);
+        }
+
+        Assertions.equal(27L, cache.weight(), "three programs");
+
+        // program 0 is used again, program 1 is now the least recently used
+        cache.get(String.format(PROGRAM, 0));
+        Thread.sleep(5);
+        cache.get(String.format(PROGRAM, 3));
+
+        Assertions.equal(3, cache.size(), "four programs");
+        Assertions.equal(1L, cache.evictionCount(), "four programs");
+        Assertions.check(cache.peek(ProgramCache.hash(String.format(PROGRAM, 1))) == null, "Program 1 was not evicted");
+        Assertions.check(cache.peek(ProgramCache.hash(String.format(PROGRAM, 0))) != null, "Program 0 was evicted");
+        Assertions.equal(4, compiled.get(), "four programs");
+
+        compiled.set(0);
+        ProgramCache shared = new ProgramCache(ProgramCache.DEFAULT_MAX_WEIGHT, (key, source) -> {
+            compiled.incrementAndGet();
+            Thread.sleep(50);
+            return CompiledProgram.compile(source);
+        });
+
+        CompiledProgram hot = shared.get(String.format(PROGRAM, 0));
+        compiled.set(0);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+
+            List<Future<CompiledProgram>> cold = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                cold.add(executor.submit(() -> shared.get(String.format(PROGRAM, 1))));
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                Assertions.check(shared.get(String.format(PROGRAM, 0)) == hot, "Hit returned another program");
+            }
+
+            for (Future<CompiledProgram> future : cold) {
+                Assertions.check(future.get() == cold.get(0).get(), "Concurrent misses returned different programs");
+            }
+        }
+
+        Assertions.equal(1, compiled.get(), "concurrent misses");
+        Assertions.check(shared.hitCount() >= 1000, "Hits were not counted");
+    }
+}
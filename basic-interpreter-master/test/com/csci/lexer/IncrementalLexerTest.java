@@ -0,0 +1,50 @@
+package com.csci.lexer;
+
+import com.csci.Assertions;
+
+import java.util.Random;
+
+/**
+ * Applies random edits to an {@link IncrementalLexer} and compares its tokens after every edit with
+ * {@link Lexer#lex(String)} of the edited text. Fragments open and close comments and strings so edits change
+ * the tokens far from the edited range.
+ */
+public class IncrementalLexerTest {
+
+    private static final String[] FRAGMENTS = {
+            "int", "x1", "-5", "5.5", "\"str\"", "\"", "'c'", "/", "//c\n", "/*", "*/", "/* a\n b */ c */", "+", "==",
+            "!=", ";", "{", "}", " ", "\t", "\n", "\n\n", "\r\n", "é", "EOF", "intx"
+    };
+
+    public static void main(String[] args) {
+
+        Random random = new Random(44);
+
+        for (int run = 0; run < 3000; run++) {
+
+            StringBuilder source = new StringBuilder();
+            int fragments = random.nextInt(30);
+
+            for (int i = 0; i < fragments; i++) {
+                source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+
+            IncrementalLexer lexer = new IncrementalLexer(source.toString());
+
+            for (int edit = 0; edit < 30; edit++) {
+
+                int offset = random.nextInt(source.length() + 1);
+                int removed = random.nextInt(3) == 0 ? Math.min(source.length() - offset, random.nextInt(8)) : 0;
+                String inserted = random.nextInt(4) == 0 ? "" : FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+
+                source.replace(offset, offset + removed, inserted);
+                lexer.edit(offset, removed, inserted);
+
+                String input = source.toString();
+
+                Assertions.equal(input, lexer.text(), input);
+                Assertions.sameTokens(new Lexer().lex(input), lexer.tokens(), input);
+            }
+        }
+    }
+}
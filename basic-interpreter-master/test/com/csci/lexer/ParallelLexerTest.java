@@ -0,0 +1,48 @@
+package com.csci.lexer;
+
+import com.csci.Assertions;
+
+import java.util.Random;
+
+/**
+ * Compares {@link ParallelLexer} with {@link Lexer#lex(String)} on random sources built from fragments that
+ * cross line breaks, e.g. block comments and unterminated strings, lexed with tiny chunks so nearly every line
+ * break is a chunk boundary.
+ */
+public class ParallelLexerTest {
+
+    private static final String[] FRAGMENTS = {
+            "int", "x1", "-5", "5.5", "\"str\"", "\"open", "\"a\nb\"", "'c'", "/", "//c\n", "/* a\n b */ c */",
+            "/* x */", "/*\n*/", "/*\n\n*/", "*/", "+", "==", "!=", ";", "{", "}", " ", "\t", "\n", "\n\n", "\r\n",
+            "é", "\u2028"
+    };
+
+    public static void main(String[] args) {
+
+        Random random = new Random(43);
+
+        for (int run = 0; run < 20000; run++) {
+
+            StringBuilder source = new StringBuilder();
+            int fragments = 1 + random.nextInt(30);
+
+            for (int i = 0; i < fragments; i++) {
+                source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+
+            String input = source.toString();
+
+            Assertions.sameTokens(new Lexer().lex(input), new ParallelLexer(1 + random.nextInt(12)).lex(input), input);
+        }
+
+        StringBuilder large = new StringBuilder();
+
+        for (int i = 0; i < 20000; i++) {
+            large.append("int f").append(i).append("() { string s = \"hello\"; return ").append(i).append("; } /* note\n end */\n");
+        }
+
+        String input = large.toString();
+
+        Assertions.sameTokens(new Lexer().lex(input), new ParallelLexer(4096).lex(input), "generated program");
+    }
+}
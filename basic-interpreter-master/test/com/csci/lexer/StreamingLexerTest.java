@@ -0,0 +1,81 @@
+package com.csci.lexer;
+
+import com.csci.Assertions;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link StreamingLexer} on buffers of 16 to 80 characters with {@link Lexer#lex(String)} on random
+ * sources, so tokens and comments span buffer boundaries and whole buffers. Fragments are shorter than the
+ * smallest buffer and have no unclosed strings or comments, every source lexes within the buffer. Tokens longer
+ * than the buffer have to be rejected.
+ */
+public class StreamingLexerTest {
+
+    private static final String[] FRAGMENTS = {
+            "int", "x1", "-5", "5.5", "\"str\"", "\"a b\"", "'c'", "/ ", "//c\n", "/* a\n b */", "+", "++", "==",
+            "!=", ";", "{", "}", " ", "  ", "\t", "\n", "\r\n", "é", "map", "intx", "1.", "a.length"
+    };
+
+    public static void main(String[] args) {
+
+        String comment = "/* a\n b */ int y = 2;" + " x = x + 1;".repeat(10000);
+
+        for (int capacity = 16; capacity <= 1 << 16; capacity *= 2) {
+            same(comment, capacity);
+        }
+
+        rejected("int x = \"" + "s".repeat(100) + "\";", 64);
+        rejected("// " + "c".repeat(100) + "\nint x;", 64);
+
+        Random random = new Random(41);
+
+        for (int run = 0; run < 5000; run++) {
+
+            StringBuilder source = new StringBuilder();
+            int fragments = random.nextInt(200);
+
+            for (int i = 0; i < fragments; i++) {
+                source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                if (random.nextInt(3) == 0) {
+                    source.append(' ');
+                }
+            }
+
+            same(source.toString(), 16 + random.nextInt(65));
+        }
+    }
+
+    private static void same(String input, int capacity) {
+        Assertions.sameTokens(new Lexer().lex(input), lex(input, capacity), input);
+    }
+
+    private static void rejected(String input, int capacity) {
+
+        try {
+            lex(input, capacity);
+        } catch (IllegalStateException e) {
+            Assertions.check(e.getMessage().contains("longer than the buffer"), "Lex of " + Assertions.printable(input)
+                    + " failed with " + e.getMessage());
+            return;
+        }
+
+        throw new AssertionError("Lex of " + Assertions.printable(input) + " with a buffer of " + capacity
+                + " characters did not fail");
+    }
+
+    private static List<Token> lex(String input, int capacity) {
+
+        StreamingLexer lexer = new StreamingLexer(new StringReader(input), capacity);
+        List<Token> tokens = new ArrayList<>();
+
+        for (Token token = lexer.nextToken(); token != null; token = lexer.nextToken()) {
+            tokens.add(token);
+        }
+
+        return tokens;
+    }
+}
@@ -0,0 +1,108 @@
+package com.csci.parser;
+
+import com.csci.Assertions;
+import com.csci.grammar.PDefs;
+import com.csci.lexer.IncrementalLexer;
+import com.csci.lexer.Lexer;
+import com.csci.optimizer.Optimizer;
+import com.csci.visitor.Printer;
+
+import java.util.Random;
+
+/**
+ * Applies edits to an {@link IncrementalParser} and compares the printed program after every parse and
+ * optimization with a whole program parse of the edited text. Edits include ones that leave the token hash of a
+ * definition unchanged, {@code "Aa"} and {@code "BB"} have equal string hashes.
+ */
+public class IncrementalParserTest {
+
+    private static final String[] DEFINITIONS = {
+            "string f() { return \"Aa\"; }\n", "string f() { return \"BB\"; }\n", "int g() { int x = 1; return x; }\n",
+            "int g() { double x = 1.5; return 1; }\n", "int h() { x = x + 1; return x; }\n",
+            "int k() { for (int i = 0; i < 3; i++) { x = x + i; } return x; }\n"
+    };
+
+    private static final String[] FRAGMENTS = {
+            "Aa", "BB", "x", "1", " ", "\n", ";", "{", "}", "+", "int", "double"
+    };
+
+    public static void main(String[] args) throws Exception {
+
+        String source = "string f() { return \"Aa\"; }\n";
+        IncrementalParser parser = new IncrementalParser(new IncrementalLexer(source));
+
+        same(source, parser);
+
+        parser.edit(source.indexOf("Aa"), 2, "BB");
+        same(source.replace("Aa", "BB"), parser);
+
+        Random random = new Random(47);
+
+        for (int run = 0; run < 500; run++) {
+
+            StringBuilder text = new StringBuilder();
+            int definitions = 1 + random.nextInt(5);
+
+            for (int i = 0; i < definitions; i++) {
+                text.append(DEFINITIONS[random.nextInt(DEFINITIONS.length)]);
+            }
+
+            parser = new IncrementalParser(new IncrementalLexer(text.toString()));
+            same(text.toString(), parser);
+
+            for (int edit = 0; edit < 20; edit++) {
+
+                int offset = random.nextInt(text.length() + 1);
+                int removed = random.nextInt(3) == 0 ? Math.min(text.length() - offset, random.nextInt(4)) : 0;
+                String inserted = random.nextInt(4) == 0 ? "" : FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+
+                if (random.nextBoolean()) {
+                    // replace a whole definition
+                    int start = text.lastIndexOf("\n", Math.max(0, offset - 1)) + 1;
+                    int end = text.indexOf("\n", start) + 1;
+
+                    if (end > start) {
+                        offset = start;
+                        removed = end - start;
+                        inserted = DEFINITIONS[random.nextInt(DEFINITIONS.length)];
+                    }
+                }
+
+                text.replace(offset, offset + removed, inserted);
+                parser.edit(offset, removed, inserted);
+
+                same(text.toString(), parser);
+            }
+        }
+    }
+
+    /**
+     * Compare the parsed and optimized program or the error with those of a whole program parse
+     */
+    private static void same(String source, IncrementalParser parser) {
+
+        String expected;
+        String expectedOptimized;
+
+        try {
+            PDefs program = (PDefs) new Parser(new Lexer().lex(source)).parseProgram();
+            expected = new Printer().visit(program);
+            expectedOptimized = new Printer().visit((PDefs) new Optimizer().optimize(program));
+        } catch (Exception e) {
+            expected = expectedOptimized = e.getMessage();
+        }
+
+        String actual;
+        String actualOptimized;
+
+        try {
+            actual = new Printer().visit(parser.parse());
+            actualOptimized = new Printer().visit(parser.optimize());
+        } catch (Exception e) {
+            actual = actualOptimized = e.getMessage();
+        }
+
+        Assertions.equal(expected, actual, source);
+        Assertions.equal(expectedOptimized, actualOptimized, source);
+    }
+}
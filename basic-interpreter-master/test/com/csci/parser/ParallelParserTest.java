@@ -0,0 +1,82 @@
+package com.csci.parser;
+
+import com.csci.Assertions;
+import com.csci.grammar.PDefs;
+import com.csci.lexer.Lexer;
+import com.csci.visitor.Printer;
+
+import java.util.Random;
+
+/**
+ * Compares {@link ParallelParser} with {@link Parser#parseProgram()} on random programs of definitions mixed with
+ * stray tokens, parsed with tiny grains so nearly every definition is a task of its own. The common pool is given
+ * several workers, with a single one the parallel parser parses sequentially.
+ */
+public class ParallelParserTest {
+
+    private static final String[] STATEMENTS = {
+            "int a = 1;", "int b = a + 2;", "for (int i = 0; i < 10; i++) { a = a + i; }",
+            "if (a > 2) { b = 3; } else { b = 4; }", "string s = \"x\";", "int[] xs = int[3];", "return a;", "int c;"
+    };
+
+    private static final String[] STRAY = {
+            " ", "}", "{", "int", "x", ";", "(", "a", "= 3;", "int y;"
+    };
+
+    public static void main(String[] args) {
+
+        System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", "4");
+
+        for (String input : new String[]{"", "int x;", "int x = 1;", "int f() { return 1; } int x;", "int x; int f() { return 1; }"}) {
+            same(input, new ParallelParser(1));
+        }
+
+        Random random = new Random(48);
+
+        for (int run = 0; run < 5000; run++) {
+
+            StringBuilder source = new StringBuilder();
+            int definitions = random.nextInt(8);
+
+            for (int d = 0; d < definitions; d++) {
+
+                source.append("int f").append(d).append("() { ");
+
+                for (int s = random.nextInt(4); s > 0; s--) {
+                    source.append(STATEMENTS[random.nextInt(STATEMENTS.length)]).append(' ');
+                }
+
+                source.append("}\n");
+
+                if (random.nextInt(8) == 0) {
+                    source.insert(random.nextInt(source.length() + 1), STRAY[random.nextInt(STRAY.length)]);
+                }
+            }
+
+            same(source.toString(), new ParallelParser(1 + random.nextInt(40)));
+        }
+    }
+
+    /**
+     * Compare the printed program or the error with those of the sequential parser
+     */
+    private static void same(String input, ParallelParser parser) {
+
+        String expected;
+        String actual;
+
+        try {
+            expected = new Printer().visit((PDefs) new Parser(new Lexer().lex(input)).parseProgram());
+        } catch (Exception e) {
+            expected = e.getMessage();
+        }
+
+        try {
+            actual = new Printer().visit(parser.parse(new Lexer().lex(input)));
+        } catch (Exception e) {
+            actual = e.getMessage();
+        }
+
+        Assertions.equal(expected, actual, input);
+    }
+}
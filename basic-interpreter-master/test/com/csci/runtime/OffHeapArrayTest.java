@@ -0,0 +1,54 @@
+package com.csci.runtime;
+
+import com.csci.Assertions;
+import com.csci.engine.CompiledProgram;
+import com.csci.grammar.CustomObject;
+import com.csci.visitor.Evaluator;
+
+/**
+ * Off-heap arrays live as long as their run. A returned array is copied to the heap, arrays left in the
+ * variables are freed and fail any further use, also when bound into another run.
+ */
+public class OffHeapArrayTest {
+
+    private static final String FILL = "int f() { offheap int[] xs = int[4]; xs[1] = 7; int[] ys = int[8]; ys[2] = 3; return xs; }";
+
+    private static final String READ = "int f() { return xs[1]; }";
+
+    public static void main(String[] args) throws Exception {
+
+        Evaluator evaluator = new Evaluator();
+        evaluator.setOffHeapThreshold(8);
+
+        CustomObject returned = CompiledProgram.compile(FILL).run(evaluator);
+
+        Assertions.check(!(returned.value instanceof OffHeapArray), "Returned array was not copied to the heap");
+        Assertions.equal(7, ((ScriptArray) returned.value).get(1).value, FILL);
+
+        for (String name : new String[]{"xs", "ys"}) {
+
+            Object value = evaluator.variables().get(name).value;
+
+            Assertions.check(value instanceof OffHeapArray, name + " was not allocated off-heap");
+            Assertions.check(!((OffHeapArray) value).isAlive(), name + " was not freed");
+            Assertions.equal("[freed]", value.toString(), FILL);
+
+            try {
+                ((OffHeapArray) value).get(1);
+                throw new AssertionError("Freed array " + name + " was read");
+            } catch (IllegalStateException expected) {
+                // the segment of a closed arena can not be accessed
+            }
+        }
+
+        Evaluator next = new Evaluator();
+        next.bind("xs", evaluator.variables().get("xs"));
+
+        try {
+            CompiledProgram.compile(READ).run(next);
+            throw new AssertionError("Freed array was read by another run");
+        } catch (IllegalStateException expected) {
+            // the segment of a closed arena can not be accessed
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.csci.runtime;
+
+import com.csci.Assertions;
+import com.csci.engine.CompiledProgram;
+import com.csci.grammar.CustomObject;
+import com.csci.grammar.Type;
+import com.csci.grammar.TypeDouble;
+import com.csci.grammar.TypeInt;
+import com.csci.grammar.TypeString;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Interleaves puts, gets and contains on {@link IntKeyMap} and {@link StringKeyMap} with a {@link HashMap}, over
+ * enough keys to grow the tables several times so lookups hit entries of both tables of a resize in progress.
+ * A script reading a missing key has to fail.
+ */
+public class ScriptMapTest {
+
+    private static final String MISSING = "int f() { map<string, int> m = map<string, int>(); m[\"a\"] = 1; return m[\"b\"]; }";
+
+    private static final String CONTAINS = "bool f() { map<int, int> m = map<int, int>(); m[1] = 1; return m.contains(2); }";
+
+    public static void main(String[] args) throws Exception {
+
+        Random random = new Random(30);
+
+        for (Type valueType : new Type[]{new TypeInt(), new TypeDouble(), new TypeString()}) {
+            same(new IntKeyMap(valueType), valueType, random, false);
+            same(new StringKeyMap(valueType), valueType, random, true);
+        }
+
+        Assertions.equal("Exception: Key not found in map<string,integer>!", value(MISSING), MISSING);
+        Assertions.equal("false", value(CONTAINS), CONTAINS);
+    }
+
+    private static void same(ScriptMap map, Type valueType, Random random, boolean stringKeys) {
+
+        Map<Object, Object> expected = new HashMap<>();
+        String input = map.getClass().getSimpleName() + " of " + valueType;
+
+        for (int op = 0; op < 20_000; op++) {
+
+            // the key range grows with the operations, so the table resizes while old keys are still read
+            int number = random.nextInt(op / 4 + 16) - 8;
+            CustomObject key = stringKeys ? new CustomObject(new TypeString(), "k" + number) : new CustomObject(new TypeInt(), number);
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    CustomObject value = value(valueType, random.nextInt());
+                    map.put(key, value);
+                    expected.put(key.value, value.value);
+                    break;
+                case 1:
+                    CustomObject found = map.get(key);
+                    Assertions.equal(expected.get(key.value), found == null ? null : found.value, input);
+                    break;
+                default:
+                    Assertions.equal(expected.containsKey(key.value), map.contains(key), input);
+            }
+
+            Assertions.equal(expected.size(), map.size(), input);
+        }
+
+        for (Map.Entry<Object, Object> entry : expected.entrySet()) {
+            CustomObject key = stringKeys ? new CustomObject(new TypeString(), entry.getKey()) : new CustomObject(new TypeInt(), entry.getKey());
+            Assertions.equal(entry.getValue(), map.get(key).value, input);
+        }
+    }
+
+    private static CustomObject value(Type type, int random) {
+
+        if (type instanceof TypeInt) {
+            return new CustomObject(type, random);
+        } else if (type instanceof TypeDouble) {
+            return new CustomObject(type, random / 7.0);
+        }
+
+        return new CustomObject(type, "v" + random);
+    }
+
+    /**
+     * @return printed value or error
+     */
+    private static String value(String input) {
+        try {
+            return String.valueOf(CompiledProgram.compile(input).run().value);
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
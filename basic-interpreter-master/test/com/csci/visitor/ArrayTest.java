@@ -0,0 +1,48 @@
+package com.csci.visitor;
+
+import com.csci.Assertions;
+import com.csci.grammar.PDefs;
+import com.csci.lexer.Lexer;
+import com.csci.optimizer.Optimizer;
+import com.csci.parser.Parser;
+
+/**
+ * Runs array programs optimized and unoptimized. Loops indexing the array bounding them skip the bounds check,
+ * nested loops and loops reassigning their variable or the array in the body have to keep it and report an
+ * index out of bounds like any other access.
+ */
+public class ArrayTest {
+
+    private static final String[][] PROGRAMS = {
+            {"int f() { int[] xs = int[4]; for (int i = 0; i < xs.length; i++) { xs[i] = i * i; } return xs[3]; }", "9"},
+            {"int f() { int[] xs = int[3]; int s = 0; for (int i = 0; i < xs.length; i++) { for (int j = 0; j < xs.length; j++) { xs[j] = xs[j] + i; s = s + xs[i]; } } return s; }", "7"},
+            {"int f() { int[] xs = int[3]; return xs[3]; }", "Exception: Index 3 out of bounds for length 3"},
+            {"int f() { int[] xs = int[3]; return xs[0 - 1]; }", "Exception: Index -1 out of bounds for length 3"},
+            {"int f() { int[] xs = int[3]; xs[5] = 1; return 0; }", "Exception: Index 5 out of bounds for length 3"},
+            {"int f() { int[] xs = int[3]; int s = 0; for (int i = 0; i < xs.length; i++) { i = i + 3; s = s + xs[i]; } return s; }", "Exception: Index 3 out of bounds for length 3"},
+            {"int f() { int[] xs = int[3]; for (int i = 0; i < xs.length; i++) { i++; xs[i] = 1; } return xs[1]; }", "Exception: Index 3 out of bounds for length 3"},
+            {"int f() { int[] xs = int[3]; int s = 0; for (int i = 0; i < xs.length; i++) { if (i > 0) { xs = int[1]; } else { s = 1; } s = s + xs[i]; } return s; }", "Exception: Index 1 out of bounds for length 1"},
+            {"int f() { int[] xs = int[3]; int[] ys = int[2]; for (int i = 0; i < xs.length; i++) { ys[i] = i; } return 0; }", "Exception: Index 2 out of bounds for length 2"},
+            {"int f() { float[] ds = float[2]; ds[1] = 1.5; bool[] bs = bool[2]; bs[0] = true; string[] ss = string[2]; ss[1] = \"s\"; return ds.length + bs.length + ss.length; }", "6"},
+    };
+
+    public static void main(String[] args) {
+
+        for (String[] program : PROGRAMS) {
+            Assertions.equal(program[1], value(program[0], false), program[0]);
+            Assertions.equal(program[1], value(program[0], true), program[0]);
+        }
+    }
+
+    /**
+     * @return printed value or error
+     */
+    private static String value(String input, boolean optimized) {
+        try (Evaluator evaluator = new Evaluator()) {
+            PDefs program = (PDefs) new Parser(new Lexer().lex(input)).parseProgram();
+            return String.valueOf(evaluator.visit(optimized ? (PDefs) new Optimizer().optimize(program) : program).value);
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.csci.visitor;
+
+import com.csci.Assertions;
+import com.csci.engine.CompiledProgram;
+import com.csci.runtime.CancellationToken;
+import com.csci.runtime.EvaluationCancelledException;
+import com.csci.runtime.FuelExhaustedException;
+import com.csci.runtime.MemoryQuotaExceededException;
+import com.csci.runtime.TimeLimitExceededException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs loops long enough to overflow the stack of a recursive loop, and loops that never end under a fuel budget,
+ * a memory quota, a time limit and a cancelled token, which have to fail with the exception of the limit soon after it is hit.
+ */
+public class EvaluatorLimitsTest {
+
+    private static final String COUNT = "int main() { int i = 0; while (i < 100000) { i++; } return i; }";
+
+    private static final String GROW = "int main() { string s = \"x\"; while (true) { s = s + s + 1; } return 0; }";
+
+    private static final String FOREVER = "int main() { int i = 0; while (true) { i++; } return i; }";
+
+    public static void main(String[] args) throws Exception {
+
+        try (Evaluator evaluator = new Evaluator()) {
+            Assertions.equal("100000", String.valueOf(CompiledProgram.compile(COUNT).run(evaluator).value), COUNT);
+        }
+
+        try (Evaluator evaluator = new Evaluator()) {
+            evaluator.setFuel(1_000_000);
+            fails(FOREVER, evaluator, FuelExhaustedException.class);
+            Assertions.equal(1_000_000L, evaluator.fuelConsumed(), FOREVER);
+        }
+
+        try (Evaluator evaluator = new Evaluator()) {
+            evaluator.setMemoryQuota(1 << 20);
+            fails(GROW, evaluator, MemoryQuotaExceededException.class);
+            Assertions.check(evaluator.allocatedBytes() > 1 << 20 && evaluator.allocatedBytes() < 4 << 20,
+                    "Run with a memory quota of 1MB allocated " + evaluator.allocatedBytes() + " bytes");
+        }
+
+        long start = System.nanoTime();
+
+        try (Evaluator evaluator = new Evaluator()) {
+            evaluator.setTimeLimit(500);
+            fails(FOREVER, evaluator, TimeLimitExceededException.class);
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assertions.check(elapsed >= 500 && elapsed < 5000, "Run with a time limit of 500ms took " + elapsed + "ms");
+
+        CancellationToken token = new CancellationToken();
+        Thread canceller = Thread.ofPlatform().start(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignored) {
+            }
+            token.cancel();
+        });
+
+        try (Evaluator evaluator = new Evaluator()) {
+            evaluator.setCancellationToken(token);
+            fails(FOREVER, evaluator, EvaluationCancelledException.class);
+            Assertions.check(!(evaluator.variables().containsKey("i")), "Cancelled run kept its variables");
+        }
+
+        canceller.join();
+    }
+
+    /**
+     * Run a program and check that it fails with the given exception
+     */
+    static void fails(String input, Evaluator evaluator, Class<? extends Exception> expected) throws Exception {
+
+        CompiledProgram program = CompiledProgram.compile(input);
+
+        try {
+            program.run(evaluator);
+        } catch (Exception e) {
+            Assertions.check(expected.isInstance(e), "Run of " + Assertions.printable(input) + " failed with " + e
+                    + " instead of " + expected.getSimpleName());
+            return;
+        }
+
+        throw new AssertionError("Run of " + Assertions.printable(input) + " did not fail");
+    }
+}